@@ -0,0 +1,60 @@
+package com.example.e_learning.config;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose cost is chosen for the machine it runs on. A stored hash with a lower
+ * cost is reported as needing an upgrade, so it is rehashed at the next successful login.
+ * Hashes with a higher cost are kept: instances calibrated on different hardware would
+ * otherwise rehash each other's users back and forth.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Pattern COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher cost = COST.matcher(encodedPassword);
+        return cost.find() && Integer.parseInt(cost.group(1)) < strength;
+    }
+
+    /**
+     * Returns the highest cost between {@code min} and {@code max} whose hash is estimated to
+     * take no longer than {@code targetMillis} here. Each step of cost doubles the work, so
+     * one measurement at {@code min} is enough to extrapolate.
+     */
+    public static int calibrate(long targetMillis, int min, int max) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(min);
+        // Warm-up so the measured runs are compiled code
+        probe.encode("calibration");
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double measuredMillis = Math.max(nanos[SAMPLES / 2] / 1_000_000.0, 0.001);
+        int steps = (int) Math.floor(Math.log(targetMillis / measuredMillis) / Math.log(2));
+        return Math.max(min, Math.min(max, min + steps));
+    }
+}
@@ -4,30 +4,75 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * The only place CORS headers are written. Header values are fixed at startup and preflights
+ * are answered here, before security or any other filter runs. One request in
+ * {@code edge.log.sample-rate} is logged, through the asynchronous appender configured for
+ * this logger, so request threads never wait on the console.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE) // Run before other filters
 public class CorsFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(CorsFilter.class);
+
+    private final String allowedOrigin;
+    private final String allowedMethods;
+    private final String allowedHeaders;
+    private final String maxAge;
+    private final int sampleRate;
+
+    public CorsFilter(@Value("${cors.allowed-origin:https://e-learning-management.netlify.app}") String allowedOrigin,
+                      @Value("${cors.allowed-methods:GET, POST, PUT, DELETE, OPTIONS}") String allowedMethods,
+                      @Value("${cors.allowed-headers:*}") String allowedHeaders,
+                      @Value("${cors.max-age-seconds:3600}") long maxAgeSeconds,
+                      @Value("${edge.log.sample-rate:100}") int sampleRate) {
+        this.allowedOrigin = allowedOrigin;
+        this.allowedMethods = allowedMethods;
+        this.allowedHeaders = allowedHeaders;
+        this.maxAge = Long.toString(maxAgeSeconds);
+        this.sampleRate = sampleRate;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        response.setHeader("Access-Control-Allow-Origin", "https://e-learning-management.netlify.app");
-        response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "*");
+        response.setHeader("Access-Control-Allow-Origin", allowedOrigin);
         response.setHeader("Access-Control-Allow-Credentials", "true");
-        response.setHeader("Access-Control-Max-Age", "3600");
-        System.out.println("CorsFilter applied for request: " + request.getRequestURI());
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            response.setHeader("Access-Control-Allow-Methods", allowedMethods);
+            response.setHeader("Access-Control-Allow-Headers", allowedHeaders);
+            response.setHeader("Access-Control-Max-Age", maxAge);
             response.setStatus(HttpServletResponse.SC_OK);
             return;
         }
-        filterChain.doFilter(request, response);
+        if (!sampled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            logger.info("{} {} -> {} in {} ms", request.getMethod(), request.getRequestURI(), response.getStatus(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate > 0 && logger.isInfoEnabled()
+                && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
     }
-}
\ No newline at end of file
+}
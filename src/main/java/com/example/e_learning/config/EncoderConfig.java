@@ -1,29 +1,54 @@
 package com.example.e_learning.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class EncoderConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(EncoderConfig.class);
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${password.hashing.threads:0}") int threads,
+                                           @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${password.bcrypt.strength:0}") int strength,
+                                           @Value("${password.bcrypt.target-ms:250}") long targetMillis,
+                                           @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${password.bcrypt.max-strength:16}") int maxStrength) {
+        int cost;
+        if (strength > 0) {
+            cost = strength;
+            logger.info("BCrypt cost {} (configured)", cost);
+        } else {
+            // Each instance measures its own hardware, so the result can differ between them and across restarts
+            cost = AdaptiveBCryptPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+            logger.warn("BCrypt cost {} calibrated for {} ms on this instance; set password.bcrypt.strength={} "
+                    + "to use the same cost on every instance", cost, targetMillis, cost);
+        }
+        Gauge.builder("password.bcrypt.cost", () -> cost)
+                .description("BCrypt work factor used for new hashes").register(meterRegistry);
+
         // Create a DelegatingPasswordEncoder that supports BCrypt without requiring {bcrypt} prefix
         String idForEncode = "bcrypt";
         Map<String, PasswordEncoder> encoders = new HashMap<>();
-        encoders.put(idForEncode, new BCryptPasswordEncoder());
-        encoders.put(null, new BCryptPasswordEncoder()); // Handle passwords without prefix
-        return new DelegatingPasswordEncoder(idForEncode, encoders);
-    }
-
-    @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
+        AdaptiveBCryptPasswordEncoder bcrypt = new AdaptiveBCryptPasswordEncoder(cost);
+        encoders.put(idForEncode, bcrypt);
+        encoders.put(null, bcrypt); // Handle passwords without prefix
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // BCrypt is CPU-bound; more threads than cores only adds queueing inside the pool
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, meterRegistry);
     }
-}
\ No newline at end of file
+}
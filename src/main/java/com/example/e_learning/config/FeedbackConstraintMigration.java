@@ -0,0 +1,36 @@
+package com.example.e_learning.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.repository.FeedbackJdbcRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Makes sure the one-review-per-learner constraint exists before feedback is upserted.
+ * Schema update cannot add it while duplicate reviews exist, so those are collapsed to
+ * the newest review first. Runs after Hibernate has updated the schema.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class FeedbackConstraintMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackConstraintMigration.class);
+
+    private final FeedbackJdbcRepository feedbackJdbcRepository;
+
+    public FeedbackConstraintMigration(FeedbackJdbcRepository feedbackJdbcRepository) {
+        this.feedbackJdbcRepository = feedbackJdbcRepository;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        int removed = feedbackJdbcRepository.enforceOneReviewPerLearner();
+        if (removed > 0) {
+            logger.warn("Removed {} duplicate reviews while adding the one-review-per-learner constraint", removed);
+        }
+    }
+}
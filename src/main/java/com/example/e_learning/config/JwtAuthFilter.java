@@ -30,76 +30,47 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private RouteTable routeTable;
+
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
             throws ServletException, IOException {
-        res.setHeader("Access-Control-Allow-Origin", "https://e-learning-management.netlify.app");
-        res.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        res.setHeader("Access-Control-Allow-Headers", "*");
-        res.setHeader("Access-Control-Allow-Credentials", "true");
-
-        if ("OPTIONS".equalsIgnoreCase(req.getMethod())) {
-            res.setStatus(HttpServletResponse.SC_OK);
-            logger.debug("Handled CORS preflight request for {}", req.getRequestURI());
-            return;
-        }
-
+        RouteTable.Route route = routeTable.classify(req);
         String path = req.getRequestURI();
-        if (isPublicEndpoint(path)) {
-            logger.debug("Skipping JWT processing for public endpoint: {}", path);
+        if (route.access() == RouteTable.Access.PREFLIGHT) {
             chain.doFilter(req, res);
             return;
         }
 
+        // Public routes admit anonymous callers, but a token that is sent is still verified so that
+        // handlers and @PreAuthorize rules see the caller
         String authHeader = req.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
             try {
-                String username = jwtService.extractUsername(jwt);
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    String role = jwtService.extractClaim(jwt, claims -> claims.get("role", String.class));
-                    if (role != null && jwtService.isTokenValid(jwt)) {
+                JwtService.JwtPrincipal principal = jwtService.verify(jwt);
+                String username = principal.username();
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    String role = principal.role();
+                    if (role != null) {
                         var authorities = List.of(new SimpleGrantedAuthority(role));
                         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                                username, null, authorities);
+                                principal, null, authorities);
                         auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                         SecurityContextHolder.getContext().setAuthentication(auth);
                         logger.debug("Authenticated user: {} with role: {} for path: {}", username, role, path);
                     } else {
-                        logger.warn("No role found or invalid JWT for user: {} on path: {}", username, path);
+                        logger.warn("No role found in JWT for user: {} on path: {}", username, path);
                     }
                 }
             } catch (Exception e) {
                 logger.warn("JWT processing error for path: {}: {}", path, e.getMessage());
             }
-        } else {
+        } else if (!route.isPublic()) {
             logger.debug("No valid Authorization header for path: {}", path);
         }
 
         chain.doFilter(req, res);
     }
-
-    private boolean isPublicEndpoint(String path) {
-        String[] publicEndpoints = {
-            "/auth/login",
-            "/auth/signup",
-            "/auth/check-username",
-            "/auth/check-email",
-            "/courses",
-            "/courses/highest-enrolled-users-count",
-            "/instructor/",
-            "/feedback/",
-            "/swagger-ui/",
-            "/v3/api-docs/",
-            "/test/",
-            "/admin/add-bcrypt-prefix"
-        };
-        for (String endpoint : publicEndpoints) {
-            // Exact match for /courses to avoid matching /courses/enrolled-courses
-            if (endpoint.equals("/courses") ? path.equals("/courses") : path.startsWith(endpoint)) {
-                return true;
-            }
-        }
-        return false;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.example.e_learning.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the per-route rate limits declared in {@link SecurityConfig}, keyed by client IP.
+ * Requests are matched through the shared {@link RouteTable}, on the decoded path Spring MVC
+ * dispatches on, so an encoded path cannot reach a limited handler unlimited. Rejected
+ * requests get 429 with {@code Retry-After} before any database or hashing work.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+    private final RouteTable routeTable;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RouteTable routeTable) {
+        this.rateLimiter = rateLimiter;
+        this.routeTable = routeTable;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        RouteTable.Route route = routeTable.classify(req);
+        RateLimitPolicy policy = route.access() == RouteTable.Access.PREFLIGHT ? null : rateLimiter.routePolicy(route.pattern());
+        if (policy != null) {
+            long retryAfter = rateLimiter.tryAcquire(policy, req.getRemoteAddr());
+            if (retryAfter > 0) {
+                logger.debug("Rate limited {} on {} for {}s", req.getRemoteAddr(), req.getRequestURI(), retryAfter);
+                res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+                res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                res.getWriter().write("{\"error\":\"Too many requests, please retry later\"}");
+                return;
+            }
+        }
+        chain.doFilter(req, res);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.e_learning.config;
+
+import java.time.Duration;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * A token bucket: {@code limit} requests per {@code period} on average, with bursts of up to
+ * {@code burst} requests.
+ */
+public record RateLimitPolicy(String name, long limit, Duration period, long burst) {
+
+    public RateLimitPolicy {
+        if (limit < 1 || burst < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Invalid rate limit policy " + name);
+        }
+    }
+
+    /**
+     * Reads {@code rate-limit.<name>.limit}, {@code .period-seconds} and {@code .burst},
+     * falling back to the given defaults.
+     */
+    public static RateLimitPolicy from(Environment env, String name, long limit, long periodSeconds, long burst) {
+        String prefix = "rate-limit." + name + ".";
+        return new RateLimitPolicy(name,
+                env.getProperty(prefix + "limit", Long.class, limit),
+                Duration.ofSeconds(env.getProperty(prefix + "period-seconds", Long.class, periodSeconds)),
+                env.getProperty(prefix + "burst", Long.class, burst));
+    }
+
+    public long intervalNanos() {
+        return period.toNanos() / limit;
+    }
+
+    public long toleranceNanos() {
+        return intervalNanos() * burst;
+    }
+}
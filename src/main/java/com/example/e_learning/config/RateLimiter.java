@@ -0,0 +1,93 @@
+package com.example.e_learning.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.example.e_learning.util.RateLimitTable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rate limits requests per policy and client key. All policies share one bounded
+ * {@link RateLimitTable}; routes and policies are declared in {@link SecurityConfig} before
+ * the limiter is used.
+ */
+public class RateLimiter {
+
+    private final RateLimitTable table;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RateLimitPolicy> policies = new HashMap<>();
+    private final Map<String, RateLimitPolicy> routes = new HashMap<>();
+    private final Map<String, Counter[]> counters = new HashMap<>();
+
+    public RateLimiter(int maxKeys, MeterRegistry meterRegistry) {
+        this.table = new RateLimitTable(maxKeys);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("rate.limit.capacity", table, RateLimitTable::capacity)
+                .description("Buckets the rate limiter can track at once").register(meterRegistry);
+    }
+
+    public RateLimiter register(RateLimitPolicy policy) {
+        policies.put(policy.name(), policy);
+        counters.computeIfAbsent(policy.name(), name -> new Counter[] {
+                Counter.builder("rate.limit.requests").tag("policy", name).tag("outcome", "allowed").register(meterRegistry),
+                Counter.builder("rate.limit.requests").tag("policy", name).tag("outcome", "rejected").register(meterRegistry)
+        });
+        return this;
+    }
+
+    /**
+     * Limits requests classified under {@code pattern}, which must be a pattern registered in
+     * the {@link RouteTable}.
+     */
+    public RateLimiter route(String pattern, RateLimitPolicy policy) {
+        register(policy);
+        routes.put(pattern, policy);
+        return this;
+    }
+
+    public RateLimitPolicy routePolicy(String pattern) {
+        return routes.get(pattern);
+    }
+
+    /**
+     * Returns 0 when the request is admitted, otherwise the whole seconds to wait.
+     */
+    public long tryAcquire(String policyName, String key) {
+        RateLimitPolicy policy = policies.get(policyName);
+        if (policy == null) {
+            throw new IllegalStateException("Unknown rate limit policy: " + policyName);
+        }
+        return tryAcquire(policy, key);
+    }
+
+    public long tryAcquire(RateLimitPolicy policy, String key) {
+        long waitNanos = table.acquire(hash(policy.name(), key), policy.intervalNanos(), policy.toleranceNanos());
+        Counter[] outcome = counters.get(policy.name());
+        if (waitNanos == 0) {
+            outcome[0].increment();
+            return 0;
+        }
+        outcome[1].increment();
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // 64-bit FNV-1a over policy and key, so buckets of different policies never share a slot key
+    private static long hash(String policy, String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < policy.length(); i++) {
+            h = (h ^ policy.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ '|') * 0x100000001b3L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
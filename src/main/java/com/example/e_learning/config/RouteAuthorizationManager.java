@@ -0,0 +1,47 @@
+package com.example.e_learning.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+/**
+ * Grants or denies each request according to the {@link RouteTable} classification that
+ * {@link JwtAuthFilter} already made for it.
+ */
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final RouteTable routeTable;
+
+    public RouteAuthorizationManager(RouteTable routeTable) {
+        this.routeTable = routeTable;
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        RouteTable.Route route = routeTable.classify(context.getRequest());
+        if (route.isPublic()) {
+            return GRANTED;
+        }
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+        if (route.access() != RouteTable.Access.ROLE) {
+            return GRANTED;
+        }
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            if (route.authorities().contains(authority.getAuthority())) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.e_learning.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Access rules for every route, compiled at startup into a trie of path segments. A request
+ * is classified once, by a single walk of its path, and the result is kept on the request for
+ * {@link RateLimitFilter}, {@link JwtAuthFilter} and {@link RouteAuthorizationManager}. The
+ * path is matched within the application, percent-decoded and without matrix variables, as
+ * Spring MVC matches it, so an encoded segment cannot reach a handler under another rule.
+ *
+ * <p>Patterns use the same syntax as Spring's path patterns: literal segments, {@code {name}}
+ * or {@code *} for any one segment, and a trailing {@code /**} for any remainder, including
+ * none. When several patterns match, literal segments win over variables, and variables over
+ * {@code /**}. A pattern registered for an HTTP method wins over the same pattern for any
+ * method; when only other methods are registered, the walk carries on as if the pattern did
+ * not match. Paths matching no pattern require authentication; CORS preflights are public.
+ */
+public final class RouteTable {
+
+    public static final String ATTRIBUTE = RouteTable.class.getName() + ".ROUTE";
+
+    public enum Access {
+        PUBLIC, AUTHENTICATED, ROLE, PREFLIGHT
+    }
+
+    /**
+     * The rule a request falls under. {@code method} is null for a rule covering every method;
+     * {@code authorities} are the {@code ROLE_} authorities that grant a {@link Access#ROLE} route.
+     */
+    public record Route(String method, String pattern, Access access, List<String> authorities) {
+        public boolean isPublic() {
+            return access == Access.PUBLIC || access == Access.PREFLIGHT;
+        }
+    }
+
+    private static final Route PREFLIGHT = new Route("OPTIONS", "/**", Access.PREFLIGHT, List.of());
+    private static final Route FALLBACK = new Route(null, "/**", Access.AUTHENTICATED, List.of());
+
+    // The routes registered for one pattern: at most one per method, and one for any method
+    private static final class Routes {
+        private String[] methods = new String[0];
+        private Route[] byMethod = new Route[0];
+        private Route any;
+
+        private Route resolve(String method) {
+            Route route = resolveExact(method);
+            return route != null ? route : any;
+        }
+
+        private void claim(Route route) {
+            Route existing = route.method() == null ? any : resolveExact(route.method());
+            if (existing != null) {
+                throw new IllegalStateException("Route " + describe(route) + " overlaps " + describe(existing));
+            }
+            if (route.method() == null) {
+                any = route;
+                return;
+            }
+            methods = Arrays.copyOf(methods, methods.length + 1);
+            byMethod = Arrays.copyOf(byMethod, byMethod.length + 1);
+            methods[methods.length - 1] = route.method();
+            byMethod[byMethod.length - 1] = route;
+        }
+
+        private Route resolveExact(String method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return byMethod[i];
+                }
+            }
+            return null;
+        }
+
+        private static String describe(Route route) {
+            return route.method() == null ? route.pattern() : route.method() + " " + route.pattern();
+        }
+    }
+
+    private static final class Node {
+        private String[] literals = new String[0];
+        private Node[] children = new Node[0];
+        private Node variable;
+        private Routes route;
+        private Routes remainder;
+
+        private Node literal(String segment) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            literals[literals.length - 1] = segment;
+            return children[children.length - 1] = new Node();
+        }
+    }
+
+    private final Node root;
+
+    private RouteTable(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Classifies the request, reusing the result of an earlier call for the same dispatch.
+     */
+    public Route classify(HttpServletRequest request) {
+        boolean cacheable = request.getDispatcherType() == DispatcherType.REQUEST;
+        if (cacheable && request.getAttribute(ATTRIBUTE) instanceof Route route) {
+            return route;
+        }
+        String method = request.getMethod();
+        Route route = "OPTIONS".equalsIgnoreCase(method) ? PREFLIGHT : classify(method, pathWithinApplication(request));
+        if (cacheable) {
+            request.setAttribute(ATTRIBUTE, route);
+        }
+        return route;
+    }
+
+    public Route classify(String method, String path) {
+        Route route = path.startsWith("/") ? match(root, method, path, 1) : null;
+        return route != null ? route : FALLBACK;
+    }
+
+    // Walks the segment starting at index start; literals are compared in place, never cut out
+    private static Route match(Node node, String method, String path, int start) {
+        if (start > path.length()) {
+            Route route = resolve(node.route, method);
+            return route != null ? route : resolve(node.remainder, method);
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        for (int i = 0; i < node.literals.length; i++) {
+            String literal = node.literals[i];
+            if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                Route route = match(node.children[i], method, path, end + 1);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (node.variable != null && length > 0) {
+            Route route = match(node.variable, method, path, end + 1);
+            if (route != null) {
+                return route;
+            }
+        }
+        return resolve(node.remainder, method);
+    }
+
+    private static Route resolve(Routes routes, String method) {
+        return routes != null ? routes.resolve(method) : null;
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        boolean hasContextPath = contextPath != null && !contextPath.isEmpty();
+        if (uri.indexOf('%') < 0 && uri.indexOf(';') < 0) {
+            // Nothing to decode or strip, which is every request from a well-behaved client
+            return hasContextPath ? uri.substring(contextPath.length()) : uri;
+        }
+        PathContainer path = RequestPath.parse(uri, hasContextPath ? contextPath : null).pathWithinApplication();
+        StringBuilder decoded = new StringBuilder(uri.length());
+        for (PathContainer.Element element : path.elements()) {
+            decoded.append(element instanceof PathContainer.PathSegment segment ? segment.valueToMatch() : element.value());
+        }
+        return decoded.toString();
+    }
+
+    public static final class Builder {
+
+        private final Node root = new Node();
+
+        private Builder() {
+        }
+
+        public Matcher match(String... patterns) {
+            return new Matcher(this, null, patterns);
+        }
+
+        public Matcher match(HttpMethod method, String... patterns) {
+            return new Matcher(this, method.name(), patterns);
+        }
+
+        public RouteTable build() {
+            return new RouteTable(root);
+        }
+
+        private Builder add(String method, String[] patterns, Access access, List<String> authorities) {
+            for (String pattern : patterns) {
+                insert(pattern, new Route(method, pattern, access, authorities));
+            }
+            return this;
+        }
+
+        private void insert(String pattern, Route route) {
+            if (!pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+            }
+            String[] segments = pattern.substring(1).split("/", -1);
+            Node node = root;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.equals("**")) {
+                    if (i != segments.length - 1) {
+                        throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                    }
+                    node.remainder = claim(node.remainder, route);
+                    return;
+                }
+                if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                    if (node.variable == null) {
+                        node.variable = new Node();
+                    }
+                    node = node.variable;
+                } else {
+                    node = node.literal(segment);
+                }
+            }
+            node.route = claim(node.route, route);
+        }
+
+        private static Routes claim(Routes routes, Route route) {
+            if (routes == null) {
+                routes = new Routes();
+            }
+            routes.claim(route);
+            return routes;
+        }
+    }
+
+    public static final class Matcher {
+
+        private final Builder builder;
+        private final String method;
+        private final String[] patterns;
+
+        private Matcher(Builder builder, String method, String[] patterns) {
+            this.builder = builder;
+            this.method = method;
+            this.patterns = patterns;
+        }
+
+        public Builder permitAll() {
+            return builder.add(method, patterns, Access.PUBLIC, List.of());
+        }
+
+        public Builder authenticated() {
+            return builder.add(method, patterns, Access.AUTHENTICATED, List.of());
+        }
+
+        public Builder hasRole(String role) {
+            return hasAnyRole(role);
+        }
+
+        public Builder hasAnyRole(String... roles) {
+            List<String> authorities = new ArrayList<>(roles.length);
+            for (String role : roles) {
+                authorities.add("ROLE_" + role);
+            }
+            return builder.add(method, patterns, Access.ROLE, List.copyOf(authorities));
+        }
+    }
+}
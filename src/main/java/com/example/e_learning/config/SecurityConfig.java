@@ -3,6 +3,7 @@ package com.example.e_learning.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -12,11 +13,8 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
-import org.springframework.web.cors.CorsConfiguration;
-import org.springframework.web.cors.CorsConfigurationSource;
-import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.util.Arrays;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableWebSecurity
@@ -26,56 +24,85 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, RouteTable routeTable) throws Exception {
         http
-            .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            // CORS headers and preflights are handled once, by CorsFilter ahead of this chain
+            .cors(cors -> cors.disable())
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .authorizeHttpRequests(auth -> auth
-                .requestMatchers(
-                    "/auth/login",
-                    "/auth/signup",
-                    "/auth/check-username",
-                    "/auth/check-email",
-                    "/courses",
-                    "/courses/highest-enrolled-users-count",
-                    "/instructor/{instructorId}/courses",
-                    "/instructor/proxy-image",
-                    "/instructor/{instructorId}/highest-enrolled-courses",
-                    "/instructor/{instructorId}",
-                    "/instructor/{instructorId}/enrollment-count",
-                    "/courses/{courseId}/enrollment-count",
-                    "/feedback/highest-rated-courses",
-                    "/feedback/course/{courseId}",
-                    "/feedback/course/{courseId}/average-rating",
-                    "/feedback/all",
-                    "/feedback/instructor/{instructorId}/feedback-count",
-                    "/instructor/average-rating",
-                    "/swagger-ui/**",
-                    "/v3/api-docs/**",
-                    "/admin/add-bcrypt-prefix"
-                ).permitAll()
-                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-                .requestMatchers("/courses/enrolled-courses").hasAnyRole("USER", "INSTRUCTOR", "ADMIN")
-                .anyRequest().authenticated()
-            )
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(new RouteAuthorizationManager(routeTable)))
+            .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Access rules for every route, shared by the filter chain's authorization and
+     * {@link JwtAuthFilter}. Public read endpoints are public for GET only; unlisted routes
+     * and methods require authentication, and method-level {@code @PreAuthorize} rules apply
+     * on top. Static for the same reason as the rate limiter.
+     */
+    @Bean
+    public static RouteTable routeTable() {
+        return RouteTable.builder()
+            .match(
+                "/auth/login",
+                "/auth/signup",
+                "/auth/refresh",
+                "/auth/logout",
+                "/auth/check-username",
+                "/auth/check-email",
+                "/swagger-ui/**",
+                "/v3/api-docs/**",
+                "/admin/add-bcrypt-prefix"
+            ).permitAll()
+            .match(HttpMethod.GET,
+                "/courses",
+                "/courses/highest-enrolled-users-count",
+                "/instructor/{instructorId}/courses",
+                "/instructor/proxy-image",
+                "/instructor/{instructorId}/highest-enrolled-courses",
+                "/instructor/{instructorId}",
+                "/instructor/{instructorId}/enrollment-count",
+                "/instructor/{instructorId}/audience",
+                "/courses/{courseId}/enrollment-count",
+                "/feedback/highest-rated-courses",
+                "/feedback/course/{courseId}",
+                "/feedback/course/{courseId}/average-rating",
+                "/feedback/all",
+                "/feedback/instructor/{instructorId}/feedback-count",
+                "/instructor/average-rating"
+            ).permitAll()
+            // Literal siblings of the public /instructor/{instructorId}, which they would otherwise fall under
+            .match("/instructor/apply", "/instructor/applications", "/instructor/approve").authenticated()
+            .match("/courses/enrolled-courses").hasAnyRole("USER", "INSTRUCTOR", "ADMIN")
+            .match("/actuator/**").hasRole("ADMIN")
+            .build();
+    }
+
+    /**
+     * Rate limits for unauthenticated endpoints that cost database or CPU work. Route
+     * policies are keyed by client IP in {@link RateLimitFilter}; {@code login-username} is
+     * applied by the login endpoint per account, so one IP cannot spray many accounts and many
+     * IPs cannot hammer one account. Every value can be overridden with
+     * {@code rate-limit.<policy>.limit}, {@code .period-seconds} and {@code .burst}. Static so
+     * that {@link RateLimitFilter} can be injected into this class without a cycle.
+     */
     @Bean
-    public CorsConfigurationSource corsConfigurationSource() {
-        CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(Arrays.asList("https://e-learning-management.netlify.app"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setAllowCredentials(true);
-        configuration.setMaxAge(3600L);
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
-        return source;
+    public static RateLimiter rateLimiter(MeterRegistry meterRegistry, Environment env) {
+        RateLimitPolicy availability = RateLimitPolicy.from(env, "check-availability", 30, 60, 10);
+        return new RateLimiter(env.getProperty("rate-limit.max-keys", Integer.class, 65536), meterRegistry)
+                .route("/auth/login", RateLimitPolicy.from(env, "login-ip", 20, 60, 10))
+                .route("/auth/check-username", availability)
+                .route("/auth/check-email", availability)
+                .route("/feedback/all", RateLimitPolicy.from(env, "feedback-all", 60, 60, 20))
+                .route("/instructor/proxy-image", RateLimitPolicy.from(env, "proxy-image", 60, 60, 20))
+                .register(RateLimitPolicy.from(env, "login-username", 5, 60, 5));
     }
 
     @Bean
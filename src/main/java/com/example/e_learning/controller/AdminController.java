@@ -1,13 +1,31 @@
 package com.example.e_learning.controller;
 
+import com.example.e_learning.dto.AudienceEstimateDTO;
+import com.example.e_learning.dto.SubtopicLinkStatusDTO;
+import com.example.e_learning.dto.UserImportResultDTO;
 import com.example.e_learning.entity.User;
 import com.example.e_learning.repository.UserRepository;
+import com.example.e_learning.service.CourseService;
+import com.example.e_learning.service.SubtopicLinkChecker;
+import com.example.e_learning.service.UserImportService;
 
+import io.swagger.v3.oas.annotations.Operation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -16,6 +34,15 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private SubtopicLinkChecker linkChecker;
+
+    @Autowired
+    private UserImportService userImportService;
+
     @PostMapping("/add-bcrypt-prefix")
     public String addBcryptPrefix() {
         List<User> users = userRepository.findAll();
@@ -28,4 +55,73 @@ public class AdminController {
         }
         return "BCrypt prefixes added successfully";
     }
-}
\ No newline at end of file
+
+    @Operation(
+        summary = "Get approximate platform-wide unique learners and reviewers",
+        description = "Merges the per-course HyperLogLog sketches of every course. Requires ADMIN role.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/analytics/audience")
+    public ResponseEntity<?> getGlobalAudience() {
+        try {
+            AudienceEstimateDTO audience = courseService.getGlobalAudience();
+            return ResponseEntity.ok(audience);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to estimate audience: " + e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "List subtopic link health results",
+        description = "Pages through the latest link check results, most persistently failing first. Without an outcome filter only unhealthy links (BROKEN, TIMEOUT, ERROR, INVALID) are listed. Requires ADMIN role.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/links")
+    public ResponseEntity<?> getLinkStatuses(@RequestParam(required = false) String outcome,
+                                             @RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body(Map.of("error", "page must be >= 0 and size between 1 and 500"));
+        }
+        Page<SubtopicLinkStatusDTO> statuses = linkChecker.getStatuses(outcome, page, size);
+        return ResponseEntity.ok(statuses);
+    }
+
+    @Operation(
+        summary = "Summarise subtopic link health",
+        description = "Returns the number of links per outcome and details of the last completed scan. Requires ADMIN role.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/links/summary")
+    public ResponseEntity<Map<String, Object>> getLinkSummary() {
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("outcomes", linkChecker.getOutcomeCounts());
+        summary.put("running", linkChecker.isRunning());
+        summary.put("lastRun", linkChecker.getLastRun());
+        return ResponseEntity.ok(summary);
+    }
+
+    @Operation(
+        summary = "Start a subtopic link check",
+        description = "Starts a full scan of subtopic URLs in the background. Requires ADMIN role.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/links/check")
+    public ResponseEntity<Map<String, String>> startLinkCheck() {
+        if (!linkChecker.startCheck()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "A link check is already running"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Link check started"));
+    }
+
+    @Operation(
+        summary = "Import users from CSV",
+        description = "Creates USER accounts from a CSV with a header row containing name, email, username and password. Rows whose username or email is already registered, or repeated in the file, are skipped. Returns the outcome of every row. Requires ADMIN role.")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<?> importUsers(InputStream body) throws IOException {
+        try {
+            UserImportResultDTO result = userImportService.importUsers(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
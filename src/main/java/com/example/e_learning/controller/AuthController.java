@@ -1,24 +1,29 @@
 package com.example.e_learning.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import com.example.e_learning.config.RateLimiter;
 import com.example.e_learning.dto.JwtRequest;
 import com.example.e_learning.dto.JwtResponse;
+import com.example.e_learning.dto.RefreshTokenRequest;
 import com.example.e_learning.dto.SignupRequest;
+import com.example.e_learning.entity.User;
 import com.example.e_learning.service.JwtService;
 import com.example.e_learning.service.UserService;
 
+import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -27,6 +32,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Tag(name = "auth", description = "Authentication and user registration endpoints")
 @RestController
@@ -36,15 +42,20 @@ public class AuthController {
     @Autowired private AuthenticationManager authenticationManager;
     @Autowired private JwtService jwtService;
     @Autowired private UserService userService;
+    @Autowired private RateLimiter rateLimiter;
 
     @Operation(
         summary = "User login",
-        description = "Authenticates a user with username and password, returning a JWT token upon successful authentication.",
+        description = "Authenticates a user with username and password, returning a short-lived JWT access token and a refresh token upon successful authentication.",
         responses = {
             @ApiResponse(responseCode = "200", description = "Authentication successful, JWT token returned", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = JwtResponse.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized: Incorrect username or password", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "429", description = "Too many login attempts from this address or for this account", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "503", description = "Too many logins in progress; retry after the Retry-After delay", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
             @ApiResponse(responseCode = "500", description = "Server error", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
         }
@@ -53,6 +64,14 @@ public class AuthController {
     public ResponseEntity<?> createAuthenticationToken(@Valid @RequestBody 
         @Parameter(description = "Login credentials containing username and password", required = true) 
         JwtRequest request) {
+        if (request.getUsername() != null) {
+            long retryAfter = rateLimiter.tryAcquire("login-username", request.getUsername().toLowerCase());
+            if (retryAfter > 0) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                        .body(Map.of("error", "Too many login attempts for this account, please retry later"));
+            }
+        }
         try {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
@@ -60,9 +79,56 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Incorrect username or password"));
         }
 
-        final UserDetails userDetails = userService.loadUserByUsername(request.getUsername());
-        final String jwt = jwtService.generateToken(userDetails.getUsername());
-        return ResponseEntity.ok(new JwtResponse(jwt));
+        final User user = userService.findByUsername(request.getUsername())
+                .orElseThrow(() -> new BadCredentialsException("Incorrect username or password"));
+        final JwtService.TokenPair tokens = jwtService.generateTokens(user);
+        return ResponseEntity.ok(new JwtResponse(tokens.accessToken(), tokens.refreshToken()));
+    }
+
+    @Operation(
+        summary = "Refresh tokens",
+        description = "Exchanges a refresh token for a new access token and refresh token. Each refresh token can be used once; the new access token reflects the user's current role.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "New token pair returned", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = JwtResponse.class))),
+            @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired or already used", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody 
+        @Parameter(description = "Refresh token from login or the previous refresh", required = true) 
+        RefreshTokenRequest request) {
+        try {
+            JwtService.TokenPair tokens = jwtService.refresh(request.getRefreshToken());
+            return ResponseEntity.ok(new JwtResponse(tokens.accessToken(), tokens.refreshToken()));
+        } catch (JwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Logout",
+        description = "Revokes the refresh token and, when sent as a Bearer token, the current access token.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Tokens revoked", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "401", description = "Refresh token invalid or expired", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@Valid @RequestBody 
+        @Parameter(description = "Refresh token to revoke", required = true) 
+        RefreshTokenRequest request,
+        @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        try {
+            String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+            jwtService.revoke(request.getRefreshToken(), accessToken);
+            return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
+        } catch (JwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @Operation(
@@ -86,6 +152,10 @@ public class AuthController {
             return ResponseEntity.ok(Map.of("message", "User registered successfully"));
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Registration failed: " + e.getMessage()));
         }
@@ -105,7 +175,7 @@ public class AuthController {
     public ResponseEntity<Map<String, String>> checkUsername(
         @Parameter(description = "Username to check for availability", required = true) 
         @RequestParam String username) {
-        if (userService.findByUsername(username).isPresent()) {
+        if (userService.isUsernameTaken(username)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Username already registered"));
         }
         return ResponseEntity.ok(Map.of("message", "Username is available"));
@@ -125,7 +195,7 @@ public class AuthController {
     public ResponseEntity<Map<String, String>> checkEmail(
         @Parameter(description = "Email to check for availability", required = true) 
         @RequestParam String email) {
-        if (userService.findByEmail(email).isPresent()) {
+        if (userService.isEmailTaken(email)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Email already registered"));
         }
         return ResponseEntity.ok(Map.of("message", "Email is available"));
@@ -1,20 +1,37 @@
 package com.example.e_learning.controller;
 
 import com.example.e_learning.dto.CourseContentDTO;
+import com.example.e_learning.dto.MoveRequestDTO;
+import com.example.e_learning.dto.OutlineSnapshotDTO;
 import com.example.e_learning.dto.SubtopicDTO;
 import com.example.e_learning.dto.TopicDTO;
 import com.example.e_learning.service.CourseContentService;
+import com.example.e_learning.service.CourseOutlineCache;
+import com.example.e_learning.service.OutlineSnapshotService;
+import com.example.e_learning.util.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/courses")
@@ -22,9 +39,12 @@ import java.util.Map;
 public class CourseContentController {
 
     private final CourseContentService courseContentService;
+    private final OutlineSnapshotService outlineSnapshotService;
 
-    public CourseContentController(CourseContentService courseContentService) {
+    public CourseContentController(CourseContentService courseContentService,
+                                   OutlineSnapshotService outlineSnapshotService) {
         this.courseContentService = courseContentService;
+        this.outlineSnapshotService = outlineSnapshotService;
     }
 
     @Operation(summary = "Add topic for a specific course", 
@@ -43,13 +63,117 @@ public class CourseContentController {
     }
 
     @Operation(summary = "Get topics by course ID", 
-               description = "Retrieves all topics and their subtopics for a specific course.")
+               description = "Retrieves all topics and their subtopics for a specific course: the published outline, or the draft while the course has never been published. The course's instructor and admins always get the draft. Responses carry an ETag; send it back in If-None-Match to get 304 Not Modified while the outline is unchanged.")
     @ApiResponse(responseCode = "200", description = "List of topics for the specified course", 
                  content = @Content(schema = @Schema(implementation = CourseContentDTO.class)))
+    @ApiResponse(responseCode = "304", description = "Outline unchanged since the supplied ETag")
     @ApiResponse(responseCode = "400", description = "Invalid course ID")
     @GetMapping("/{courseId}/topic")
-    public List<CourseContentDTO> getTopicByCourseId(@PathVariable Long courseId) {
-        return courseContentService.getTopicByCourseId(courseId);
+    public ResponseEntity<byte[]> getTopicByCourseId(@PathVariable Long courseId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CourseOutlineCache.CachedOutline outline = outlineSnapshotService.getOutlineForCurrentUser(courseId);
+        if (outline.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(outline.etag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(outline.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outline.json());
+    }
+
+    @Operation(summary = "Replace the outline of a course",
+               description = "Takes the full desired outline of a course. Topics and subtopics with an ID are updated or moved, those without an ID are created, and existing ones left out are deleted, all in one transaction. Admins can edit any course; instructors only their own.")
+    @ApiResponse(responseCode = "200", description = "Outline replaced; returns counts of inserted, updated, moved and deleted items",
+                 content = @Content(schema = @Schema(implementation = Map.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid course ID or outline")
+    @ApiResponse(responseCode = "403", description = "Unauthorized: User is not an admin or instructor, or instructor does not own this course")
+    @PutMapping("/{courseId}/outline")
+    public ResponseEntity<Map<String, Object>> replaceOutline(@PathVariable Long courseId,
+                                                              @RequestBody List<CourseContentDTO> outline) {
+        CourseContentService.OutlineChanges changes = courseContentService.replaceOutline(courseId, outline);
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Outline updated successfully");
+        response.put("inserted", changes.inserted());
+        response.put("updated", changes.updated());
+        response.put("moved", changes.moved());
+        response.put("deleted", changes.deleted());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Publish the course outline",
+               description = "Freezes the current topics and subtopics of a course into an immutable, content-addressed snapshot and makes it the published outline. Publishing an unchanged outline returns the current snapshot. Admins can publish any course; instructors only their own.")
+    @ApiResponse(responseCode = "200", description = "Published snapshot",
+                 content = @Content(schema = @Schema(implementation = OutlineSnapshotDTO.class)))
+    @ApiResponse(responseCode = "403", description = "Unauthorized: User is not an admin or instructor, or instructor does not own this course")
+    @ApiResponse(responseCode = "404", description = "Course not found")
+    @PostMapping("/{courseId}/outline/publish")
+    public ResponseEntity<OutlineSnapshotDTO> publishOutline(@PathVariable Long courseId) {
+        return ResponseEntity.ok(outlineSnapshotService.publish(courseId));
+    }
+
+    @Operation(summary = "Roll the published outline back to an earlier version",
+               description = "Points the course at a previously published snapshot. Admins can roll back any course; instructors only their own.")
+    @ApiResponse(responseCode = "200", description = "Snapshot now published",
+                 content = @Content(schema = @Schema(implementation = OutlineSnapshotDTO.class)))
+    @ApiResponse(responseCode = "403", description = "Unauthorized: User is not an admin or instructor, or instructor does not own this course")
+    @ApiResponse(responseCode = "404", description = "Course or version not found")
+    @PostMapping("/{courseId}/outline/rollback/{version}")
+    public ResponseEntity<OutlineSnapshotDTO> rollbackOutline(@PathVariable Long courseId, @PathVariable int version) {
+        return ResponseEntity.ok(outlineSnapshotService.rollback(courseId, version));
+    }
+
+    @Operation(summary = "List published outline versions",
+               description = "Lists every published snapshot of a course, newest first. Admins can list any course; instructors only their own.")
+    @ApiResponse(responseCode = "200", description = "Published versions",
+                 content = @Content(schema = @Schema(implementation = OutlineSnapshotDTO.class, type = "array")))
+    @GetMapping("/{courseId}/outline/versions")
+    public ResponseEntity<List<OutlineSnapshotDTO>> getOutlineVersions(@PathVariable Long courseId) {
+        return ResponseEntity.ok(outlineSnapshotService.getVersions(courseId));
+    }
+
+    @Operation(summary = "Get the published outline pointer",
+               description = "Returns the version and hash of the published outline of a course, with the URL its immutable snapshot can be fetched from. Served from memory.")
+    @ApiResponse(responseCode = "200", description = "Published snapshot",
+                 content = @Content(schema = @Schema(implementation = OutlineSnapshotDTO.class)))
+    @ApiResponse(responseCode = "404", description = "The course has no published outline")
+    @GetMapping("/{courseId}/outline/published")
+    public ResponseEntity<OutlineSnapshotDTO> getPublishedOutline(@PathVariable Long courseId) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(outlineSnapshotService.getPublished(courseId));
+    }
+
+    @Operation(summary = "Get an outline snapshot by hash",
+               description = "Serves the JSON of a published outline snapshot. Snapshots never change, so responses are cacheable forever. Sent gzip-encoded when the client accepts it.")
+    @ApiResponse(responseCode = "200", description = "Snapshot JSON",
+                 content = @Content(schema = @Schema(implementation = CourseContentDTO.class, type = "array")))
+    @ApiResponse(responseCode = "304", description = "Client already holds this snapshot")
+    @ApiResponse(responseCode = "404", description = "Snapshot not found")
+    @GetMapping("/outline-snapshots/{hash}")
+    public ResponseEntity<Resource> getOutlineSnapshot(@PathVariable String hash,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        Path blob = outlineSnapshotService.getBlob(hash);
+        String etag = "\"" + hash + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(Files.size(blob))
+                    .body(new FileSystemResource(blob));
+        }
+        return response.body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(blob))));
     }
 
     @Operation(summary = "Update a topic by ID", 
@@ -94,6 +218,34 @@ public class CourseContentController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Move a topic",
+               description = "Moves a topic directly after the topic given by afterId, or to the front of the course when afterId is omitted. Admins can move any topic; instructors only their own.")
+    @ApiResponse(responseCode = "200", description = "Topic moved successfully",
+                 content = @Content(schema = @Schema(implementation = Map.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid course ID or topic ID")
+    @ApiResponse(responseCode = "403", description = "Unauthorized: User is not an admin or instructor, or instructor is not authorized for this topic")
+    @PutMapping("/{courseId}/topic/{topicId}/position")
+    public ResponseEntity<Map<String, String>> moveTopic(@PathVariable Long courseId, @PathVariable Long topicId, @RequestBody MoveRequestDTO dto) {
+        courseContentService.moveTopic(courseId, topicId, dto.getAfterId());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Topic moved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Move a subtopic within its topic",
+               description = "Moves a subtopic directly after the subtopic given by afterId, or to the front of the topic when afterId is omitted. Admins can move any subtopic; instructors only within their own topics.")
+    @ApiResponse(responseCode = "200", description = "Subtopic moved successfully",
+                 content = @Content(schema = @Schema(implementation = Map.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid course ID, topic ID, or subtopic ID")
+    @ApiResponse(responseCode = "403", description = "Unauthorized: User is not an admin or instructor, or instructor is not authorized for this subtopic")
+    @PutMapping("/{courseId}/topic/{topicId}/subtopic/{subtopicId}/position")
+    public ResponseEntity<Map<String, String>> moveSubtopic(@PathVariable Long courseId, @PathVariable Long topicId, @PathVariable Long subtopicId, @RequestBody MoveRequestDTO dto) {
+        courseContentService.moveSubtopic(courseId, topicId, subtopicId, dto.getAfterId());
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Subtopic moved successfully");
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Delete a topic", 
                description = "Deletes a specific topic and its subtopics within a course. Admins can delete any topic; instructors only their own.")
     @ApiResponse(responseCode = "200", description = "Topic deleted successfully", 
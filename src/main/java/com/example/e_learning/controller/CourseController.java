@@ -1,6 +1,9 @@
 
 package com.example.e_learning.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.security.Principal;
 import java.util.Collections;
 import java.util.HashMap;
@@ -10,7 +13,11 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,18 +26,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.e_learning.dto.CourseCloneDTO;
 import com.example.e_learning.dto.CourseDTO;
+import com.example.e_learning.dto.CourseImportDTO;
 import com.example.e_learning.dto.EnrollmentDTO;
 import com.example.e_learning.dto.HighestEnrollmentDTO;
 import com.example.e_learning.entity.Course;
-import com.example.e_learning.entity.User;
+import com.example.e_learning.service.CourseImportService;
+import com.example.e_learning.service.CoursePackageService;
+import com.example.e_learning.service.CurrentUser;
 import com.example.e_learning.service.CourseService;
 import com.example.e_learning.service.EnrollmentService;
-import com.example.e_learning.service.UserService;
+import com.example.e_learning.util.ETags;
+import com.example.e_learning.util.FileTransfer;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -38,6 +52,8 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @Tag(name = "courses", description = "Endpoints for managing courses, including creation, update, deletion, and enrollment")
@@ -47,8 +63,10 @@ public class CourseController {
     private static final Logger logger = LoggerFactory.getLogger(CourseController.class);
 
     @Autowired private CourseService courseService;
-    @Autowired private UserService userService;
     @Autowired private EnrollmentService enrollmentService;
+    @Autowired private CourseImportService courseImportService;
+    @Autowired private CoursePackageService coursePackageService;
+    @Autowired private CurrentUser currentUser;
 
     @Operation(
         summary = "Get all courses",
@@ -221,6 +239,154 @@ public class CourseController {
         }
     }
 
+    @Operation(
+        summary = "Clone a course",
+        description = "Allows an admin to clone any course or an instructor to clone their own course, copying all topics and subtopics in their current order. The copy keeps the source's instructor and is titled after the source unless a title is given.",
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Course cloned successfully", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(type = "object", example = "{\"message\": \"Course cloned successfully\", \"courseId\": 2, \"topics\": 12, \"subtopics\": 80}"))),
+            @ApiResponse(responseCode = "403", description = "Unauthorized: Admin or course owner access required", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "404", description = "Course or user not found", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @PostMapping("/{courseId}/clone")
+    public ResponseEntity<Map<String, Object>> cloneCourse(
+        @Parameter(description = "ID of the course to clone", required = true) 
+        @PathVariable Long courseId,
+        @RequestBody(required = false) @Parameter(description = "Optional title for the copy") 
+        CourseCloneDTO cloneDTO) {
+        try {
+            CourseService.CloneResult result = courseService.cloneCourse(courseId, cloneDTO != null ? cloneDTO.getTitle() : null);
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Course cloned successfully");
+            response.put("courseId", result.courseId());
+            response.put("topics", result.topics());
+            response.put("subtopics", result.subtopics());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(403).body(errorResponse);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(404).body(errorResponse);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Course clone failed: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    @Operation(
+        summary = "Download a course for offline study",
+        description = "Returns a ZIP with the course metadata (course.json), its outline (outline.json) and its locally stored image. Available to enrolled learners, the course's instructor and admins. The ETag changes whenever the course or its outline changes.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Course package", 
+                         content = @Content(mediaType = "application/zip")),
+            @ApiResponse(responseCode = "304", description = "Client already holds the current package"),
+            @ApiResponse(responseCode = "403", description = "Not enrolled in the course", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "404", description = "Course not found", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @GetMapping("/{courseId}/package")
+    public ResponseEntity<StreamingResponseBody> downloadCoursePackage(
+        @Parameter(description = "ID of the course to download", required = true) 
+        @PathVariable Long courseId,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        HttpServletRequest request,
+        HttpServletResponse response) throws IOException {
+        CoursePackageService.PackagePlan plan = coursePackageService.plan(courseId);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ETags.matches(ifNoneMatch, plan.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(plan.etag()).cacheControl(cacheControl).build();
+        }
+        ContentDisposition disposition = ContentDisposition.attachment().filename(plan.filename()).build();
+        if (plan.isCached()) {
+            // Repeat downloads bypass the message converters so the file can go out via sendfile
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.ETAG, plan.etag());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+            FileTransfer.send(request, response, plan.cached(), 0, Files.size(plan.cached()));
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .eTag(plan.etag())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(out -> coursePackageService.write(plan, out));
+    }
+
+    @Operation(
+        summary = "Import a course package",
+        description = "Allows an admin or instructor to import a course with its topics and subtopics from a JSON package of the form {\"course\": {...}, \"topics\": [{\"topic\": \"...\", \"subtopics\": [{\"name\": \"...\", \"url\": \"...\"}]}]}. The package is imported in the background in committed chunks; poll the returned import for progress.",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Import started", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CourseImportDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Package too large, or instructor application or user not found", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "403", description = "Unauthorized: Admin or instructor access required", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @PostMapping(value = "/import", consumes = "application/json")
+    public ResponseEntity<?> importCourse(
+        @Parameter(description = "Course package JSON", required = true) 
+        InputStream body) throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(courseImportService.startImport(body));
+    }
+
+    @Operation(
+        summary = "Get course import progress",
+        description = "Returns the status and progress of a course package import. Instructors can only view their own imports.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Import progress", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CourseImportDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Import not found", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<CourseImportDTO> getCourseImport(
+        @Parameter(description = "ID of the import", required = true) 
+        @PathVariable String importId) {
+        return ResponseEntity.ok(courseImportService.getImport(importId));
+    }
+
+    @Operation(
+        summary = "Resume a failed course import",
+        description = "Restarts a failed import after its last committed chunk, reusing the uploaded package.",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Import resumed", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = CourseImportDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Import or its package not found", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "409", description = "Import is running or already completed", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @PostMapping("/import/{importId}/resume")
+    public ResponseEntity<?> resumeCourseImport(
+        @Parameter(description = "ID of the import", required = true) 
+        @PathVariable String importId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(courseImportService.resume(importId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @Operation(
         summary = "Set or update instructor for a course",
         description = "Allows an admin to set or update the instructor for a specific course using the course ID and instructor application ID.",
@@ -317,8 +483,6 @@ public class CourseController {
             return ResponseEntity.status(401).body(Collections.emptyList());
         }
         try {
-            User currentUser = userService.findByUsername(principal.getName())
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
             List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByUserId(currentUser.getId());
             return ResponseEntity.ok(enrollments);
         } catch (IllegalArgumentException e) {
@@ -5,11 +5,14 @@ import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.example.e_learning.dto.FeedbackDTO;
+import com.example.e_learning.dto.FeedbackSearchResultDTO;
 import com.example.e_learning.dto.HighestRatedCourseDTO;
 import com.example.e_learning.dto.InstructorHighestEnrollmentDTO;
 import com.example.e_learning.service.CourseService;
+import com.example.e_learning.service.FeedbackIngestionService;
 import com.example.e_learning.service.FeedbackService;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,6 +24,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -33,6 +37,9 @@ public class FeedbackController {
 
     @Autowired
     private FeedbackService feedbackService;
+
+    @Autowired
+    private FeedbackIngestionService feedbackIngestionService;
         
     private static final Logger logger = LoggerFactory.getLogger(FeedbackController.class);
 
@@ -40,14 +47,18 @@ public class FeedbackController {
 
     @Operation(
         summary = "Submit feedback",
-        description = "Allows a user with ROLE_USER to submit feedback for a course. The feedback is associated with the authenticated user's username.",
+        description = "Allows a user with ROLE_USER to submit feedback for a course. The feedback is associated with the authenticated user's username. When asynchronous ingestion is enabled the feedback is queued and a tracking ID is returned with status 202.",
         responses = {
             @ApiResponse(responseCode = "200", description = "Feedback submitted successfully", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "202", description = "Feedback accepted for processing, response contains a tracking ID", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request (e.g., missing course ID)", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
             @ApiResponse(responseCode = "403", description = "User not authenticated or unauthorized", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "429", description = "Feedback queue is full, retry after the indicated delay", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
             @ApiResponse(responseCode = "500", description = "Server error", 
                          content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
         }
@@ -70,12 +81,23 @@ public class FeedbackController {
                 response.put("error", "Course ID cannot be null");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
+            if (feedbackIngestionService.isEnabled()) {
+                String trackingId = feedbackIngestionService.enqueue(dto);
+                response.put("message", "Feedback accepted for processing");
+                response.put("trackingId", trackingId);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+            }
             feedbackService.submitFeedback(dto);
             response.put("message", "Feedback submitted successfully");
             return ResponseEntity.ok(response);
         } catch (IllegalArgumentException e) {
             response.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (RejectedExecutionException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(response);
         } catch (Exception e) {
             response.put("error", "Feedback submission failed: " + e.getMessage());
             e.printStackTrace(); // Log stack trace
@@ -83,6 +105,35 @@ public class FeedbackController {
         }
     }
 
+    @Operation(
+        summary = "Get feedback submission status",
+        description = "Returns the processing status (QUEUED, COMMITTED or REJECTED) of an asynchronously submitted feedback, identified by the tracking ID returned from the submit endpoint. Users can only see their own submissions; admins can see any.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Submission status", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID, or a submission of another user", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @GetMapping("/submit/{trackingId}")
+    public ResponseEntity<Map<String, String>> getSubmissionStatus(
+        @Parameter(description = "Tracking ID returned when the feedback was submitted", required = true) 
+        @PathVariable String trackingId) {
+        Map<String, String> response = new HashMap<>();
+        FeedbackIngestionService.Tracking tracking = feedbackIngestionService.getTracking(trackingId);
+        if (tracking == null) {
+            response.put("error", "Tracking ID not found: " + trackingId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("trackingId", trackingId);
+        response.put("status", tracking.status().name());
+        if (tracking.message() != null) {
+            response.put("message", tracking.message());
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(
         summary = "Update feedback",
         description = "Allows a user with ROLE_USER to update their own feedback identified by feedback ID.",
@@ -166,6 +217,59 @@ public class FeedbackController {
         }
     }
 
+    @Operation(
+        summary = "Search feedback comments",
+        description = "Full-text search over feedback comments. Bare words must all appear; text in double quotes is matched as a phrase. Matches are wrapped in <em> tags. Instructors are limited to their own courses; admins can search all feedback or scope by course or instructor.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Matching feedback ordered by relevance", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedbackSearchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or invalid query", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "403", description = "Unauthorized: Admin or course owner access required", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
+    @GetMapping("/search")
+    public ResponseEntity<?> searchFeedback(
+        @Parameter(description = "Search query, e.g. audio \"out of date\"", required = true) 
+        @RequestParam String q,
+        @Parameter(description = "Restrict results to a single course") 
+        @RequestParam(required = false) Long courseId,
+        @Parameter(description = "Restrict results to an instructor's courses (instructor application ID)") 
+        @RequestParam(required = false) Long instructorId,
+        @Parameter(description = "Maximum number of results (1-100)") 
+        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(feedbackService.searchFeedback(q, courseId, instructorId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Rebuild feedback search index",
+        description = "Allows an admin to rebuild the feedback comment search index from the database.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Index rebuilt, returns the number of indexed feedback entries", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "409", description = "A rebuild is already in progress", 
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        try {
+            int indexed = feedbackService.rebuildSearchIndex();
+            return ResponseEntity.ok(Map.of("message", "Feedback search index rebuilt", "indexed", indexed));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @Operation(
         summary = "Get feedback by course ID",
         description = "Retrieves all feedback for a specific course identified by course ID. Accessible to all authenticated users.",
@@ -11,7 +11,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.e_learning.dto.AudienceEstimateDTO;
 import com.example.e_learning.dto.AverageRatingResponseDTO;
 import com.example.e_learning.dto.CourseDTO;
 import com.example.e_learning.dto.InstructorApplicationDTO;
@@ -186,6 +186,35 @@ public class InstructorApplicationController {
         }
     }
     
+    @Operation(
+        summary = "Get approximate unique learners and reviewers for an instructor",
+        description = "Estimates the number of distinct learners enrolled in, and distinct users who reviewed, any course taught by the instructor, identified by instructor application ID. Counts come from mergeable HyperLogLog sketches and carry the returned relative standard error. Accessible to all users, including unauthenticated users.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Approximate audience counts",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = AudienceEstimateDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid instructor ID",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class))),
+            @ApiResponse(responseCode = "500", description = "Server error",
+                         content = @Content(mediaType = "application/json", schema = @Schema(implementation = Map.class)))
+        }
+    )
+    @GetMapping("/{instructorId}/audience")
+    public ResponseEntity<?> getInstructorAudience(
+        @Parameter(description = "ID of the instructor application to estimate the audience for", required = true)
+        @PathVariable Long instructorId) {
+        try {
+            return ResponseEntity.ok(courseService.getInstructorAudience(instructorId));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid instructor ID {}: {}", instructorId, e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            logger.error("Failed to estimate audience for instructor ID {}: {}", instructorId, e.getMessage());
+            Map<String, String> errorResponse = Map.of("error", "Failed to estimate audience: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     @Operation(
             summary = "Get instructor details by ID",
             description = "Public endpoint to retrieve details of a specific instructor, identified by instructor application ID. Includes name, email, qualifications, experience, courses, photo URL, about me, Twitter URL, and GitHub URL. Accessible to all users, including unauthenticated users.",
@@ -296,12 +325,7 @@ public class InstructorApplicationController {
         }
     }
     private String getAuthenticatedUsername() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserDetails) {
-            return ((UserDetails) principal).getUsername();
-        } else {
-            return principal.toString();
-        }
+        return SecurityContextHolder.getContext().getAuthentication().getName();
     }
     
 
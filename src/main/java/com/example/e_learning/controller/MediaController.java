@@ -0,0 +1,150 @@
+package com.example.e_learning.controller;
+
+import com.example.e_learning.dto.MediaAssetDTO;
+import com.example.e_learning.dto.MediaUploadRequestDTO;
+import com.example.e_learning.service.MediaService;
+import com.example.e_learning.util.ETags;
+import com.example.e_learning.util.FileTransfer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/media")
+@Tag(name = "Media", description = "Self-hosted lesson media with resumable uploads and byte-range playback")
+public class MediaController {
+
+    private final MediaService mediaService;
+
+    public MediaController(MediaService mediaService) {
+        this.mediaService = mediaService;
+    }
+
+    @Operation(summary = "Start a media upload",
+               description = "Registers a media file for a course and returns its ID. Upload the content with PUT /media/{mediaId}/content, then link subtopics to the returned url.")
+    @ApiResponse(responseCode = "201", description = "Upload created",
+                 content = @Content(schema = @Schema(implementation = MediaAssetDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid size, filename or course")
+    @ApiResponse(responseCode = "403", description = "Not the course's instructor or an admin")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @PostMapping
+    public ResponseEntity<MediaAssetDTO> createUpload(@RequestBody MediaUploadRequestDTO request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(mediaService.createUpload(request));
+    }
+
+    @Operation(summary = "Upload a chunk of a media file",
+               description = "Writes the request body at the offset given by Content-Range (bytes start-end/total). Chunks must be sent in order; after an interruption, read receivedBytes from GET /media/{mediaId}/upload and continue from there.")
+    @ApiResponse(responseCode = "200", description = "Chunk stored; status becomes READY after the last chunk",
+                 content = @Content(schema = @Schema(implementation = MediaAssetDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Missing or invalid Content-Range, or body shorter than the range")
+    @ApiResponse(responseCode = "409", description = "Chunk does not start at the received offset, or the upload is complete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @PutMapping("/{mediaId}/content")
+    public ResponseEntity<?> uploadChunk(@PathVariable Long mediaId,
+                                         @RequestHeader(value = HttpHeaders.CONTENT_RANGE, required = false) String contentRange,
+                                         InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(mediaService.appendChunk(mediaId, contentRange, body));
+        } catch (IllegalStateException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @Operation(summary = "Get upload progress",
+               description = "Returns the media file's status and how many bytes have been stored.")
+    @ApiResponse(responseCode = "200", description = "Upload progress",
+                 content = @Content(schema = @Schema(implementation = MediaAssetDTO.class)))
+    @ApiResponse(responseCode = "403", description = "Not the course's instructor, an enrolled learner or an admin")
+    @ApiResponse(responseCode = "404", description = "Media not found")
+    @GetMapping("/{mediaId}/upload")
+    public ResponseEntity<MediaAssetDTO> getUpload(@PathVariable Long mediaId) {
+        return ResponseEntity.ok(mediaService.getAsset(mediaId));
+    }
+
+    @Operation(summary = "Delete a media file")
+    @ApiResponse(responseCode = "200", description = "Media deleted",
+                 content = @Content(schema = @Schema(implementation = Map.class)))
+    @ApiResponse(responseCode = "403", description = "Not the course's instructor or an admin")
+    @ApiResponse(responseCode = "404", description = "Media not found")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    @DeleteMapping("/{mediaId}")
+    public ResponseEntity<Map<String, String>> deleteMedia(@PathVariable Long mediaId) throws IOException {
+        mediaService.deleteAsset(mediaId);
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Media deleted successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Stream a media file",
+               description = "Serves a finished media file. Supports a single Range, If-Range and If-None-Match; bytes are sent from the file without passing through the heap. Types other than audio, video, raster images and PDF are sent as an attachment.")
+    @ApiResponse(responseCode = "200", description = "Whole file")
+    @ApiResponse(responseCode = "206", description = "Requested byte range")
+    @ApiResponse(responseCode = "304", description = "Client already holds this file")
+    @ApiResponse(responseCode = "403", description = "Not the course's instructor, an enrolled learner or an admin")
+    @ApiResponse(responseCode = "404", description = "Media not found or not fully uploaded")
+    @ApiResponse(responseCode = "416", description = "Range not satisfiable")
+    @GetMapping("/{mediaId}")
+    public void getMedia(@PathVariable Long mediaId,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                         @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        MediaService.StoredMedia media = mediaService.open(mediaId);
+        response.setHeader(HttpHeaders.ETAG, media.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable().getHeaderValue());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, media.lastModified().toEpochMilli());
+        if (ETags.matches(ifNoneMatch, media.etag())) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        MediaService.ByteRange byteRange;
+        try {
+            byteRange = mediaService.resolveRange(media, range, ifRange);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + media.size());
+            return;
+        }
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        if (media.inline()) {
+            response.setContentType(media.contentType());
+        } else {
+            // Uploader-declared types such as text/html or image/svg+xml would run script in this origin
+            response.setContentType("application/octet-stream");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(media.filename()).build().toString());
+        }
+        if (byteRange == null) {
+            response.setStatus(HttpStatus.OK.value());
+            FileTransfer.send(request, response, media.path(), 0, media.size());
+            return;
+        }
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        response.setHeader(HttpHeaders.CONTENT_RANGE,
+                "bytes " + byteRange.start() + "-" + byteRange.end() + "/" + media.size());
+        FileTransfer.send(request, response, media.path(), byteRange.start(), byteRange.length());
+    }
+}
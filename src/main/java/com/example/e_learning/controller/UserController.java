@@ -7,7 +7,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.example.e_learning.dto.EnrollmentDTO;
 import com.example.e_learning.dto.UserDTO;
-import com.example.e_learning.entity.User;
+import com.example.e_learning.service.CurrentUser;
 import com.example.e_learning.service.EnrollmentService;
 import com.example.e_learning.service.UserService;
 
@@ -23,6 +23,7 @@ import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Tag(name = "users", description = "Endpoints for managing user enrollment and user details")
 @RestController
@@ -31,6 +32,7 @@ public class UserController {
 
     @Autowired private UserService userService;
     @Autowired private EnrollmentService enrollmentService;
+    @Autowired private CurrentUser currentUser;
 
     @Operation(
         summary = "Enroll user in a course",
@@ -129,19 +131,17 @@ public class UserController {
             Principal principal) {
         Map<String, String> response = new HashMap<>();
         try {
-            String requesterUsername = principal.getName();
-            User requester = userService.findByUsername(requesterUsername)
-                    .orElseThrow(() -> new IllegalArgumentException("Requester not found"));
-            User user = userService.findByEmail(userEmail)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + userEmail));
-            boolean isAdmin = "ADMIN".equalsIgnoreCase(requester.getRole());
-            if (!isAdmin && !requester.getEmail().equalsIgnoreCase(userEmail)) {
+            boolean isAdmin = currentUser.isAdmin();
+            if (!isAdmin && !currentUser.getUser().getEmail().equalsIgnoreCase(userEmail)) {
                 response.put("message", "Access denied: you can only update your own details");
                 return ResponseEntity.status(403).body(response);
             }
             userService.updateUserDetails(userEmail, updatedUser);
             response.put("message", "User details updated successfully");
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(503).header("Retry-After", "1").body(response);
         } catch (Exception e) {
             response.put("message", "Update failed: " + e.getMessage());
             return ResponseEntity.status(500).body(response);
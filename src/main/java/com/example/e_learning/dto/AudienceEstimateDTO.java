@@ -0,0 +1,49 @@
+package com.example.e_learning.dto;
+
+public class AudienceEstimateDTO {
+    private Long instructorId;
+    private int courseCount;
+    private long uniqueLearners;
+    private long uniqueReviewers;
+    private double relativeError;
+
+    public Long getInstructorId() {
+        return instructorId;
+    }
+
+    public void setInstructorId(Long instructorId) {
+        this.instructorId = instructorId;
+    }
+
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    public void setCourseCount(int courseCount) {
+        this.courseCount = courseCount;
+    }
+
+    public long getUniqueLearners() {
+        return uniqueLearners;
+    }
+
+    public void setUniqueLearners(long uniqueLearners) {
+        this.uniqueLearners = uniqueLearners;
+    }
+
+    public long getUniqueReviewers() {
+        return uniqueReviewers;
+    }
+
+    public void setUniqueReviewers(long uniqueReviewers) {
+        this.uniqueReviewers = uniqueReviewers;
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    public void setRelativeError(double relativeError) {
+        this.relativeError = relativeError;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.e_learning.dto;
+
+public class CourseCloneDTO {
+    private String title;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}
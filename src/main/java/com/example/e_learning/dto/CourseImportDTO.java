@@ -0,0 +1,96 @@
+package com.example.e_learning.dto;
+
+import java.time.Instant;
+
+public class CourseImportDTO {
+    private String id;
+    private String status;
+    private Long courseId;
+    private long topicsImported;
+    private long subtopicsImported;
+    private long bytesProcessed;
+    private long bytesTotal;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public long getTopicsImported() {
+        return topicsImported;
+    }
+
+    public void setTopicsImported(long topicsImported) {
+        this.topicsImported = topicsImported;
+    }
+
+    public long getSubtopicsImported() {
+        return subtopicsImported;
+    }
+
+    public void setSubtopicsImported(long subtopicsImported) {
+        this.subtopicsImported = subtopicsImported;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.e_learning.dto;
+
+public class FeedbackSearchResultDTO {
+    private Long feedbackId;
+    private Long courseId;
+    private Integer rating;
+    private String highlightedComments;
+    private int score;
+
+    public Long getFeedbackId() {
+        return feedbackId;
+    }
+
+    public void setFeedbackId(Long feedbackId) {
+        this.feedbackId = feedbackId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public Integer getRating() {
+        return rating;
+    }
+
+    public void setRating(Integer rating) {
+        this.rating = rating;
+    }
+
+    public String getHighlightedComments() {
+        return highlightedComments;
+    }
+
+    public void setHighlightedComments(String highlightedComments) {
+        this.highlightedComments = highlightedComments;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
@@ -2,11 +2,17 @@ package com.example.e_learning.dto;
 
 public class JwtResponse {
     private String jwt;
+    private String refreshToken;
 
     public JwtResponse(String jwt) {
         this.jwt = jwt;
     }
 
+    public JwtResponse(String jwt, String refreshToken) {
+        this.jwt = jwt;
+        this.refreshToken = refreshToken;
+    }
+
     public String getJwt() {
         return jwt;
     }
@@ -14,4 +20,12 @@ public class JwtResponse {
     public void setJwt(String jwt) {
         this.jwt = jwt;
     }
-}
\ No newline at end of file
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.e_learning.dto;
+
+public class MoveRequestDTO {
+    private Long afterId;
+
+    public Long getAfterId() {
+        return afterId;
+    }
+
+    public void setAfterId(Long afterId) {
+        this.afterId = afterId;
+    }
+}
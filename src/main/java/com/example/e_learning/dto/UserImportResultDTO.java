@@ -0,0 +1,51 @@
+package com.example.e_learning.dto;
+
+import java.util.List;
+
+public class UserImportResultDTO {
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private long durationMs;
+    private List<UserImportRowDTO> rows;
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public int getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(int invalid) {
+        this.invalid = invalid;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public List<UserImportRowDTO> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<UserImportRowDTO> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.e_learning.dto;
+
+public class UserImportRowDTO {
+    private int row;
+    private String username;
+    private String email;
+    private String status;
+    private String message;
+
+    public UserImportRowDTO() {
+    }
+
+    public UserImportRowDTO(int row, String username, String email, String status, String message) {
+        this.row = row;
+        this.username = username;
+        this.email = email;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
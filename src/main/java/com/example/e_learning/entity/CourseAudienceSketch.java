@@ -0,0 +1,60 @@
+package com.example.e_learning.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Serialised HyperLogLog sketches of the distinct learners and reviewers of a course.
+ */
+@Entity
+@Table(name = "course_audience_sketch")
+public class CourseAudienceSketch {
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(name = "learners", columnDefinition = "bytea", nullable = false)
+    private byte[] learners;
+
+    @Column(name = "reviewers", columnDefinition = "bytea", nullable = false)
+    private byte[] reviewers;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public byte[] getLearners() {
+        return learners;
+    }
+
+    public void setLearners(byte[] learners) {
+        this.learners = learners;
+    }
+
+    public byte[] getReviewers() {
+        return reviewers;
+    }
+
+    public void setReviewers(byte[] reviewers) {
+        this.reviewers = reviewers;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
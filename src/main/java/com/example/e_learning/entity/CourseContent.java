@@ -1,11 +1,13 @@
 package com.example.e_learning.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "course_content")
+@Table(name = "course_content",
+       indexes = @Index(name = "idx_course_content_course_position", columnList = "course_id, position"))
 public class CourseContent {
 
     @Id
@@ -14,14 +16,18 @@ public class CourseContent {
 
     private String topic;
 
+    @Column(name = "position")
+    private Long position;
+
     @OneToMany(mappedBy = "courseContent", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<Subtopic> subtopics = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id")
     private Course course;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "instructor_id", nullable = true)
     private User instructor;
 
@@ -42,6 +48,14 @@ public class CourseContent {
         this.topic = topic;
     }
 
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
     public List<Subtopic> getSubtopics() {
         return subtopics;
     }
@@ -0,0 +1,161 @@
+package com.example.e_learning.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of a course package import. Topics are committed in chunks together with this
+ * row, so {@code topicsImported} always matches what is in the database and a failed
+ * import can resume from the spooled package by skipping that many topics.
+ */
+@Entity
+@Table(name = "course_import")
+public class CourseImportCheckpoint {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "instructor_application_id")
+    private Long instructorApplicationId;
+
+    @Column(name = "topic_instructor_id")
+    private Long topicInstructorId;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "topics_imported", nullable = false)
+    private long topicsImported;
+
+    @Column(name = "subtopics_imported", nullable = false)
+    private long subtopicsImported;
+
+    @Column(name = "bytes_processed", nullable = false)
+    private long bytesProcessed;
+
+    @Column(name = "bytes_total", nullable = false)
+    private long bytesTotal;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Long getInstructorApplicationId() {
+        return instructorApplicationId;
+    }
+
+    public void setInstructorApplicationId(Long instructorApplicationId) {
+        this.instructorApplicationId = instructorApplicationId;
+    }
+
+    public Long getTopicInstructorId() {
+        return topicInstructorId;
+    }
+
+    public void setTopicInstructorId(Long topicInstructorId) {
+        this.topicInstructorId = topicInstructorId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getTopicsImported() {
+        return topicsImported;
+    }
+
+    public void setTopicsImported(long topicsImported) {
+        this.topicsImported = topicsImported;
+    }
+
+    public long getSubtopicsImported() {
+        return subtopicsImported;
+    }
+
+    public void setSubtopicsImported(long subtopicsImported) {
+        this.subtopicsImported = subtopicsImported;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public void setBytesTotal(long bytesTotal) {
+        this.bytesTotal = bytesTotal;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
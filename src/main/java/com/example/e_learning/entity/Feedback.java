@@ -6,8 +6,11 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
+@Table(name = "feedback", uniqueConstraints = @UniqueConstraint(name = "uk_feedback_user_course", columnNames = {"user_id", "course_id"}))
 public class Feedback {
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
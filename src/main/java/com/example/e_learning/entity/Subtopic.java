@@ -3,7 +3,8 @@ package com.example.e_learning.entity;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "subtopic")
+@Table(name = "subtopic",
+       indexes = @Index(name = "idx_subtopic_topic_position", columnList = "course_content_id, position"))
 public class Subtopic {
 
 	@Id
@@ -16,7 +17,10 @@ public class Subtopic {
 	@Column(name = "url")
 	private String url;
 
-	@ManyToOne
+	@Column(name = "position")
+	private Long position;
+
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "course_content_id", nullable = false)
 	private CourseContent courseContent;
 
@@ -45,6 +49,14 @@ public class Subtopic {
 		this.url = url;
 	}
 
+	public Long getPosition() {
+		return position;
+	}
+
+	public void setPosition(Long position) {
+		this.position = position;
+	}
+
 	public CourseContent getCourseContent() {
 		return courseContent;
 	}
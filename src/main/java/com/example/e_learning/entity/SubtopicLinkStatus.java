@@ -0,0 +1,116 @@
+package com.example.e_learning.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Result of the most recent health check of a subtopic's URL.
+ */
+@Entity
+@Table(name = "subtopic_link_status",
+       indexes = @Index(name = "idx_subtopic_link_status_outcome", columnList = "outcome, checked_at"))
+public class SubtopicLinkStatus {
+    @Id
+    @Column(name = "subtopic_id")
+    private Long subtopicId;
+
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(columnDefinition = "TEXT")
+    private String url;
+
+    @Column(length = 16, nullable = false)
+    private String outcome;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
+    private String error;
+
+    @Column(name = "consecutive_failures", nullable = false)
+    private int consecutiveFailures;
+
+    @Column(name = "checked_at", nullable = false)
+    private Instant checkedAt;
+
+    public Long getSubtopicId() {
+        return subtopicId;
+    }
+
+    public void setSubtopicId(Long subtopicId) {
+        this.subtopicId = subtopicId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public Long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(Long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public Instant getCheckedAt() {
+        return checkedAt;
+    }
+
+    public void setCheckedAt(Instant checkedAt) {
+        this.checkedAt = checkedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.e_learning.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.e_learning.entity.CourseAudienceSketch;
+
+public interface CourseAudienceSketchRepository extends JpaRepository<CourseAudienceSketch, Long> {
+}
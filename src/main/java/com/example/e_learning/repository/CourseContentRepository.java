@@ -2,6 +2,7 @@ package com.example.e_learning.repository;
 
 import com.example.e_learning.entity.CourseContent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -12,4 +13,27 @@ public interface CourseContentRepository extends JpaRepository<CourseContent, Lo
     @Query("SELECT c FROM CourseContent c WHERE c.course.id = :courseId")
     List<CourseContent> findByCourseId(@Param("courseId") Long courseId);
 
-}
\ No newline at end of file
+    /**
+     * Flat outline rows (topic id, topic, subtopic id, name, url, topic position, subtopic
+     * position) for a course in a single statement, in outline order; topics without
+     * subtopics yield one row with null subtopic columns.
+     */
+    @Query("SELECT c.id, c.topic, s.id, s.name, s.url, c.position, s.position FROM CourseContent c LEFT JOIN c.subtopics s " +
+           "WHERE c.course.id = :courseId ORDER BY c.position, c.id, s.position, s.id")
+    List<Object[]> findOutlineRowsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT MAX(c.position) FROM CourseContent c WHERE c.course.id = :courseId")
+    Long findMaxPositionByCourseId(@Param("courseId") Long courseId);
+
+    /**
+     * (course id, owning user id) of a topic's course, so ownership of a topic is resolved
+     * in one statement. Empty when the topic does not exist.
+     */
+    @Query("SELECT c.id, u.id FROM CourseContent t JOIN t.course c LEFT JOIN c.instructor i LEFT JOIN i.user u " +
+           "WHERE t.id = :topicId")
+    List<Object[]> findOwnerRowsByTopicId(@Param("topicId") Long topicId);
+
+    @Modifying
+    @Query("UPDATE CourseContent c SET c.topic = :topic WHERE c.id = :topicId")
+    int updateTopicName(@Param("topicId") Long topicId, @Param("topic") String topic);
+}
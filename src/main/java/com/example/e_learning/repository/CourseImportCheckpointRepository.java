@@ -0,0 +1,44 @@
+package com.example.e_learning.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.e_learning.entity.CourseImportCheckpoint;
+
+public interface CourseImportCheckpointRepository extends JpaRepository<CourseImportCheckpoint, String> {
+
+    @Modifying
+    @Query("UPDATE CourseImportCheckpoint c SET c.topicsImported = c.topicsImported + :topics, " +
+           "c.subtopicsImported = c.subtopicsImported + :subtopics, c.bytesProcessed = :bytesProcessed, " +
+           "c.updatedAt = :now WHERE c.id = :id")
+    int advance(@Param("id") String id, @Param("topics") long topics, @Param("subtopics") long subtopics,
+                @Param("bytesProcessed") long bytesProcessed, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE CourseImportCheckpoint c SET c.courseId = :courseId, c.updatedAt = :now WHERE c.id = :id")
+    int setCourseId(@Param("id") String id, @Param("courseId") Long courseId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE CourseImportCheckpoint c SET c.status = :status, c.error = :error, c.updatedAt = :now WHERE c.id = :id")
+    int setStatus(@Param("id") String id, @Param("status") String status, @Param("error") String error,
+                  @Param("now") Instant now);
+
+    @Query("SELECT c.id FROM CourseImportCheckpoint c WHERE c.status = :status AND c.updatedAt < :before")
+    List<String> findIdsByStatusUpdatedBefore(@Param("status") String status, @Param("before") Instant before);
+
+    @Modifying
+    @Query("UPDATE CourseImportCheckpoint c SET c.updatedAt = :now WHERE c.id IN :ids AND c.status = :status")
+    int touch(@Param("ids") Collection<String> ids, @Param("status") String status, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE CourseImportCheckpoint c SET c.status = :to, c.error = :error, c.updatedAt = :now " +
+           "WHERE c.status = :from AND c.updatedAt < :before")
+    int replaceStatusUpdatedBefore(@Param("from") String from, @Param("to") String to, @Param("error") String error,
+                                   @Param("before") Instant before, @Param("now") Instant now);
+}
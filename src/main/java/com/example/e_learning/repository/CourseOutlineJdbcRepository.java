@@ -0,0 +1,273 @@
+package com.example.e_learning.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based writes for whole-outline edits. Each method issues a fixed number of
+ * statements regardless of how many rows it touches.
+ */
+@Repository
+public class CourseOutlineJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CourseOutlineJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record TopicRow(long id, String topic, long position) {
+    }
+
+    public record SubtopicRow(Long id, long topicId, String name, String url, long position) {
+    }
+
+    /**
+     * Reserves {@code count} topic IDs from the table's identity sequence so new topics
+     * and their subtopics can be inserted in one round trip each.
+     */
+    public List<Long> reserveTopicIds(int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('course_content', 'id')) FROM generate_series(1, ?)",
+                Long.class, count);
+    }
+
+    public int insertTopics(long courseId, Long instructorId, List<TopicRow> topics) {
+        if (topics.isEmpty()) {
+            return 0;
+        }
+        return execute("INSERT INTO course_content (id, topic, position, course_id, instructor_id) "
+                + "SELECT id, topic, position, ?, ? FROM unnest(?::bigint[], ?::text[], ?::bigint[]) AS t(id, topic, position)",
+                (con, ps) -> {
+                    ps.setLong(1, courseId);
+                    ps.setObject(2, instructorId, Types.BIGINT);
+                    ps.setArray(3, con.createArrayOf("bigint", topics.stream().map(TopicRow::id).toArray()));
+                    ps.setArray(4, con.createArrayOf("text", topics.stream().map(TopicRow::topic).toArray()));
+                    ps.setArray(5, con.createArrayOf("bigint", topics.stream().map(TopicRow::position).toArray()));
+                });
+    }
+
+    public int updateTopics(List<TopicRow> topics) {
+        if (topics.isEmpty()) {
+            return 0;
+        }
+        return execute("UPDATE course_content c SET topic = t.topic, position = t.position "
+                + "FROM unnest(?::bigint[], ?::text[], ?::bigint[]) AS t(id, topic, position) WHERE c.id = t.id",
+                (con, ps) -> {
+                    ps.setArray(1, con.createArrayOf("bigint", topics.stream().map(TopicRow::id).toArray()));
+                    ps.setArray(2, con.createArrayOf("text", topics.stream().map(TopicRow::topic).toArray()));
+                    ps.setArray(3, con.createArrayOf("bigint", topics.stream().map(TopicRow::position).toArray()));
+                });
+    }
+
+    /**
+     * Deletes topics together with any subtopics still attached to them.
+     */
+    public int deleteTopics(Collection<Long> topicIds) {
+        if (topicIds.isEmpty()) {
+            return 0;
+        }
+        execute("DELETE FROM subtopic WHERE course_content_id = ANY(?)",
+                (con, ps) -> ps.setArray(1, con.createArrayOf("bigint", topicIds.toArray())));
+        return execute("DELETE FROM course_content WHERE id = ANY(?)",
+                (con, ps) -> ps.setArray(1, con.createArrayOf("bigint", topicIds.toArray())));
+    }
+
+    public int insertSubtopics(List<SubtopicRow> subtopics) {
+        if (subtopics.isEmpty()) {
+            return 0;
+        }
+        return execute("INSERT INTO subtopic (course_content_id, name, url, position) "
+                + "SELECT * FROM unnest(?::bigint[], ?::text[], ?::text[], ?::bigint[])",
+                (con, ps) -> {
+                    ps.setArray(1, con.createArrayOf("bigint", subtopics.stream().map(SubtopicRow::topicId).toArray()));
+                    ps.setArray(2, con.createArrayOf("text", subtopics.stream().map(SubtopicRow::name).toArray()));
+                    ps.setArray(3, con.createArrayOf("text", subtopics.stream().map(SubtopicRow::url).toArray()));
+                    ps.setArray(4, con.createArrayOf("bigint", subtopics.stream().map(SubtopicRow::position).toArray()));
+                });
+    }
+
+    /**
+     * Updates name, URL, parent topic and position of existing subtopics, which also
+     * covers moves within and between topics.
+     */
+    public int updateSubtopics(List<SubtopicRow> subtopics) {
+        if (subtopics.isEmpty()) {
+            return 0;
+        }
+        return execute("UPDATE subtopic s SET course_content_id = t.topic_id, name = t.name, url = t.url, position = t.position "
+                + "FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::bigint[]) AS t(id, topic_id, name, url, position) "
+                + "WHERE s.id = t.id",
+                (con, ps) -> {
+                    ps.setArray(1, con.createArrayOf("bigint", subtopics.stream().map(SubtopicRow::id).toArray()));
+                    ps.setArray(2, con.createArrayOf("bigint", subtopics.stream().map(SubtopicRow::topicId).toArray()));
+                    ps.setArray(3, con.createArrayOf("text", subtopics.stream().map(SubtopicRow::name).toArray()));
+                    ps.setArray(4, con.createArrayOf("text", subtopics.stream().map(SubtopicRow::url).toArray()));
+                    ps.setArray(5, con.createArrayOf("bigint", subtopics.stream().map(SubtopicRow::position).toArray()));
+                });
+    }
+
+    public int deleteSubtopics(Collection<Long> subtopicIds) {
+        if (subtopicIds.isEmpty()) {
+            return 0;
+        }
+        return execute("DELETE FROM subtopic WHERE id = ANY(?)",
+                (con, ps) -> ps.setArray(1, con.createArrayOf("bigint", subtopicIds.toArray())));
+    }
+
+    /**
+     * Serialises reorders within a course for the rest of the transaction.
+     */
+    public void lockCourse(long courseId) {
+        jdbcTemplate.queryForList("SELECT id FROM course WHERE id = ? FOR UPDATE", Long.class, courseId);
+    }
+
+    public Long findTopicPosition(long topicId) {
+        return jdbcTemplate.queryForObject("SELECT position FROM course_content WHERE id = ?", Long.class, topicId);
+    }
+
+    public Long findSubtopicPosition(long subtopicId) {
+        return jdbcTemplate.queryForObject("SELECT position FROM subtopic WHERE id = ?", Long.class, subtopicId);
+    }
+
+    /**
+     * Position of the first topic after {@code position} (or the first topic overall when
+     * null), ignoring the topic being moved.
+     */
+    public Long findNextTopicPosition(long courseId, Long position, long excludedId) {
+        if (position == null) {
+            return jdbcTemplate.queryForObject("SELECT MIN(position) FROM course_content WHERE course_id = ? AND id <> ?",
+                    Long.class, courseId, excludedId);
+        }
+        return jdbcTemplate.queryForObject("SELECT MIN(position) FROM course_content WHERE course_id = ? AND id <> ? AND position > ?",
+                Long.class, courseId, excludedId, position);
+    }
+
+    public Long findNextSubtopicPosition(long topicId, Long position, long excludedId) {
+        if (position == null) {
+            return jdbcTemplate.queryForObject("SELECT MIN(position) FROM subtopic WHERE course_content_id = ? AND id <> ?",
+                    Long.class, topicId, excludedId);
+        }
+        return jdbcTemplate.queryForObject("SELECT MIN(position) FROM subtopic WHERE course_content_id = ? AND id <> ? AND position > ?",
+                Long.class, topicId, excludedId, position);
+    }
+
+    public void updateTopicPosition(long topicId, long position) {
+        jdbcTemplate.update("UPDATE course_content SET position = ? WHERE id = ?", position, topicId);
+    }
+
+    public void updateSubtopicPosition(long subtopicId, long position) {
+        jdbcTemplate.update("UPDATE subtopic SET position = ? WHERE id = ?", position, subtopicId);
+    }
+
+    /**
+     * Rewrites a course's topic positions to evenly spaced values, preserving their order.
+     */
+    public int respaceTopics(long courseId, long gap) {
+        return jdbcTemplate.update("UPDATE course_content c SET position = r.rn * ? FROM ("
+                + "SELECT id, row_number() OVER (ORDER BY position NULLS LAST, id) AS rn "
+                + "FROM course_content WHERE course_id = ?) r WHERE c.id = r.id", gap, courseId);
+    }
+
+    public Long findCourseIdOfTopic(long topicId) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT course_id FROM course_content WHERE id = ?", Long.class, topicId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public int respaceSubtopics(long topicId, long gap) {
+        return jdbcTemplate.update("UPDATE subtopic s SET position = r.rn * ? FROM ("
+                + "SELECT id, row_number() OVER (ORDER BY position NULLS LAST, id) AS rn "
+                + "FROM subtopic WHERE course_content_id = ?) r WHERE s.id = r.id", gap, topicId);
+    }
+
+    /**
+     * Whether some adjacent topics of the course are closer than {@code minGap}, or some
+     * topics still lack a position.
+     */
+    public boolean hasCrowdedTopics(long courseId, long minGap) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM ("
+                + "SELECT position, position - lag(position) OVER (ORDER BY position) AS gap "
+                + "FROM course_content WHERE course_id = ?) g WHERE position IS NULL OR gap < ?)",
+                Boolean.class, courseId, minGap));
+    }
+
+    /**
+     * Topics of the course whose subtopics are crowded or lack positions.
+     */
+    public List<Long> findCrowdedTopicIds(long courseId, long minGap) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT course_content_id FROM ("
+                + "SELECT s.course_content_id, s.position, s.position - lag(s.position) "
+                + "OVER (PARTITION BY s.course_content_id ORDER BY s.position) AS gap "
+                + "FROM subtopic s JOIN course_content c ON c.id = s.course_content_id WHERE c.course_id = ?) g "
+                + "WHERE position IS NULL OR gap < ?", Long.class, courseId, minGap);
+    }
+
+    /**
+     * Courses with topics or subtopics created before positions existed.
+     */
+    public List<Long> findCoursesWithUnpositionedItems(int limit) {
+        return jdbcTemplate.queryForList("SELECT course_id FROM course_content WHERE position IS NULL "
+                + "UNION SELECT c.course_id FROM subtopic s JOIN course_content c ON c.id = s.course_content_id "
+                + "WHERE s.position IS NULL LIMIT ?", Long.class, limit);
+    }
+
+    public record ClonedOutline(long topics, long subtopics) {
+    }
+
+    /**
+     * Copies a course row, keeping its instructor. A null {@code title} names the copy after
+     * the source. Returns the new course's ID, or null when the source does not exist.
+     */
+    public Long cloneCourse(long sourceCourseId, String title) {
+        List<Long> ids = jdbcTemplate.queryForList("INSERT INTO course (title, body, image_url, price, instructor_id) "
+                + "SELECT COALESCE(?::varchar, title || ' (copy)'), body, image_url, price, instructor_id FROM course WHERE id = ? RETURNING id",
+                Long.class, title, sourceCourseId);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Copies every topic and subtopic of one course into another in a single statement.
+     * New topic IDs are drawn from the sequence up front so subtopics can be re-parented
+     * through the old-to-new mapping; positions are copied unchanged.
+     */
+    public ClonedOutline cloneOutline(long sourceCourseId, long targetCourseId, Long instructorId) {
+        return jdbcTemplate.queryForObject("WITH topic_map AS ("
+                + "  SELECT id AS old_id, nextval(pg_get_serial_sequence('course_content', 'id')) AS new_id, topic, position"
+                + "  FROM course_content WHERE course_id = ?"
+                + "), topics AS ("
+                + "  INSERT INTO course_content (id, topic, position, course_id, instructor_id)"
+                + "  SELECT new_id, topic, position, ?, ?::bigint FROM topic_map RETURNING 1"
+                + "), subtopics AS ("
+                + "  INSERT INTO subtopic (course_content_id, name, url, position)"
+                + "  SELECT m.new_id, s.name, s.url, s.position FROM subtopic s JOIN topic_map m ON m.old_id = s.course_content_id"
+                + "  RETURNING 1"
+                + ") SELECT (SELECT count(*) FROM topics) AS topics, (SELECT count(*) FROM subtopics) AS subtopics",
+                (rs, rowNum) -> new ClonedOutline(rs.getLong("topics"), rs.getLong("subtopics")),
+                sourceCourseId, targetCourseId, instructorId);
+    }
+
+    private interface StatementBinder {
+        void bind(Connection con, PreparedStatement ps) throws SQLException;
+    }
+
+    private int execute(String sql, StatementBinder binder) {
+        Integer updated = jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                binder.bind(con, ps);
+                return ps.executeUpdate();
+            }
+        });
+        return updated != null ? updated : 0;
+    }
+}
@@ -2,10 +2,25 @@ package com.example.e_learning.repository;
 
 import com.example.e_learning.entity.Course;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
 public interface CourseRepository extends JpaRepository<Course, Long> {
     Optional<Course> findByTitle(String title);
     List<Course> findByInstructorId(Long instructorId);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id FROM Course c WHERE c.instructor.id = :instructorId")
+    List<Long> findIdsByInstructorId(@Param("instructorId") Long instructorId);
+
+    @Query("SELECT c.id FROM Course c")
+    List<Long> findAllIds();
+
+    /**
+     * (course id, owning user id) for a course; the user id is null when the course has
+     * no instructor. Empty when the course does not exist.
+     */
+    @Query("SELECT c.id, u.id FROM Course c LEFT JOIN c.instructor i LEFT JOIN i.user u WHERE c.id = :courseId")
+    List<Object[]> findOwnerRowsById(@Param("courseId") Long courseId);
+}
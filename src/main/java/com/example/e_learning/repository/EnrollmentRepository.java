@@ -16,6 +16,9 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     @Query("SELECT e FROM Enrollment e WHERE e.user.id = :userId AND e.course.id = :courseId")
     Optional<Enrollment> findByUserIdAndCourseId(@Param("userId") Long userId, @Param("courseId") Long courseId);
     
+    @Query("SELECT e.user.id FROM Enrollment e WHERE e.course.id = :courseId")
+    List<Long> findUserIdsByCourseId(@Param("courseId") Long courseId);
+
     @Query("SELECT COUNT(e.user.id) FROM Enrollment e WHERE e.course.id = :courseId")
     Long countEnrollmentsByCourseId(@Param("courseId") Long courseId);
     
@@ -0,0 +1,183 @@
+package com.example.e_learning.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class FeedbackJdbcRepository {
+
+    // The existing review is locked before the upsert runs (the scalar subquery is evaluated
+    // first), so its rating is the latest committed one. A review inserted concurrently after
+    // this statement's snapshot is not seen by the lock; the upsert then takes the update path
+    // (xmax <> 0) with no previous rating, which UpsertResult reports as unknown.
+    private static final String UPSERT_SQL =
+            "WITH previous AS ("
+            + "  SELECT rating FROM feedback WHERE user_id = :userId AND course_id = :courseId FOR UPDATE"
+            + "), upserted AS ("
+            + "  INSERT INTO feedback (user_id, course_id, rating, comments)"
+            + "  SELECT :userId, :courseId, :rating, :comments WHERE (SELECT COUNT(*) FROM previous) >= 0"
+            + "  ON CONFLICT (user_id, course_id) DO UPDATE SET rating = EXCLUDED.rating, comments = EXCLUDED.comments"
+            + "  RETURNING id, user_id, course_id, (xmax = 0) AS inserted"
+            + ") "
+            + "SELECT u.id, u.user_id, u.course_id, "
+            + "CASE WHEN u.inserted THEN NULL ELSE (SELECT rating FROM previous) END AS previous_rating, "
+            + "NOT u.inserted AS replaced, (NOT u.inserted AND NOT EXISTS (SELECT 1 FROM previous)) AS previous_unknown "
+            + "FROM upserted u";
+
+    private static final String BATCH_UPSERT_SQL =
+            "WITH input AS ("
+            + "  SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::integer[], ?::text[]) AS t(user_id, course_id, rating, comments)"
+            + "), previous AS ("
+            + "  SELECT f.user_id, f.course_id, f.rating FROM feedback f"
+            + "  JOIN input i ON i.user_id = f.user_id AND i.course_id = f.course_id"
+            + "  FOR UPDATE OF f"
+            + "), upserted AS ("
+            + "  INSERT INTO feedback (user_id, course_id, rating, comments)"
+            + "  SELECT user_id, course_id, rating, comments FROM input WHERE (SELECT COUNT(*) FROM previous) >= 0"
+            + "  ON CONFLICT (user_id, course_id) DO UPDATE SET rating = EXCLUDED.rating, comments = EXCLUDED.comments"
+            + "  RETURNING id, user_id, course_id, (xmax = 0) AS inserted"
+            + ") "
+            + "SELECT u.id, u.user_id, u.course_id, CASE WHEN u.inserted THEN NULL ELSE p.rating END AS previous_rating, "
+            + "NOT u.inserted AS replaced, (NOT u.inserted AND p.user_id IS NULL) AS previous_unknown "
+            + "FROM upserted u LEFT JOIN previous p ON p.user_id = u.user_id AND p.course_id = u.course_id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FeedbackJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record FeedbackRow(Long userId, Long courseId, Integer rating, String comments) {
+    }
+
+    /**
+     * {@code previousUnknown} is set when the upsert replaced a review another transaction
+     * inserted concurrently, whose rating this statement could not see; rating aggregates
+     * for the course must then be reloaded instead of adjusted.
+     */
+    public record UpsertResult(long id, long userId, long courseId, boolean replaced, Integer previousRating,
+                               boolean previousUnknown) {
+    }
+
+    public record FeedbackDocumentRow(long id, long courseId, Integer rating, String comments) {
+    }
+
+    public Map<String, Long> findUserIdsByUsername(Collection<String> usernames) {
+        Map<String, Long> ids = new HashMap<>();
+        if (usernames.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                Map.of("usernames", usernames),
+                rs -> {
+                    ids.put(rs.getString("username"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    public Set<Long> findExistingCourseIds(Collection<Long> courseIds) {
+        Set<Long> ids = new HashSet<>();
+        if (courseIds.isEmpty()) {
+            return ids;
+        }
+        jdbcTemplate.query("SELECT id FROM course WHERE id IN (:courseIds)",
+                Map.of("courseIds", courseIds),
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    /**
+     * Creates or replaces the caller's review of a course in one statement, returning the
+     * rating it replaced so aggregate deltas can be applied without re-reading the row.
+     */
+    public UpsertResult upsert(FeedbackRow row) {
+        return jdbcTemplate.queryForObject(UPSERT_SQL,
+                new MapSqlParameterSource()
+                        .addValue("userId", row.userId())
+                        .addValue("courseId", row.courseId())
+                        .addValue("rating", row.rating(), Types.INTEGER)
+                        .addValue("comments", row.comments(), Types.VARCHAR),
+                (rs, rowNum) -> toUpsertResult(rs));
+    }
+
+    /**
+     * Upserts a whole batch with a single set-based statement. Rows must be unique per
+     * (user, course); results are returned in no particular order.
+     */
+    public List<UpsertResult> upsertBatch(List<FeedbackRow> rows) {
+        return jdbcTemplate.getJdbcTemplate().execute((ConnectionCallback<List<UpsertResult>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(BATCH_UPSERT_SQL)) {
+                ps.setArray(1, con.createArrayOf("bigint", rows.stream().map(FeedbackRow::userId).toArray()));
+                ps.setArray(2, con.createArrayOf("bigint", rows.stream().map(FeedbackRow::courseId).toArray()));
+                ps.setArray(3, con.createArrayOf("integer", rows.stream().map(FeedbackRow::rating).toArray()));
+                ps.setArray(4, con.createArrayOf("text", rows.stream().map(FeedbackRow::comments).toArray()));
+                List<UpsertResult> results = new ArrayList<>(rows.size());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        results.add(toUpsertResult(rs));
+                    }
+                }
+                return results;
+            }
+        });
+    }
+
+    /**
+     * Removes all but the newest review per (user, course) and adds the unique constraint
+     * backing the upsert if schema generation could not create it.
+     */
+    public int enforceOneReviewPerLearner() {
+        JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+        Integer existing = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname = 'uk_feedback_user_course'", Integer.class);
+        if (existing != null && existing > 0) {
+            return 0;
+        }
+        int removed = jdbc.update("DELETE FROM feedback f USING feedback newer "
+                + "WHERE f.user_id = newer.user_id AND f.course_id = newer.course_id AND f.id < newer.id");
+        jdbc.execute("ALTER TABLE feedback ADD CONSTRAINT uk_feedback_user_course UNIQUE (user_id, course_id)");
+        return removed;
+    }
+
+    private static UpsertResult toUpsertResult(ResultSet rs) throws SQLException {
+        int previous = rs.getInt("previous_rating");
+        Integer previousRating = rs.wasNull() ? null : previous;
+        return new UpsertResult(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("course_id"),
+                rs.getBoolean("replaced"), previousRating, rs.getBoolean("previous_unknown"));
+    }
+
+    /**
+     * Streams every feedback row that has comments using a server-side cursor. Must be
+     * called inside a transaction for the fetch size to take effect on PostgreSQL.
+     */
+    public void streamSearchDocuments(int fetchSize, Consumer<FeedbackDocumentRow> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT id, course_id, rating, comments FROM feedback WHERE comments IS NOT NULL");
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, rs -> {
+            int rating = rs.getInt("rating");
+            consumer.accept(new FeedbackDocumentRow(rs.getLong("id"), rs.getLong("course_id"),
+                    rs.wasNull() ? null : rating, rs.getString("comments")));
+        });
+    }
+}
@@ -14,6 +14,12 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
     @Query("SELECT AVG(f.rating) FROM Feedback f WHERE f.course.id = :courseId")
     Double findAverageRatingByCourseId(@Param("courseId") Long courseId);
 
+    @Query("SELECT COUNT(f.rating), COALESCE(SUM(f.rating), 0) FROM Feedback f WHERE f.course.id = :courseId")
+    List<Object[]> findRatingTotalsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("SELECT f.user.id FROM Feedback f WHERE f.course.id = :courseId")
+    List<Long> findUserIdsByCourseId(@Param("courseId") Long courseId);
+
     @Query("SELECT COUNT(f) FROM Feedback f WHERE f.course.instructor.id = :instructorId")
     Long countFeedbackByInstructorId(@Param("instructorId") Long instructorId);
     
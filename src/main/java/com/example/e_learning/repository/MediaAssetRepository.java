@@ -0,0 +1,32 @@
+package com.example.e_learning.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.e_learning.entity.MediaAsset;
+
+public interface MediaAssetRepository extends JpaRepository<MediaAsset, Long> {
+
+    /**
+     * Records a chunk as durable, but only if no other chunk was recorded since the caller
+     * read {@code from}.
+     */
+    @Query("SELECT m.receivedBytes FROM MediaAsset m WHERE m.id = :id")
+    Long findReceivedBytes(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE MediaAsset m SET m.receivedBytes = :to WHERE m.id = :id AND m.receivedBytes = :from AND m.status = 'UPLOADING'")
+    int advance(@Param("id") Long id, @Param("from") long from, @Param("to") long to);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE MediaAsset m SET m.status = 'READY', m.completedAt = :now " +
+           "WHERE m.id = :id AND m.status = 'UPLOADING' AND m.receivedBytes = m.sizeBytes")
+    int complete(@Param("id") Long id, @Param("now") Instant now);
+}
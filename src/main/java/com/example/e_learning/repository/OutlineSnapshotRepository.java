@@ -0,0 +1,32 @@
+package com.example.e_learning.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.example.e_learning.entity.OutlineSnapshot;
+
+public interface OutlineSnapshotRepository extends JpaRepository<OutlineSnapshot, Long> {
+    List<OutlineSnapshot> findByCourseIdOrderByVersionDesc(Long courseId);
+
+    Optional<OutlineSnapshot> findByCourseIdAndVersion(Long courseId, int version);
+
+    Optional<OutlineSnapshot> findByCourseIdAndCurrentTrue(Long courseId);
+
+    List<OutlineSnapshot> findByCurrentTrue();
+
+    @Query("SELECT COALESCE(MAX(s.version), 0) FROM OutlineSnapshot s WHERE s.courseId = :courseId")
+    int findLatestVersion(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("UPDATE OutlineSnapshot s SET s.current = false WHERE s.courseId = :courseId AND s.current = true")
+    int clearCurrent(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("UPDATE OutlineSnapshot s SET s.current = true WHERE s.id = :id")
+    int markCurrent(@Param("id") Long id);
+}
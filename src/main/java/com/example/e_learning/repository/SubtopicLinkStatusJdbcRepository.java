@@ -0,0 +1,54 @@
+package com.example.e_learning.repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class SubtopicLinkStatusJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO subtopic_link_status (subtopic_id, course_id, url, outcome, status_code, latency_ms, error, "
+            + "consecutive_failures, checked_at) VALUES (?, ?, ?, ?, ?, ?, ?, CASE WHEN ? THEN 0 ELSE 1 END, ?) "
+            + "ON CONFLICT (subtopic_id) DO UPDATE SET course_id = EXCLUDED.course_id, url = EXCLUDED.url, "
+            + "outcome = EXCLUDED.outcome, status_code = EXCLUDED.status_code, latency_ms = EXCLUDED.latency_ms, "
+            + "error = EXCLUDED.error, checked_at = EXCLUDED.checked_at, "
+            + "consecutive_failures = CASE WHEN EXCLUDED.consecutive_failures = 0 THEN 0 "
+            + "ELSE subtopic_link_status.consecutive_failures + 1 END";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SubtopicLinkStatusJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record LinkTarget(long subtopicId, Long courseId, String url) {
+    }
+
+    public record LinkResult(LinkTarget target, String outcome, Integer statusCode, Long latencyMs, String error,
+                             boolean healthy, Instant checkedAt) {
+    }
+
+    public void upsertBatch(List<LinkResult> results) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, results, results.size(), (ps, result) -> {
+            ps.setLong(1, result.target().subtopicId());
+            ps.setObject(2, result.target().courseId(), Types.BIGINT);
+            ps.setString(3, result.target().url());
+            ps.setString(4, result.outcome());
+            ps.setObject(5, result.statusCode(), Types.INTEGER);
+            ps.setObject(6, result.latencyMs(), Types.BIGINT);
+            ps.setString(7, result.error());
+            ps.setBoolean(8, result.healthy());
+            ps.setTimestamp(9, Timestamp.from(result.checkedAt()));
+        });
+    }
+
+    public int deleteOrphans() {
+        return jdbcTemplate.update("DELETE FROM subtopic_link_status l "
+                + "WHERE NOT EXISTS (SELECT 1 FROM subtopic s WHERE s.id = l.subtopic_id)");
+    }
+}
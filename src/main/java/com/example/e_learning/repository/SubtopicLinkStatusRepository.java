@@ -0,0 +1,19 @@
+package com.example.e_learning.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.e_learning.entity.SubtopicLinkStatus;
+
+public interface SubtopicLinkStatusRepository extends JpaRepository<SubtopicLinkStatus, Long> {
+    Page<SubtopicLinkStatus> findByOutcome(String outcome, Pageable pageable);
+
+    Page<SubtopicLinkStatus> findByOutcomeNot(String outcome, Pageable pageable);
+
+    @Query("SELECT s.outcome, COUNT(s) FROM SubtopicLinkStatus s GROUP BY s.outcome")
+    List<Object[]> countByOutcome();
+}
@@ -1,7 +1,39 @@
 package com.example.e_learning.repository;
 
 import com.example.e_learning.entity.Subtopic;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface SubtopicRepository extends JpaRepository<Subtopic, Long> {
-}
\ No newline at end of file
+
+    @Query("SELECT MAX(s.position) FROM Subtopic s WHERE s.courseContent.id = :topicId")
+    Long findMaxPositionByTopicId(@Param("topicId") Long topicId);
+
+    /**
+     * Next page of (subtopic id, course id, url) rows after {@code afterId}. Keyed on the
+     * subtopic ID so deep pages cost the same as the first; always pass page 0. Self-hosted
+     * media links are skipped.
+     */
+    @Query("SELECT s.id, s.courseContent.course.id, s.url FROM Subtopic s " +
+           "WHERE s.id > :afterId AND s.url IS NOT NULL AND s.url <> '' AND s.url NOT LIKE '/media/%' ORDER BY s.id")
+    List<Object[]> findUrlsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    @Modifying
+    @Query("UPDATE Subtopic s SET s.name = :name, s.url = :url WHERE s.id = :subtopicId AND s.courseContent.id = :topicId")
+    int updateInTopic(@Param("topicId") Long topicId, @Param("subtopicId") Long subtopicId,
+                      @Param("name") String name, @Param("url") String url);
+
+    @Modifying
+    @Query("DELETE FROM Subtopic s WHERE s.id = :subtopicId AND s.courseContent.id = :topicId")
+    int deleteInTopic(@Param("topicId") Long topicId, @Param("subtopicId") Long subtopicId);
+
+    @Query("SELECT COUNT(s) FROM Subtopic s WHERE s.id IN :subtopicIds AND s.courseContent.id = :topicId")
+    long countInTopic(@Param("topicId") Long topicId, @Param("subtopicIds") Collection<Long> subtopicIds);
+}
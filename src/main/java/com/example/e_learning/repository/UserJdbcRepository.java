@@ -0,0 +1,45 @@
+package com.example.e_learning.repository;
+
+import java.sql.Statement;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class UserJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, username, password, role) VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record NewUser(String name, String email, String username, String password, String role) {
+    }
+
+    /**
+     * Inserts the users in one JDBC batch, skipping any that collide with an existing
+     * username or email. Returns, per user in order, whether it was inserted.
+     */
+    public boolean[] insertIgnoringConflicts(List<NewUser> users) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (ps, user) -> {
+            ps.setString(1, user.name());
+            ps.setString(2, user.email());
+            ps.setString(3, user.username());
+            ps.setString(4, user.password());
+            ps.setString(5, user.role());
+        });
+        boolean[] inserted = new boolean[users.size()];
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted[i++] = count > 0 || count == Statement.SUCCESS_NO_INFO;
+            }
+        }
+        return inserted;
+    }
+}
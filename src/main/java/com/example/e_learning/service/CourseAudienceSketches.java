@@ -0,0 +1,165 @@
+package com.example.e_learning.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.entity.CourseAudienceSketch;
+import com.example.e_learning.repository.CourseAudienceSketchRepository;
+import com.example.e_learning.repository.EnrollmentRepository;
+import com.example.e_learning.repository.FeedbackRepository;
+import com.example.e_learning.util.HyperLogLog;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-course HyperLogLog sketches of distinct learners and reviewers. Sketches are loaded
+ * from {@code course_audience_sketch} on first use (or rebuilt from enrollments and feedback
+ * when no row exists), updated in memory by the write paths and flushed back periodically.
+ * Sketches only grow: a deleted review still counts towards the course's reviewers.
+ */
+@Component
+public class CourseAudienceSketches {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseAudienceSketches.class);
+
+    private final CourseAudienceSketchRepository sketchRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final ConcurrentHashMap<Long, Sketches> sketches = new ConcurrentHashMap<>();
+
+    public CourseAudienceSketches(CourseAudienceSketchRepository sketchRepository,
+                                  EnrollmentRepository enrollmentRepository,
+                                  FeedbackRepository feedbackRepository) {
+        this.sketchRepository = sketchRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.feedbackRepository = feedbackRepository;
+    }
+
+    public record Estimate(long learners, long reviewers, double relativeError) {
+    }
+
+    private static final class Sketches {
+        final HyperLogLog learners;
+        final HyperLogLog reviewers;
+        boolean dirty;
+
+        Sketches(HyperLogLog learners, HyperLogLog reviewers, boolean dirty) {
+            this.learners = learners;
+            this.reviewers = reviewers;
+            this.dirty = dirty;
+        }
+    }
+
+    public void learnerAdded(Long courseId, Long userId) {
+        if (courseId == null || userId == null) {
+            return;
+        }
+        Sketches entry = get(courseId);
+        synchronized (entry) {
+            entry.dirty |= entry.learners.add(userId);
+        }
+    }
+
+    public void reviewerAdded(Long courseId, Long userId) {
+        if (courseId == null || userId == null) {
+            return;
+        }
+        Sketches entry = get(courseId);
+        synchronized (entry) {
+            entry.dirty |= entry.reviewers.add(userId);
+        }
+    }
+
+    /**
+     * Estimates distinct learners and reviewers across the given courses by merging their sketches.
+     */
+    public Estimate estimate(Collection<Long> courseIds) {
+        HyperLogLog learners = new HyperLogLog();
+        HyperLogLog reviewers = new HyperLogLog();
+        for (Long courseId : courseIds) {
+            Sketches entry = get(courseId);
+            synchronized (entry) {
+                learners.merge(entry.learners);
+                reviewers.merge(entry.reviewers);
+            }
+        }
+        return new Estimate(learners.estimate(), reviewers.estimate(), learners.relativeError());
+    }
+
+    public void invalidate(Long courseId) {
+        sketches.remove(courseId);
+        sketchRepository.deleteById(courseId);
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.sketch.flush-ms:30000}")
+    @PreDestroy
+    public void flush() {
+        List<CourseAudienceSketch> rows = new ArrayList<>();
+        sketches.forEach((courseId, entry) -> {
+            synchronized (entry) {
+                if (!entry.dirty) {
+                    return;
+                }
+                CourseAudienceSketch row = new CourseAudienceSketch();
+                row.setCourseId(courseId);
+                row.setLearners(entry.learners.toBytes());
+                row.setReviewers(entry.reviewers.toBytes());
+                row.setUpdatedAt(Instant.now());
+                rows.add(row);
+                entry.dirty = false;
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            sketchRepository.saveAll(rows);
+        } catch (Exception e) {
+            logger.error("Failed to persist {} audience sketches: {}", rows.size(), e.getMessage());
+            rows.forEach(row -> {
+                Sketches entry = sketches.get(row.getCourseId());
+                if (entry != null) {
+                    synchronized (entry) {
+                        entry.dirty = true;
+                    }
+                }
+            });
+        }
+    }
+
+    private Sketches get(Long courseId) {
+        Sketches entry = sketches.get(courseId);
+        if (entry != null) {
+            return entry;
+        }
+        // Load outside the map so a slow query doesn't block other courses hashed to the same bin
+        Sketches loaded = load(courseId);
+        Sketches existing = sketches.putIfAbsent(courseId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private Sketches load(Long courseId) {
+        CourseAudienceSketch row = sketchRepository.findById(courseId).orElse(null);
+        if (row != null) {
+            try {
+                return new Sketches(HyperLogLog.fromBytes(row.getLearners()),
+                        HyperLogLog.fromBytes(row.getReviewers()), false);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Discarding unreadable audience sketch for course {}: {}", courseId, e.getMessage());
+            }
+        }
+        HyperLogLog learners = new HyperLogLog();
+        HyperLogLog reviewers = new HyperLogLog();
+        enrollmentRepository.findUserIdsByCourseId(courseId).forEach(learners::add);
+        feedbackRepository.findUserIdsByCourseId(courseId).forEach(reviewers::add);
+        return new Sketches(learners, reviewers, true);
+    }
+}
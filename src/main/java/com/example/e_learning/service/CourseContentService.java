@@ -6,16 +6,28 @@ import com.example.e_learning.dto.TopicDTO;
 import com.example.e_learning.entity.Course;
 import com.example.e_learning.entity.CourseContent;
 import com.example.e_learning.entity.Subtopic;
-import com.example.e_learning.entity.User;
 import com.example.e_learning.repository.CourseContentRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.SubtopicRow;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.TopicRow;
 import com.example.e_learning.repository.CourseRepository;
 import com.example.e_learning.repository.SubtopicRepository;
 import com.example.e_learning.repository.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,39 +37,67 @@ public class CourseContentService {
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final SubtopicRepository subtopicRepository;
+    private final CourseOutlineCache outlineCache;
+    private final CourseOutlineJdbcRepository outlineJdbcRepository;
+    private final CourseOwnershipResolver ownershipResolver;
+    private final CurrentUser currentUser;
+    private final OutlinePositionCompactor positionCompactor;
+    private final TransactionTemplate readOnlyTransaction;
 
     public CourseContentService(CourseContentRepository courseContentRepository,
                                 CourseRepository courseRepository,
                                 UserRepository userRepository,
-                                SubtopicRepository subtopicRepository) {
+                                SubtopicRepository subtopicRepository,
+                                CourseOutlineCache outlineCache,
+                                CourseOutlineJdbcRepository outlineJdbcRepository,
+                                CourseOwnershipResolver ownershipResolver,
+                                CurrentUser currentUser,
+                                OutlinePositionCompactor positionCompactor,
+                                PlatformTransactionManager transactionManager) {
         this.courseContentRepository = courseContentRepository;
         this.courseRepository = courseRepository;
         this.userRepository = userRepository;
         this.subtopicRepository = subtopicRepository;
+        this.outlineCache = outlineCache;
+        this.outlineJdbcRepository = outlineJdbcRepository;
+        this.ownershipResolver = ownershipResolver;
+        this.currentUser = currentUser;
+        this.positionCompactor = positionCompactor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public record OutlineChanges(int inserted, int updated, int moved, int deleted) {
+    }
+
+    private record StoredTopic(String topic, Long position) {
+    }
+
+    private record StoredSubtopic(long topicId, String name, String url, Long position) {
     }
 
     @Transactional
     public void createTopic(Long courseId, List<CourseContentDTO> dtos) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("Only admins and instructors can create topics");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-
-        if (!user.getRole().equals("ADMIN") && 
-            (course.getInstructor() == null || !course.getInstructor().getId().equals(user.getId()))) {
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
             throw new IllegalStateException("Instructors can only add topics to their own courses");
         }
+        Course course = courseRepository.getReferenceById(courseId);
 
+        // Serialises appends with other writers of the outline, so no two get the same position
+        outlineJdbcRepository.lockCourse(courseId);
+        Long lastPosition = courseContentRepository.findMaxPositionByCourseId(courseId);
+        Iterator<Long> positions = OutlinePositions.gapped(dtos.size(), lastPosition != null ? lastPosition : 0).iterator();
         dtos.forEach(dto -> {
             CourseContent topic = new CourseContent();
             topic.setTopic(dto.getTopic());
+            topic.setPosition(positions.next());
             topic.setCourse(course);
-            topic.setInstructor(user.getRole().equals("ADMIN") ? null : user);
+            topic.setInstructor(currentUser.isAdmin() ? null : userRepository.getReferenceById(currentUser.getId()));
 
             if (dto.getSubtopics() != null) {
                 List<Subtopic> subtopics = dto.getSubtopics().stream().map(subtopicDto -> {
@@ -67,187 +107,369 @@ public class CourseContentService {
                     subtopic.setCourseContent(topic);
                     return subtopic;
                 }).collect(Collectors.toList());
+                for (int i = 0; i < subtopics.size(); i++) {
+                    subtopics.get(i).setPosition((i + 1) * OutlinePositions.GAP);
+                }
                 topic.setSubtopics(subtopics);
             }
 
             courseContentRepository.save(topic);
         });
+        outlineCache.invalidateAfterCommit(courseId);
     }
 
-    public List<CourseContentDTO> getTopicByCourseId(Long courseId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        List<CourseContent> topics = courseContentRepository.findByCourseId(courseId);
-        return topics.stream().map(this::convertToDTO).collect(Collectors.toList());
-    }
-
+    /**
+     * Replaces a course's outline with {@code desired}. Topics and subtopics with an ID are
+     * matched against the stored outline, those without one are created, and stored items
+     * missing from {@code desired} are deleted. The diff is computed in memory and applied
+     * with one set-based statement per kind of change.
+     */
     @Transactional
-    public void updateTopic(Long courseId, Long topicId, TopicDTO dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
-            throw new IllegalStateException("Only admins and instructors can update topics");
+    public OutlineChanges replaceOutline(Long courseId, List<CourseContentDTO> desired) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new AccessDeniedException("Only admins and instructors can edit course outlines");
+        }
+        if (desired == null) {
+            throw new IllegalArgumentException("Outline is required");
+        }
+
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
+            throw new AccessDeniedException("Instructors can only edit the outline of their own courses");
+        }
+
+        outlineJdbcRepository.lockCourse(courseId);
+        Map<Long, StoredTopic> storedTopics = new HashMap<>();
+        Map<Long, StoredSubtopic> storedSubtopics = new HashMap<>();
+        for (Object[] row : courseContentRepository.findOutlineRowsByCourseId(courseId)) {
+            storedTopics.put((Long) row[0], new StoredTopic((String) row[1], (Long) row[5]));
+            if (row[2] != null) {
+                storedSubtopics.put((Long) row[2],
+                        new StoredSubtopic((Long) row[0], (String) row[3], (String) row[4], (Long) row[6]));
+            }
+        }
+
+        Set<Long> keptTopics = new HashSet<>();
+        List<Long> currentTopicPositions = new ArrayList<>(desired.size());
+        for (CourseContentDTO dto : desired) {
+            if (dto.getId() == null) {
+                currentTopicPositions.add(null);
+                continue;
+            }
+            StoredTopic stored = storedTopics.get(dto.getId());
+            if (stored == null) {
+                throw new IllegalArgumentException("Topic " + dto.getId() + " does not belong to the specified course");
+            }
+            if (!keptTopics.add(dto.getId())) {
+                throw new IllegalArgumentException("Topic " + dto.getId() + " appears more than once in the outline");
+            }
+            currentTopicPositions.add(stored.position());
+        }
+        long[] topicPositions = OutlinePositions.assign(currentTopicPositions);
+
+        long newTopicCount = desired.stream().filter(dto -> dto.getId() == null).count();
+        Iterator<Long> reservedIds = outlineJdbcRepository.reserveTopicIds((int) newTopicCount).iterator();
+
+        List<TopicRow> topicInserts = new ArrayList<>();
+        List<TopicRow> topicUpdates = new ArrayList<>();
+        List<SubtopicRow> subtopicInserts = new ArrayList<>();
+        List<SubtopicRow> subtopicUpdates = new ArrayList<>();
+        Set<Long> keptSubtopics = new HashSet<>();
+        int updated = 0;
+        int moved = 0;
+
+        for (int i = 0; i < desired.size(); i++) {
+            CourseContentDTO dto = desired.get(i);
+            long topicId;
+            if (dto.getId() == null) {
+                topicId = reservedIds.next();
+                topicInserts.add(new TopicRow(topicId, dto.getTopic(), topicPositions[i]));
+            } else {
+                topicId = dto.getId();
+                StoredTopic stored = storedTopics.get(topicId);
+                boolean isMove = !Objects.equals(stored.position(), topicPositions[i]);
+                if (isMove || !Objects.equals(stored.topic(), dto.getTopic())) {
+                    topicUpdates.add(new TopicRow(topicId, dto.getTopic(), topicPositions[i]));
+                    if (isMove) {
+                        moved++;
+                    } else {
+                        updated++;
+                    }
+                }
+            }
+
+            List<CourseContentDTO.Subtopic> subtopics = dto.getSubtopics() != null ? dto.getSubtopics() : List.of();
+            List<Long> currentSubtopicPositions = new ArrayList<>(subtopics.size());
+            for (CourseContentDTO.Subtopic subtopicDto : subtopics) {
+                StoredSubtopic stored = null;
+                if (subtopicDto.getId() != null) {
+                    stored = storedSubtopics.get(subtopicDto.getId());
+                    if (stored == null) {
+                        throw new IllegalArgumentException("Subtopic " + subtopicDto.getId() + " does not belong to the specified course");
+                    }
+                    if (!keptSubtopics.add(subtopicDto.getId())) {
+                        throw new IllegalArgumentException("Subtopic " + subtopicDto.getId() + " appears more than once in the outline");
+                    }
+                }
+                // A subtopic arriving from another topic has no position among its new siblings yet
+                currentSubtopicPositions.add(stored != null && stored.topicId() == topicId ? stored.position() : null);
+            }
+            long[] subtopicPositions = OutlinePositions.assign(currentSubtopicPositions);
+
+            for (int j = 0; j < subtopics.size(); j++) {
+                CourseContentDTO.Subtopic subtopicDto = subtopics.get(j);
+                SubtopicRow row = new SubtopicRow(subtopicDto.getId(), topicId, subtopicDto.getName(),
+                        subtopicDto.getUrl(), subtopicPositions[j]);
+                if (subtopicDto.getId() == null) {
+                    subtopicInserts.add(row);
+                    continue;
+                }
+                StoredSubtopic stored = storedSubtopics.get(subtopicDto.getId());
+                boolean isMove = stored.topicId() != topicId || !Objects.equals(stored.position(), subtopicPositions[j]);
+                if (isMove || !Objects.equals(stored.name(), subtopicDto.getName())
+                        || !Objects.equals(stored.url(), subtopicDto.getUrl())) {
+                    subtopicUpdates.add(row);
+                    if (isMove) {
+                        moved++;
+                    } else {
+                        updated++;
+                    }
+                }
+            }
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+        List<Long> topicDeletes = storedTopics.keySet().stream().filter(id -> !keptTopics.contains(id)).toList();
+        List<Long> subtopicDeletes = storedSubtopics.keySet().stream().filter(id -> !keptSubtopics.contains(id)).toList();
 
-        CourseContent topic = courseContentRepository.findById(topicId)
-                .orElseThrow(() -> new IllegalArgumentException("Topic not found: " + topicId));
+        // Subtopics moved out of a deleted topic are re-parented before the topic is deleted
+        outlineJdbcRepository.insertTopics(courseId, currentUser.isAdmin() ? null : currentUser.getId(), topicInserts);
+        outlineJdbcRepository.updateTopics(topicUpdates);
+        outlineJdbcRepository.updateSubtopics(subtopicUpdates);
+        outlineJdbcRepository.deleteSubtopics(subtopicDeletes);
+        outlineJdbcRepository.deleteTopics(topicDeletes);
+        outlineJdbcRepository.insertSubtopics(subtopicInserts);
 
-        if (!topic.getCourse().getId().equals(courseId)) {
-            throw new IllegalArgumentException("Topic does not belong to the specified course");
+        ownershipResolver.forgetTopics(topicDeletes);
+        if (moved > 0 || !topicInserts.isEmpty() || !subtopicInserts.isEmpty()) {
+            positionCompactor.reordered(courseId);
         }
+        outlineCache.invalidateAfterCommit(courseId);
+        return new OutlineChanges(topicInserts.size() + subtopicInserts.size(), updated, moved,
+                topicDeletes.size() + subtopicDeletes.size());
+    }
 
-        if (!user.getRole().equals("ADMIN") && 
-            (topic.getInstructor() == null || !topic.getInstructor().getId().equals(user.getId()))) {
-            throw new IllegalStateException("Instructors can only update their own topics");
+    /**
+     * Returns the serialised outline from the cache, loading it on a miss. The loader runs in
+     * its own read-only transaction: calling {@link #getTopicByCourseId} on {@code this}
+     * would bypass the proxy and its annotation, and a hit needs no transaction at all.
+     */
+    public CourseOutlineCache.CachedOutline getOutline(Long courseId) {
+        return outlineCache.get(courseId, () -> readOnlyTransaction.execute(status -> getTopicByCourseId(courseId)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<CourseContentDTO> getTopicByCourseId(Long courseId) {
+        List<Object[]> rows = courseContentRepository.findOutlineRowsByCourseId(courseId);
+        if (rows.isEmpty()) {
+            // Only an empty outline needs a second statement to tell "no topics" from "no course"
+            if (!courseRepository.existsById(courseId)) {
+                throw new IllegalArgumentException("Course not found: " + courseId);
+            }
+            return List.of();
         }
 
-        topic.setTopic(dto.getTopic());
-        courseContentRepository.save(topic);
+        Map<Long, CourseContentDTO> topics = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            CourseContentDTO dto = topics.computeIfAbsent((Long) row[0], id -> {
+                CourseContentDTO topic = new CourseContentDTO();
+                topic.setId(id);
+                topic.setTopic((String) row[1]);
+                topic.setSubtopics(new ArrayList<>());
+                return topic;
+            });
+            if (row[2] != null) {
+                CourseContentDTO.Subtopic subtopicDto = new CourseContentDTO.Subtopic();
+                subtopicDto.setId((Long) row[2]);
+                subtopicDto.setName((String) row[3]);
+                subtopicDto.setUrl((String) row[4]);
+                dto.getSubtopics().add(subtopicDto);
+            }
+        }
+        return new ArrayList<>(topics.values());
     }
 
     @Transactional
-    public void addSubtopic(Long courseId, Long topicId, SubtopicDTO dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
-            throw new IllegalStateException("Only admins and instructors can add subtopics");
+    public void updateTopic(Long courseId, Long topicId, TopicDTO dto) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new IllegalStateException("Only admins and instructors can update topics");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            throw new IllegalStateException("Instructors can only update their own topics");
+        }
 
-        CourseContent topic = courseContentRepository.findById(topicId)
-                .orElseThrow(() -> new IllegalArgumentException("Topic not found: " + topicId));
+        if (courseContentRepository.updateTopicName(topicId, dto.getTopic()) == 0) {
+            throw new IllegalArgumentException("Topic not found: " + topicId);
+        }
+        outlineCache.invalidateAfterCommit(courseId);
+    }
 
-        if (!topic.getCourse().getId().equals(courseId)) {
-            throw new IllegalArgumentException("Topic does not belong to the specified course");
+    @Transactional
+    public void addSubtopic(Long courseId, Long topicId, SubtopicDTO dto) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new IllegalStateException("Only admins and instructors can add subtopics");
         }
 
-        if (!user.getRole().equals("ADMIN") && 
-            (topic.getInstructor() == null || !topic.getInstructor().getId().equals(user.getId()))) {
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
             throw new IllegalStateException("Instructors can only add subtopics to their own topics");
         }
 
+        outlineJdbcRepository.lockCourse(courseId);
+        Long lastPosition = subtopicRepository.findMaxPositionByTopicId(topicId);
         Subtopic subtopic = new Subtopic();
         subtopic.setName(dto.getName());
         subtopic.setUrl(dto.getUrl());
-        subtopic.setCourseContent(topic);
+        subtopic.setPosition((lastPosition != null ? lastPosition : 0) + OutlinePositions.GAP);
+        subtopic.setCourseContent(courseContentRepository.getReferenceById(topicId));
         subtopicRepository.save(subtopic);
+        outlineCache.invalidateAfterCommit(courseId);
     }
 
     @Transactional
     public void updateSubtopic(Long courseId, Long topicId, Long subtopicId, SubtopicDTO dto) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("Only admins and instructors can update subtopics");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-
-        CourseContent topic = courseContentRepository.findById(topicId)
-                .orElseThrow(() -> new IllegalArgumentException("Topic not found: " + topicId));
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            throw new IllegalStateException("Instructors can only update subtopics from their own topics");
+        }
 
-        if (!topic.getCourse().getId().equals(courseId)) {
-            throw new IllegalArgumentException("Topic does not belong to the specified course");
+        if (subtopicRepository.updateInTopic(topicId, subtopicId, dto.getName(), dto.getUrl()) == 0) {
+            throw subtopicNotInTopic(subtopicId);
         }
+        outlineCache.invalidateAfterCommit(courseId);
+    }
 
-        if (!user.getRole().equals("ADMIN") && 
-            (topic.getInstructor() == null || !topic.getInstructor().getId().equals(user.getId()))) {
-            throw new IllegalStateException("Instructors can only update subtopics from their own topics");
+    /**
+     * Moves a topic directly after {@code afterId}, or to the front when it is null. Only
+     * the moved topic's row is rewritten unless its neighbours have run out of room.
+     */
+    @Transactional
+    public void moveTopic(Long courseId, Long topicId, Long afterId) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new IllegalStateException("Only admins and instructors can move topics");
         }
 
-        Subtopic subtopic = subtopicRepository.findById(subtopicId)
-                .orElseThrow(() -> new IllegalArgumentException("Subtopic not found: " + subtopicId));
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            throw new IllegalStateException("Instructors can only move their own topics");
+        }
 
-        if (!subtopic.getCourseContent().getId().equals(topicId)) {
-            throw new IllegalArgumentException("Subtopic does not belong to the specified topic");
+        if (afterId != null) {
+            if (afterId.equals(topicId)) {
+                throw new IllegalArgumentException("A topic cannot be moved after itself");
+            }
+            ownershipResolver.requireTopicInCourse(courseId, afterId);
         }
 
-        subtopic.setName(dto.getName());
-        subtopic.setUrl(dto.getUrl());
-        subtopicRepository.save(subtopic);
+        outlineJdbcRepository.lockCourse(courseId);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long lower = afterId != null ? outlineJdbcRepository.findTopicPosition(afterId) : null;
+            Long upper = outlineJdbcRepository.findNextTopicPosition(courseId, lower, topicId);
+            Long position = afterId != null && lower == null ? null : OutlinePositions.between(lower, upper);
+            if (position != null) {
+                outlineJdbcRepository.updateTopicPosition(topicId, position);
+                positionCompactor.placed(courseId, lower, position, upper);
+                outlineCache.invalidateAfterCommit(courseId);
+                return;
+            }
+            outlineJdbcRepository.respaceTopics(courseId, OutlinePositions.GAP);
+        }
+        throw new IllegalStateException("Could not find a position for topic " + topicId);
     }
 
+    /**
+     * Moves a subtopic within its topic, directly after {@code afterId} or to the front
+     * when it is null.
+     */
     @Transactional
-    public void deleteTopic(Long courseId, Long topicId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
-            throw new IllegalStateException("Only admins and instructors can delete topics");
+    public void moveSubtopic(Long courseId, Long topicId, Long subtopicId, Long afterId) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new IllegalStateException("Only admins and instructors can move subtopics");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            throw new IllegalStateException("Instructors can only move subtopics within their own topics");
+        }
 
-        CourseContent topic = courseContentRepository.findById(topicId)
-                .orElseThrow(() -> new IllegalArgumentException("Topic not found: " + topicId));
+        if (subtopicId.equals(afterId)) {
+            throw new IllegalArgumentException("A subtopic cannot be moved after itself");
+        }
+        List<Long> ids = afterId != null ? List.of(subtopicId, afterId) : List.of(subtopicId);
+        if (subtopicRepository.countInTopic(topicId, ids) != ids.size()) {
+            throw new IllegalArgumentException("Subtopic not found in the specified topic");
+        }
 
-        if (!topic.getCourse().getId().equals(courseId)) {
-            throw new IllegalArgumentException("Topic does not belong to the specified course");
+        outlineJdbcRepository.lockCourse(courseId);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Long lower = afterId != null ? outlineJdbcRepository.findSubtopicPosition(afterId) : null;
+            Long upper = outlineJdbcRepository.findNextSubtopicPosition(topicId, lower, subtopicId);
+            Long position = afterId != null && lower == null ? null : OutlinePositions.between(lower, upper);
+            if (position != null) {
+                outlineJdbcRepository.updateSubtopicPosition(subtopicId, position);
+                positionCompactor.placed(courseId, lower, position, upper);
+                outlineCache.invalidateAfterCommit(courseId);
+                return;
+            }
+            outlineJdbcRepository.respaceSubtopics(topicId, OutlinePositions.GAP);
         }
+        throw new IllegalStateException("Could not find a position for subtopic " + subtopicId);
+    }
 
-        if (!user.getRole().equals("ADMIN") && 
-            (topic.getInstructor() == null || !topic.getInstructor().getId().equals(user.getId()))) {
+    @Transactional
+    public void deleteTopic(Long courseId, Long topicId) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new IllegalStateException("Only admins and instructors can delete topics");
+        }
+
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
             throw new IllegalStateException("Instructors can only delete their own topics");
         }
 
-        courseContentRepository.deleteById(topicId);
+        if (outlineJdbcRepository.deleteTopics(List.of(topicId)) == 0) {
+            throw new IllegalArgumentException("Topic not found: " + topicId);
+        }
+        ownershipResolver.forgetTopics(List.of(topicId));
+        outlineCache.invalidateAfterCommit(courseId);
     }
 
     @Transactional
     public void deleteSubtopic(Long courseId, Long topicId, Long subtopicId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("Only admins and instructors can delete subtopics");
         }
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-
-        CourseContent topic = courseContentRepository.findById(topicId)
-                .orElseThrow(() -> new IllegalArgumentException("Topic not found: " + topicId));
-
-        if (!topic.getCourse().getId().equals(courseId)) {
-            throw new IllegalArgumentException("Topic does not belong to the specified course");
-        }
-
-        if (!user.getRole().equals("ADMIN") && 
-            (topic.getInstructor() == null || !topic.getInstructor().getId().equals(user.getId()))) {
+        ownershipResolver.requireTopicInCourse(courseId, topicId);
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
             throw new IllegalStateException("Instructors can only delete subtopics from their own topics");
         }
 
-        Subtopic subtopic = subtopicRepository.findById(subtopicId)
-                .orElseThrow(() -> new IllegalArgumentException("Subtopic not found: " + subtopicId));
-
-        if (!subtopic.getCourseContent().getId().equals(topicId)) {
-            throw new IllegalArgumentException("Subtopic does not belong to the specified topic");
+        if (subtopicRepository.deleteInTopic(topicId, subtopicId) == 0) {
+            throw subtopicNotInTopic(subtopicId);
         }
-
-        subtopicRepository.deleteById(subtopicId);
+        outlineCache.invalidateAfterCommit(courseId);
     }
 
-    private CourseContentDTO convertToDTO(CourseContent topic) {
-        CourseContentDTO dto = new CourseContentDTO();
-        dto.setId(topic.getId());
-        dto.setTopic(topic.getTopic());
-        dto.setSubtopics(topic.getSubtopics().stream().map(subtopic -> {
-            CourseContentDTO.Subtopic subtopicDto = new CourseContentDTO.Subtopic();
-            subtopicDto.setId(subtopic.getId());
-            subtopicDto.setName(subtopic.getName());
-            subtopicDto.setUrl(subtopic.getUrl());
-            return subtopicDto;
-        }).collect(Collectors.toList()));
-        return dto;
+    // Only called once a targeted write matched nothing, to report why
+    private IllegalArgumentException subtopicNotInTopic(Long subtopicId) {
+        return subtopicRepository.existsById(subtopicId)
+                ? new IllegalArgumentException("Subtopic does not belong to the specified topic")
+                : new IllegalArgumentException("Subtopic not found: " + subtopicId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,481 @@
+package com.example.e_learning.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.e_learning.dto.CourseDTO;
+import com.example.e_learning.dto.CourseImportDTO;
+import com.example.e_learning.entity.Course;
+import com.example.e_learning.entity.CourseImportCheckpoint;
+import com.example.e_learning.repository.CourseImportCheckpointRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.SubtopicRow;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.TopicRow;
+import com.example.e_learning.repository.CourseRepository;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports vendor course packages of the form
+ * {@code {"course": {...}, "topics": [{"topic": "...", "subtopics": [{"name": "...", "url": "..."}]}]}}.
+ * The package is spooled to disk and read with a streaming parser, so only one chunk of
+ * topics is ever held in memory. Each chunk is inserted with set-based statements and
+ * committed together with the import's checkpoint; a failed import resumes after the last
+ * committed chunk.
+ *
+ * <p>Packages larger than {@code course.import.max-bytes} are refused while spooling. The
+ * package of a failed import is kept for {@code course.import.failed-retention-hours} so it
+ * can be resumed, and deleted after that.
+ *
+ * <p>Each instance refreshes the {@code updatedAt} of the imports it is running every
+ * {@code course.import.heartbeat-ms}. A running import not refreshed for
+ * {@code course.import.lease-ms} lost its instance and is marked failed, so it can be
+ * resumed; imports running elsewhere keep their lease.
+ */
+@Service
+public class CourseImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseImportService.class);
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private record PendingSubtopic(String name, String url) {
+    }
+
+    private record PendingTopic(String topic, List<PendingSubtopic> subtopics) {
+    }
+
+    private final CourseImportCheckpointRepository checkpointRepository;
+    private final CourseRepository courseRepository;
+    private final InstructorApplicationRepository instructorApplicationRepository;
+    private final CurrentUser currentUser;
+    private final CourseOutlineJdbcRepository outlineJdbcRepository;
+    private final CourseOutlineCache outlineCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int chunkTopics;
+    private final int chunkSubtopics;
+    private final int maxSubtopicsPerTopic;
+    private final long maxBytes;
+    private final Duration failedRetention;
+    private final Duration lease;
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public CourseImportService(CourseImportCheckpointRepository checkpointRepository,
+                               CourseRepository courseRepository,
+                               InstructorApplicationRepository instructorApplicationRepository,
+                               CurrentUser currentUser,
+                               CourseOutlineJdbcRepository outlineJdbcRepository,
+                               CourseOutlineCache outlineCache,
+                               ObjectMapper objectMapper,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${course.import.dir:data/imports}") String directory,
+                               @Value("${course.import.chunk-topics:500}") int chunkTopics,
+                               @Value("${course.import.chunk-subtopics:5000}") int chunkSubtopics,
+                               @Value("${course.import.max-subtopics-per-topic:10000}") int maxSubtopicsPerTopic,
+                               @Value("${course.import.max-bytes:536870912}") long maxBytes,
+                               @Value("${course.import.failed-retention-hours:72}") long failedRetentionHours,
+                               @Value("${course.import.lease-ms:120000}") long leaseMillis) {
+        this.checkpointRepository = checkpointRepository;
+        this.courseRepository = courseRepository;
+        this.instructorApplicationRepository = instructorApplicationRepository;
+        this.currentUser = currentUser;
+        this.outlineJdbcRepository = outlineJdbcRepository;
+        this.outlineCache = outlineCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = Path.of(directory);
+        this.chunkTopics = chunkTopics;
+        this.chunkSubtopics = chunkSubtopics;
+        this.maxSubtopicsPerTopic = maxSubtopicsPerTopic;
+        this.maxBytes = maxBytes;
+        this.failedRetention = Duration.ofHours(failedRetentionHours);
+        this.lease = Duration.ofMillis(leaseMillis);
+    }
+
+    @Scheduled(fixedDelayString = "${course.import.heartbeat-ms:30000}")
+    public void renewLeases() {
+        if (active.isEmpty()) {
+            return;
+        }
+        List<String> running = List.copyOf(active);
+        transactionTemplate.executeWithoutResult(status -> checkpointRepository.touch(running, RUNNING, Instant.now()));
+    }
+
+    // Imports whose instance stopped without finishing them can only be resumed by hand
+    @Scheduled(initialDelayString = "${course.import.heartbeat-ms:30000}", fixedDelayString = "${course.import.heartbeat-ms:30000}")
+    public void failAbandonedImports() {
+        Instant now = Instant.now();
+        Integer abandoned = transactionTemplate.execute(status -> checkpointRepository.replaceStatusUpdatedBefore(
+                RUNNING, FAILED, "Interrupted before completing; resume the import to continue", now.minus(lease), now));
+        if (abandoned != null && abandoned > 0) {
+            logger.warn("Marked {} abandoned course imports as failed", abandoned);
+        }
+    }
+
+    /**
+     * Spools the package to disk and starts importing it in the background.
+     *
+     * @throws IllegalArgumentException when the package exceeds the configured maximum size
+     */
+    public CourseImportDTO startImport(InputStream body) throws IOException {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new AccessDeniedException("Only admins and instructors can import courses");
+        }
+        Long applicationId = null;
+        if (currentUser.hasRole("INSTRUCTOR")) {
+            applicationId = currentUser.getInstructorApplicationId()
+                    .orElseThrow(() -> new IllegalArgumentException("Instructor application not found for user: " + currentUser.getUsername()));
+        }
+
+        String id = UUID.randomUUID().toString();
+        Files.createDirectories(directory);
+        Path spool = spoolPath(id);
+        long size;
+        Instant now = Instant.now();
+        CourseImportCheckpoint checkpoint = new CourseImportCheckpoint();
+        try {
+            size = spool(body, spool);
+            checkpoint.setId(id);
+            checkpoint.setUsername(currentUser.getUsername());
+            checkpoint.setInstructorApplicationId(applicationId);
+            checkpoint.setTopicInstructorId(currentUser.isAdmin() ? null : currentUser.getId());
+            checkpoint.setStatus(RUNNING);
+            checkpoint.setBytesTotal(size);
+            checkpoint.setCreatedAt(now);
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        } catch (IOException | RuntimeException e) {
+            // Without a checkpoint the spool could never be resumed or cleaned up
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+
+        active.add(id);
+        launch(id);
+        logger.info("Started course import {} of {} bytes for {}", id, size, currentUser.getUsername());
+        return toDTO(checkpoint);
+    }
+
+    /**
+     * Restarts a failed import after its last committed chunk.
+     *
+     * @throws IllegalStateException when the import is not in a resumable state
+     */
+    public CourseImportDTO resume(String importId) {
+        CourseImportCheckpoint checkpoint = requireVisible(importId);
+        if (!FAILED.equals(checkpoint.getStatus())) {
+            throw new IllegalStateException("Only failed imports can be resumed; import is " + checkpoint.getStatus());
+        }
+        if (!Files.isRegularFile(spoolPath(importId))) {
+            throw new IllegalArgumentException("Package for import not found: " + importId);
+        }
+        if (!active.add(importId)) {
+            throw new IllegalStateException("Import is already running: " + importId);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    checkpointRepository.setStatus(importId, RUNNING, null, Instant.now()));
+        } catch (RuntimeException e) {
+            active.remove(importId);
+            throw e;
+        }
+        checkpoint.setStatus(RUNNING);
+        checkpoint.setError(null);
+        launch(importId);
+        logger.info("Resuming course import {} after {} topics", importId, checkpoint.getTopicsImported());
+        return toDTO(checkpoint);
+    }
+
+    public CourseImportDTO getImport(String importId) {
+        return toDTO(requireVisible(importId));
+    }
+
+    /**
+     * Deletes the packages of imports that failed longer ago than the retention period. The
+     * imports stay listed as failed but can no longer be resumed.
+     */
+    @Scheduled(fixedDelayString = "${course.import.cleanup-ms:3600000}")
+    public void deleteExpiredPackages() {
+        List<String> expired = checkpointRepository.findIdsByStatusUpdatedBefore(FAILED, Instant.now().minus(failedRetention));
+        int deleted = 0;
+        for (String importId : expired) {
+            // Claiming the import keeps a concurrent resume from starting on a vanishing file
+            if (!active.add(importId)) {
+                continue;
+            }
+            try {
+                if (Files.deleteIfExists(spoolPath(importId))) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to delete package of course import {}: {}", importId, e.getMessage());
+            } finally {
+                active.remove(importId);
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted packages of {} course imports that failed over {} hours ago", deleted, failedRetention.toHours());
+        }
+    }
+
+    // Copies the request body to the spool file, refusing it once it exceeds maxBytes
+    private long spool(InputStream body, Path spool) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(spool, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer)) >= 0) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException("Course package exceeds the maximum size of " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    // Callers must have claimed the import in the active set first
+    private void launch(String importId) {
+        Thread.ofVirtual().name("course-import-" + importId).start(() -> run(importId));
+    }
+
+    private void run(String importId) {
+        try {
+            CourseImportCheckpoint checkpoint = checkpointRepository.findById(importId)
+                    .orElseThrow(() -> new IllegalStateException("Import not found: " + importId));
+            importPackage(checkpoint);
+            transactionTemplate.executeWithoutResult(status ->
+                    checkpointRepository.setStatus(importId, COMPLETED, null, Instant.now()));
+            Files.deleteIfExists(spoolPath(importId));
+            logger.info("Completed course import {}", importId);
+        } catch (Exception e) {
+            logger.warn("Course import {} failed: {}", importId, e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        checkpointRepository.setStatus(importId, FAILED, e.getMessage(), Instant.now()));
+            } catch (RuntimeException statusError) {
+                logger.error("Failed to record failure of course import {}: {}", importId, statusError.getMessage());
+            }
+        } finally {
+            active.remove(importId);
+        }
+    }
+
+    private void importPackage(CourseImportCheckpoint checkpoint) throws IOException {
+        Long courseId = checkpoint.getCourseId();
+        try (JsonParser parser = objectMapper.createParser(Files.newInputStream(spoolPath(checkpoint.getId())))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Course package must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "course" -> {
+                        if (courseId == null) {
+                            courseId = createCourse(checkpoint, parser.readValueAs(CourseDTO.class));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "topics" -> {
+                        if (courseId == null) {
+                            throw new IllegalArgumentException("\"course\" must come before \"topics\" in the package");
+                        }
+                        importTopics(checkpoint, courseId, parser);
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        if (courseId == null) {
+            throw new IllegalArgumentException("Course package has no \"course\" object");
+        }
+    }
+
+    private Long createCourse(CourseImportCheckpoint checkpoint, CourseDTO dto) {
+        if (dto == null || dto.getTitle() == null || dto.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Course package must have a course title");
+        }
+        return transactionTemplate.execute(status -> {
+            Course course = new Course();
+            course.setTitle(dto.getTitle());
+            course.setBody(dto.getBody());
+            course.setImageUrl(dto.getImageUrl());
+            course.setPrice(dto.getPrice());
+            if (checkpoint.getInstructorApplicationId() != null) {
+                course.setInstructor(instructorApplicationRepository.getReferenceById(checkpoint.getInstructorApplicationId()));
+            }
+            Long courseId = courseRepository.save(course).getId();
+            checkpointRepository.setCourseId(checkpoint.getId(), courseId, Instant.now());
+            return courseId;
+        });
+    }
+
+    private void importTopics(CourseImportCheckpoint checkpoint, long courseId, JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("\"topics\" must be an array");
+        }
+        long skip = checkpoint.getTopicsImported();
+        List<PendingTopic> chunk = new ArrayList<>(chunkTopics);
+        int pendingSubtopics = 0;
+        long index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Topic " + index + " must be an object");
+            }
+            if (index < skip) {
+                parser.skipChildren();
+                index++;
+                continue;
+            }
+            PendingTopic topic = readTopic(parser, index);
+            chunk.add(topic);
+            pendingSubtopics += topic.subtopics().size();
+            index++;
+            if (chunk.size() >= chunkTopics || pendingSubtopics >= chunkSubtopics) {
+                flush(checkpoint, courseId, index - chunk.size(), chunk, parser.currentLocation().getByteOffset());
+                chunk.clear();
+                pendingSubtopics = 0;
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(checkpoint, courseId, index - chunk.size(), chunk, parser.currentLocation().getByteOffset());
+        }
+    }
+
+    private PendingTopic readTopic(JsonParser parser, long index) throws IOException {
+        String name = null;
+        List<PendingSubtopic> subtopics = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "topic" -> name = readText(parser, "Topic " + index + " name");
+                case "subtopics" -> readSubtopics(parser, index, subtopics);
+                default -> parser.skipChildren();
+            }
+        }
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Topic " + index + " has no name");
+        }
+        return new PendingTopic(name, subtopics);
+    }
+
+    private void readSubtopics(JsonParser parser, long topicIndex, List<PendingSubtopic> subtopics) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Subtopics of topic " + topicIndex + " must be an array");
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (subtopics.size() >= maxSubtopicsPerTopic) {
+                throw new IllegalArgumentException("Topic " + topicIndex + " has more than " + maxSubtopicsPerTopic + " subtopics");
+            }
+            String name = null;
+            String url = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> name = readText(parser, "Subtopic name");
+                    case "url" -> url = readText(parser, "Subtopic URL");
+                    default -> parser.skipChildren();
+                }
+            }
+            subtopics.add(new PendingSubtopic(name, url));
+        }
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new IllegalArgumentException("Subtopics of topic " + topicIndex + " must be objects");
+        }
+    }
+
+    private static String readText(JsonParser parser, String what) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new IllegalArgumentException(what + " must be a string");
+        }
+        return parser.getText();
+    }
+
+    private void flush(CourseImportCheckpoint checkpoint, long courseId, long firstIndex,
+                       List<PendingTopic> chunk, long bytesProcessed) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = outlineJdbcRepository.reserveTopicIds(chunk.size());
+            List<TopicRow> topics = new ArrayList<>(chunk.size());
+            List<SubtopicRow> subtopics = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                long topicId = ids.get(i);
+                PendingTopic topic = chunk.get(i);
+                topics.add(new TopicRow(topicId, topic.topic(), (firstIndex + i + 1) * OutlinePositions.GAP));
+                for (int j = 0; j < topic.subtopics().size(); j++) {
+                    PendingSubtopic subtopic = topic.subtopics().get(j);
+                    subtopics.add(new SubtopicRow(null, topicId, subtopic.name(), subtopic.url(),
+                            (j + 1) * OutlinePositions.GAP));
+                }
+            }
+            outlineJdbcRepository.insertTopics(courseId, checkpoint.getTopicInstructorId(), topics);
+            outlineJdbcRepository.insertSubtopics(subtopics);
+            checkpointRepository.advance(checkpoint.getId(), topics.size(), subtopics.size(), bytesProcessed, Instant.now());
+            outlineCache.invalidateAfterCommit(courseId);
+        });
+    }
+
+    private CourseImportCheckpoint requireVisible(String importId) {
+        CourseImportCheckpoint checkpoint = checkpointRepository.findById(importId)
+                .orElseThrow(() -> new IllegalArgumentException("Import not found: " + importId));
+        if (!currentUser.isAdmin() && !currentUser.getUsername().equals(checkpoint.getUsername())) {
+            throw new AccessDeniedException("You can only view your own imports");
+        }
+        return checkpoint;
+    }
+
+    private Path spoolPath(String importId) {
+        return directory.resolve(importId + ".json");
+    }
+
+    private CourseImportDTO toDTO(CourseImportCheckpoint checkpoint) {
+        CourseImportDTO dto = new CourseImportDTO();
+        dto.setId(checkpoint.getId());
+        dto.setStatus(checkpoint.getStatus());
+        dto.setCourseId(checkpoint.getCourseId());
+        dto.setTopicsImported(checkpoint.getTopicsImported());
+        dto.setSubtopicsImported(checkpoint.getSubtopicsImported());
+        dto.setBytesProcessed(checkpoint.getBytesProcessed());
+        dto.setBytesTotal(checkpoint.getBytesTotal());
+        dto.setError(checkpoint.getError());
+        dto.setCreatedAt(checkpoint.getCreatedAt());
+        dto.setUpdatedAt(checkpoint.getUpdatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.e_learning.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.e_learning.dto.CourseContentDTO;
+import com.example.e_learning.util.ETags;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialised course outlines keyed by course ID. Each course has a version that is bumped
+ * after every committed outline change; a cached entry is only served while its version is
+ * current, so a reader racing with an edit can never reinstate a stale outline.
+ */
+@Component
+public class CourseOutlineCache {
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, CachedOutline> outlines = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    public CourseOutlineCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public record CachedOutline(long version, String etag, byte[] json) {
+        public boolean matches(String ifNoneMatch) {
+            return ETags.matches(ifNoneMatch, etag);
+        }
+    }
+
+    public CachedOutline get(Long courseId, Supplier<List<CourseContentDTO>> loader) {
+        long version = versions.getOrDefault(courseId, 0L);
+        CachedOutline cached = outlines.get(courseId);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        CachedOutline loaded = serialize(version, loader.get());
+        outlines.merge(courseId, loaded, (current, candidate) ->
+                candidate.version() >= current.version() ? candidate : current);
+        return loaded;
+    }
+
+    /**
+     * Invalidates the course's outline once the surrounding transaction commits, or
+     * immediately when there is none.
+     */
+    public void invalidateAfterCommit(Long courseId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(courseId);
+                }
+            });
+        } else {
+            invalidate(courseId);
+        }
+    }
+
+    public void invalidate(Long courseId) {
+        versions.merge(courseId, 1L, Long::sum);
+        outlines.remove(courseId);
+    }
+
+    private CachedOutline serialize(long version, List<CourseContentDTO> outline) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(outline);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new CachedOutline(version, etag, json);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to serialize course outline: " + e.getMessage(), e);
+        }
+    }
+}
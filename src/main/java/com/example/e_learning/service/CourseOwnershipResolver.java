@@ -0,0 +1,123 @@
+package com.example.e_learning.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.repository.CourseContentRepository;
+import com.example.e_learning.repository.CourseRepository;
+
+/**
+ * In-memory index of course ownership for the content write paths: course ID to the user
+ * who owns it (through the course's instructor application) and topic ID to its course.
+ * A hit answers "may this user edit this course or topic" without touching the database;
+ * a miss loads the answer with one combined query.
+ *
+ * <p>{@link #invalidate} only reaches this instance, so owners are also kept for no longer
+ * than {@code course.ownership.ttl-seconds}: an instructor reassigned on another instance
+ * loses write access here within that time. A topic's course never changes, so topics are
+ * kept until deleted.
+ */
+@Component
+public class CourseOwnershipResolver {
+
+    // Course without an instructor; real user IDs start at 1
+    private static final long NO_OWNER = 0L;
+
+    private final CourseRepository courseRepository;
+    private final CourseContentRepository courseContentRepository;
+    private record Owner(long userId, long expiresAt) {
+    }
+
+    private final long ttlNanos;
+    private final ConcurrentHashMap<Long, Owner> courseOwners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> topicCourses = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CourseOwnershipResolver(CourseRepository courseRepository,
+                                   CourseContentRepository courseContentRepository,
+                                   @Value("${course.ownership.ttl-seconds:30}") long ttlSeconds) {
+        this.courseRepository = courseRepository;
+        this.courseContentRepository = courseContentRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Returns the ID of the user owning the course, or null when it has no instructor.
+     *
+     * @throws IllegalArgumentException when the course does not exist
+     */
+    public Long getOwner(Long courseId) {
+        Owner cached = courseOwners.get(courseId);
+        long owner;
+        if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+            owner = cached.userId();
+        } else {
+            long generation = invalidations.get();
+            List<Object[]> rows = courseRepository.findOwnerRowsById(courseId);
+            if (rows.isEmpty()) {
+                courseOwners.remove(courseId);
+                throw new IllegalArgumentException("Course not found: " + courseId);
+            }
+            owner = rows.get(0)[1] != null ? (Long) rows.get(0)[1] : NO_OWNER;
+            remember(generation, courseId, owner);
+        }
+        return owner == NO_OWNER ? null : owner;
+    }
+
+    public boolean isOwner(Long userId, Long courseId) {
+        return userId != null && userId.equals(getOwner(courseId));
+    }
+
+    /**
+     * Checks that the topic exists and belongs to the course, loading the topic's course and
+     * that course's owner together on a miss.
+     *
+     * @throws IllegalArgumentException when the topic does not exist or belongs elsewhere
+     */
+    public void requireTopicInCourse(Long courseId, Long topicId) {
+        Long topicCourse = topicCourses.get(topicId);
+        if (topicCourse == null) {
+            long generation = invalidations.get();
+            List<Object[]> rows = courseContentRepository.findOwnerRowsByTopicId(topicId);
+            if (rows.isEmpty()) {
+                throw new IllegalArgumentException("Topic not found: " + topicId);
+            }
+            topicCourse = (Long) rows.get(0)[0];
+            topicCourses.put(topicId, topicCourse);
+            remember(generation, topicCourse, rows.get(0)[1] != null ? (Long) rows.get(0)[1] : NO_OWNER);
+        }
+        if (!topicCourse.equals(courseId)) {
+            throw new IllegalArgumentException("Topic does not belong to the specified course");
+        }
+    }
+
+    /**
+     * Drops a course's owner, e.g. after its instructor changed or it was deleted.
+     */
+    public void invalidate(Long courseId) {
+        invalidations.incrementAndGet();
+        courseOwners.remove(courseId);
+    }
+
+    public void forgetCourse(Long courseId) {
+        invalidate(courseId);
+        topicCourses.values().removeIf(courseId::equals);
+    }
+
+    public void forgetTopics(Collection<Long> topicIds) {
+        topicIds.forEach(topicCourses::remove);
+    }
+
+    // An owner read before a concurrent invalidation must not be cached after it
+    private void remember(long generation, Long courseId, long owner) {
+        if (invalidations.get() == generation) {
+            courseOwners.put(courseId, new Owner(owner, System.nanoTime() + ttlNanos));
+        }
+    }
+}
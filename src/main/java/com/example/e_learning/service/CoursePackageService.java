@@ -0,0 +1,226 @@
+package com.example.e_learning.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.example.e_learning.entity.Course;
+import com.example.e_learning.repository.CourseRepository;
+import com.example.e_learning.repository.EnrollmentRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Offline course packages: a ZIP of the course metadata, its published outline (or its draft
+ * while it has never been published) and its locally stored image. A package is named after a
+ * hash of everything it contains, so each outline or metadata change yields a new file. The
+ * first download streams the ZIP to the client while teeing it to disk; later downloads send
+ * the cached file as is.
+ */
+@Service
+public class CoursePackageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoursePackageService.class);
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CurrentUser currentUser;
+    private final CourseService courseService;
+    private final OutlineSnapshotService outlineSnapshotService;
+    private final CourseOwnershipResolver ownershipResolver;
+    private final ObjectMapper objectMapper;
+    private final Path cacheDirectory;
+    private final Path imageDirectory;
+
+    public CoursePackageService(CourseRepository courseRepository,
+                                EnrollmentRepository enrollmentRepository,
+                                CurrentUser currentUser,
+                                CourseService courseService,
+                                OutlineSnapshotService outlineSnapshotService,
+                                CourseOwnershipResolver ownershipResolver,
+                                ObjectMapper objectMapper,
+                                @Value("${course.package.cache-dir:data/packages}") String cacheDirectory,
+                                @Value("${course.package.image-dir:data/images}") String imageDirectory) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.currentUser = currentUser;
+        this.courseService = courseService;
+        this.outlineSnapshotService = outlineSnapshotService;
+        this.ownershipResolver = ownershipResolver;
+        this.objectMapper = objectMapper;
+        this.cacheDirectory = Path.of(cacheDirectory);
+        this.imageDirectory = Path.of(imageDirectory).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Everything needed to write one version of a course's package. {@code cached} is the
+     * file the package lives in once it has been built.
+     */
+    public record PackagePlan(Long courseId, String key, Path cached, byte[] metadata, byte[] outline, Path image) {
+        public String etag() {
+            return "\"" + key + "\"";
+        }
+
+        public String filename() {
+            return "course-" + courseId + ".zip";
+        }
+
+        public boolean isCached() {
+            return Files.isRegularFile(cached);
+        }
+    }
+
+    /**
+     * Resolves the current package of a course for the calling user, who must be enrolled
+     * in it, own it, or be an admin.
+     */
+    public PackagePlan plan(Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
+        Long userId = currentUser.getId();
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(userId, courseId)
+                && enrollmentRepository.findByUserIdAndCourseId(userId, courseId).isEmpty()) {
+            throw new AccessDeniedException("Only enrolled learners can download this course");
+        }
+
+        byte[] metadata;
+        try {
+            metadata = objectMapper.writeValueAsBytes(courseService.convertToDTO(course));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize course: " + e.getMessage(), e);
+        }
+        CourseOutlineCache.CachedOutline outline = outlineSnapshotService.getLearnerOutline(courseId);
+        Path image = localImage(course.getImageUrl());
+
+        MessageDigest digest = sha256();
+        digest.update(metadata);
+        digest.update(outline.etag().getBytes(StandardCharsets.UTF_8));
+        if (image != null) {
+            try {
+                digest.update((image.getFileName() + ":" + Files.size(image) + ":" + Files.getLastModifiedTime(image).toMillis())
+                        .getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                image = null;
+            }
+        }
+        String key = HexFormat.of().formatHex(digest.digest(), 0, 16);
+        return new PackagePlan(courseId, key, cacheDirectory.resolve(courseId + "-" + key + ".zip"),
+                metadata, outline.json(), image);
+    }
+
+    /**
+     * Writes the package to {@code out} and, when it completes, publishes the same bytes as
+     * the cached package, replacing older versions for the course.
+     */
+    public void write(PackagePlan plan, OutputStream out) throws IOException {
+        Files.createDirectories(cacheDirectory);
+        Path temp = Files.createTempFile(cacheDirectory, plan.courseId() + "-", ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 ZipOutputStream zip = new ZipOutputStream(new TeeOutputStream(out, file))) {
+                zip.putNextEntry(new ZipEntry("course.json"));
+                zip.write(plan.metadata());
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry("outline.json"));
+                zip.write(plan.outline());
+                zip.closeEntry();
+                if (plan.image() != null) {
+                    // Images are already compressed; deflating them again only costs CPU
+                    zip.setLevel(Deflater.NO_COMPRESSION);
+                    zip.putNextEntry(new ZipEntry("images/" + plan.image().getFileName()));
+                    Files.copy(plan.image(), zip);
+                    zip.closeEntry();
+                }
+            }
+            Files.move(temp, plan.cached(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            removeOlderVersions(plan);
+        } finally {
+            // Only left behind when the client went away or writing failed
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void removeOlderVersions(PackagePlan plan) {
+        try (DirectoryStream<Path> packages = Files.newDirectoryStream(cacheDirectory, plan.courseId() + "-*.zip")) {
+            for (Path stale : packages) {
+                if (!stale.equals(plan.cached())) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to remove old packages of course {}: {}", plan.courseId(), e.getMessage());
+        }
+    }
+
+    // Remote images are referenced from course.json only; relative paths are looked up locally
+    private Path localImage(String imageUrl) {
+        if (imageUrl == null || imageUrl.isBlank() || imageUrl.contains("://") || imageUrl.startsWith("data:")) {
+            return null;
+        }
+        Path image = imageDirectory.resolve(imageUrl).normalize();
+        if (!image.startsWith(imageDirectory) || !Files.isRegularFile(image)) {
+            return null;
+        }
+        return image;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Copies everything written to the client into the cache file as well
+    private static final class TeeOutputStream extends FilterOutputStream {
+        private final OutputStream branch;
+
+        TeeOutputStream(OutputStream out, OutputStream branch) {
+            super(out);
+            this.branch = branch;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            branch.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            branch.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+            branch.flush();
+        }
+
+        // The response stream belongs to the container; only the cache file is closed here
+        @Override
+        public void close() throws IOException {
+            out.flush();
+            branch.close();
+        }
+    }
+}
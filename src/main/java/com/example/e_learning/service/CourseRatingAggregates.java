@@ -0,0 +1,78 @@
+package com.example.e_learning.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.repository.FeedbackRepository;
+
+/**
+ * In-memory per-course rating count and sum, so the average rating can be served
+ * without an AVG query. Write paths push deltas; entries are reloaded from the
+ * database once they are older than the configured TTL to bound any drift.
+ */
+@Component
+public class CourseRatingAggregates {
+
+    private final FeedbackRepository feedbackRepository;
+    private final ConcurrentHashMap<Long, RatingTotals> totals = new ConcurrentHashMap<>();
+
+    @Value("${feedback.aggregates.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public CourseRatingAggregates(FeedbackRepository feedbackRepository) {
+        this.feedbackRepository = feedbackRepository;
+    }
+
+    private record RatingTotals(long count, long sum, long loadedAt) {
+        RatingTotals plus(long countDelta, long sumDelta) {
+            return new RatingTotals(Math.max(0, count + countDelta), sum + sumDelta, loadedAt);
+        }
+    }
+
+    public Double getAverage(Long courseId) {
+        RatingTotals current = totals.get(courseId);
+        if (current == null || System.currentTimeMillis() - current.loadedAt() > ttlSeconds * 1000) {
+            current = load(courseId);
+        }
+        return current.count() == 0 ? null : (double) current.sum() / current.count();
+    }
+
+    public void apply(Long courseId, long countDelta, long sumDelta) {
+        if (courseId == null) {
+            return;
+        }
+        totals.computeIfPresent(courseId, (id, current) -> current.plus(countDelta, sumDelta));
+    }
+
+    public void added(Long courseId, Integer rating) {
+        if (rating != null) {
+            apply(courseId, 1, rating);
+        }
+    }
+
+    public void removed(Long courseId, Integer rating) {
+        if (rating != null) {
+            apply(courseId, -1, -rating);
+        }
+    }
+
+    public void invalidate(Long courseId) {
+        totals.remove(courseId);
+    }
+
+    private RatingTotals load(Long courseId) {
+        List<Object[]> rows = feedbackRepository.findRatingTotalsByCourseId(courseId);
+        long count = 0;
+        long sum = 0;
+        if (!rows.isEmpty() && rows.get(0).length >= 2) {
+            count = rows.get(0)[0] != null ? ((Number) rows.get(0)[0]).longValue() : 0;
+            sum = rows.get(0)[1] != null ? ((Number) rows.get(0)[1]).longValue() : 0;
+        }
+        RatingTotals loaded = new RatingTotals(count, sum, System.currentTimeMillis());
+        totals.put(courseId, loaded);
+        return loaded;
+    }
+}
@@ -1,18 +1,19 @@
 package com.example.e_learning.service;
 
+import com.example.e_learning.dto.AudienceEstimateDTO;
 import com.example.e_learning.dto.CourseDTO;
 import com.example.e_learning.dto.HighestEnrollmentDTO;
 import com.example.e_learning.dto.InstructorHighestEnrollmentDTO;
 import com.example.e_learning.entity.Course;
 import com.example.e_learning.entity.InstructorApplication;
 import com.example.e_learning.entity.User;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
 import com.example.e_learning.repository.CourseRepository;
 import com.example.e_learning.repository.EnrollmentRepository;
 import com.example.e_learning.repository.InstructorApplicationRepository;
-import com.example.e_learning.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,39 +24,40 @@ import java.util.stream.Collectors;
 public class CourseService {
 
     @Autowired private CourseRepository courseRepository;
-    @Autowired private UserRepository userRepository;
     @Autowired private InstructorApplicationRepository instructorApplicationRepository;
     @Autowired private EnrollmentRepository enrollmentRepository;
+    @Autowired private CourseAudienceSketches audienceSketches;
+    @Autowired private CourseOutlineCache outlineCache;
+    @Autowired private OutlineSnapshotService outlineSnapshotService;
+    @Autowired private CourseOwnershipResolver ownershipResolver;
+    @Autowired private CourseOutlineJdbcRepository outlineJdbcRepository;
+    @Autowired private CurrentUser currentUser;
 
     private static final Logger logger = LoggerFactory.getLogger(CourseService.class);
 
+    public record CloneResult(Long courseId, long topics, long subtopics) {
+    }
+
     public List<CourseDTO> getAllCourses() {
         List<Course> courses = courseRepository.findAll();
         return courses.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
     public List<CourseDTO> getCoursesByInstructor() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-        if (!user.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("User is not an instructor");
         }
-        InstructorApplication instructorApp = instructorApplicationRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new IllegalStateException("Instructor application not found for user: " + username));
-        List<Course> courses = courseRepository.findByInstructorId(instructorApp.getId());
+        Long instructorId = currentUser.getInstructorApplicationId()
+                .orElseThrow(() -> new IllegalStateException("Instructor application not found for user: " + currentUser.getUsername()));
+        List<Course> courses = courseRepository.findByInstructorId(instructorId);
         if (courses.isEmpty()) {
-            throw new IllegalStateException("No courses found for instructor application ID: " + instructorApp.getId());
+            throw new IllegalStateException("No courses found for instructor application ID: " + instructorId);
         }
         return courses.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
     public Course createCourse(CourseDTO courseDTO) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-
-        if (!user.getRole().equals("ADMIN") && !user.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("Only admins and instructors can create courses");
         }
 
@@ -66,19 +68,15 @@ public class CourseService {
         course.setPrice(courseDTO.getPrice());
 
         // If user is an instructor, they must provide their own instructorId
-        if (user.getRole().equals("INSTRUCTOR")) {
+        if (currentUser.hasRole("INSTRUCTOR")) {
             if (courseDTO.getInstructorId() == null) {
                 throw new IllegalArgumentException("Instructor ID is required for instructors");
             }
-
-            InstructorApplication instructorApp = instructorApplicationRepository.findById(courseDTO.getInstructorId())
-                    .orElseThrow(() -> new IllegalStateException("Instructor application not found: " + courseDTO.getInstructorId()));
-
-            if (!instructorApp.getUser().getId().equals(user.getId())) {
+            if (!courseDTO.getInstructorId().equals(currentUser.getInstructorApplicationId().orElse(null))) {
                 throw new IllegalStateException("Instructor application does not belong to the authenticated user");
             }
 
-            course.setInstructor(instructorApp);
+            course.setInstructor(instructorApplicationRepository.getReferenceById(courseDTO.getInstructorId()));
         }
 
         // Admins should not set instructor; ignore instructorId if present
@@ -86,10 +84,7 @@ public class CourseService {
     }
 
     public void setCourseInstructor(Long courseId, Long instructorId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-        if (!user.getRole().equals("ADMIN")) {
+        if (!currentUser.isAdmin()) {
             throw new IllegalStateException("Only admins can set course instructors");
         }
         Course course = courseRepository.findById(courseId)
@@ -101,21 +96,16 @@ public class CourseService {
                 .orElseThrow(() -> new IllegalStateException("Instructor application not found: " + instructorId));
         course.setInstructor(instructorApp);
         courseRepository.save(course);
+        ownershipResolver.invalidate(courseId);
     }
 
     public void updateCourse(Long courseId, CourseDTO courseDTO) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
+            throw new IllegalStateException("Access denied: you can only update your own courses");
+        }
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        if (!user.getRole().equals("ADMIN")) {
-            InstructorApplication instructorApp = instructorApplicationRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new IllegalStateException("Instructor application not found for user: " + username));
-            if (course.getInstructor() == null || !course.getInstructor().getId().equals(instructorApp.getId())) {
-                throw new IllegalStateException("Access denied: you can only update your own courses");
-            }
-        }
         course.setTitle(courseDTO.getTitle());
         course.setBody(courseDTO.getBody());
         course.setImageUrl(courseDTO.getImageUrl());
@@ -124,19 +114,37 @@ public class CourseService {
     }
 
     public void deleteCourse(Long courseId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
-        if (!user.getRole().equals("ADMIN")) {
-            InstructorApplication instructorApp = instructorApplicationRepository.findByUserId(user.getId())
-                    .orElseThrow(() -> new IllegalStateException("Instructor application not found for user: " + username));
-            if (course.getInstructor() == null || !course.getInstructor().getId().equals(instructorApp.getId())) {
-                throw new IllegalStateException("Access denied: you can only delete your own courses");
-            }
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
+            throw new IllegalStateException("Access denied: you can only delete your own courses");
         }
         courseRepository.deleteById(courseId);
+        ownershipResolver.forgetCourse(courseId);
+        audienceSketches.invalidate(courseId);
+        outlineCache.invalidate(courseId);
+        outlineSnapshotService.forgetCourse(courseId);
+    }
+
+    /**
+     * Copies a course with its whole outline using a fixed number of set-based statements,
+     * so the cost does not grow with round trips per topic or subtopic.
+     */
+    @Transactional
+    public CloneResult cloneCourse(Long courseId, String title) {
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
+            throw new IllegalStateException("Access denied: you can only clone your own courses");
+        }
+
+        Long cloneId = outlineJdbcRepository.cloneCourse(courseId, title == null || title.isBlank() ? null : title.trim());
+        if (cloneId == null) {
+            throw new IllegalArgumentException("Course not found: " + courseId);
+        }
+        CourseOutlineJdbcRepository.ClonedOutline outline = outlineJdbcRepository.cloneOutline(
+                courseId, cloneId, currentUser.isAdmin() ? null : currentUser.getId());
+        logger.info("Cloned course {} into {} with {} topics and {} subtopics",
+                courseId, cloneId, outline.topics(), outline.subtopics());
+        return new CloneResult(cloneId, outline.topics(), outline.subtopics());
     }
     
 
@@ -263,4 +271,27 @@ public class CourseService {
 
         return dtos;
     }
-}
\ No newline at end of file
+
+    public AudienceEstimateDTO getInstructorAudience(Long instructorId) {
+        if (!instructorApplicationRepository.existsById(instructorId)) {
+            throw new IllegalArgumentException("Instructor not found: " + instructorId);
+        }
+        AudienceEstimateDTO dto = estimateAudience(courseRepository.findIdsByInstructorId(instructorId));
+        dto.setInstructorId(instructorId);
+        return dto;
+    }
+
+    public AudienceEstimateDTO getGlobalAudience() {
+        return estimateAudience(courseRepository.findAllIds());
+    }
+
+    private AudienceEstimateDTO estimateAudience(List<Long> courseIds) {
+        CourseAudienceSketches.Estimate estimate = audienceSketches.estimate(courseIds);
+        AudienceEstimateDTO dto = new AudienceEstimateDTO();
+        dto.setCourseCount(courseIds.size());
+        dto.setUniqueLearners(estimate.learners());
+        dto.setUniqueReviewers(estimate.reviewers());
+        dto.setRelativeError(estimate.relativeError());
+        return dto;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.e_learning.service;
+
+import java.util.Optional;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.example.e_learning.entity.InstructorApplication;
+import com.example.e_learning.entity.User;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.example.e_learning.repository.UserRepository;
+
+/**
+ * The authenticated caller of the current request. ID, role and instructor application ID
+ * come from the verified token, so they cost no query; the entities themselves are loaded
+ * on first use and reused for the rest of the request. Tokens issued before these claims
+ * existed fall back to a lookup by username.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+    private final InstructorApplicationRepository instructorApplicationRepository;
+
+    private User user;
+    private Optional<InstructorApplication> instructorApplication;
+
+    public CurrentUser(UserRepository userRepository, InstructorApplicationRepository instructorApplicationRepository) {
+        this.userRepository = userRepository;
+        this.instructorApplicationRepository = instructorApplicationRepository;
+    }
+
+    public String getUsername() {
+        return authentication().getName();
+    }
+
+    public Long getId() {
+        JwtService.JwtPrincipal principal = principal();
+        return principal != null && principal.userId() != null ? principal.userId() : getUser().getId();
+    }
+
+    /**
+     * The role without its {@code ROLE_} prefix, e.g. {@code ADMIN}.
+     */
+    public String getRole() {
+        JwtService.JwtPrincipal principal = principal();
+        if (principal == null || principal.role() == null) {
+            return getUser().getRole();
+        }
+        return principal.role().startsWith("ROLE_") ? principal.role().substring(5) : principal.role();
+    }
+
+    public boolean hasRole(String role) {
+        return role.equals(getRole());
+    }
+
+    public boolean isAdmin() {
+        return hasRole("ADMIN");
+    }
+
+    public User getUser() {
+        if (user == null) {
+            JwtService.JwtPrincipal principal = principal();
+            String username = getUsername();
+            user = (principal != null && principal.userId() != null
+                    ? userRepository.findById(principal.userId())
+                    : userRepository.findByUsername(username))
+                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        }
+        return user;
+    }
+
+    public Optional<Long> getInstructorApplicationId() {
+        JwtService.JwtPrincipal principal = principal();
+        if (principal != null && principal.instructorApplicationId() != null) {
+            return Optional.of(principal.instructorApplicationId());
+        }
+        return getInstructorApplication().map(InstructorApplication::getId);
+    }
+
+    public Optional<InstructorApplication> getInstructorApplication() {
+        if (instructorApplication == null) {
+            instructorApplication = instructorApplicationRepository.findByUserId(getId());
+        }
+        return instructorApplication;
+    }
+
+    private static Authentication authentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new IllegalStateException("No authenticated user");
+        }
+        return authentication;
+    }
+
+    private static JwtService.JwtPrincipal principal() {
+        return authentication().getPrincipal() instanceof JwtService.JwtPrincipal principal ? principal : null;
+    }
+}
@@ -27,6 +27,12 @@ public class EnrollmentService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private CourseAudienceSketches audienceSketches;
+
+    @Autowired
+    private CurrentUser currentUser;
+
     public void enrollUserToCourse(String username, Long courseId) {
         if (username == null || username.isEmpty()) {
             throw new IllegalArgumentException("Username is required");
@@ -36,21 +42,20 @@ public class EnrollmentService {
             throw new IllegalArgumentException("Valid course ID is required");
         }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new IllegalArgumentException("Course not found: " + courseId));
 
-        Optional<Enrollment> existing = enrollmentRepository.findByUserIdAndCourseId(user.getId(), course.getId());
+        Long userId = currentUser.getId();
+        Optional<Enrollment> existing = enrollmentRepository.findByUserIdAndCourseId(userId, course.getId());
         if (existing.isPresent()) {
             throw new IllegalStateException("User is already enrolled in course: " + course.getTitle());
         }
 
         Enrollment enrollment = new Enrollment();
-        enrollment.setUser(user);
+        enrollment.setUser(userRepository.getReferenceById(userId));
         enrollment.setCourse(course);
         enrollmentRepository.save(enrollment);
+        audienceSketches.learnerAdded(course.getId(), userId);
     }
 
     public List<EnrollmentDTO> getEnrollmentsByUserId(Long userId) {
@@ -0,0 +1,435 @@
+package com.example.e_learning.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.e_learning.dto.FeedbackDTO;
+import com.example.e_learning.repository.FeedbackJdbcRepository;
+import com.example.e_learning.repository.FeedbackJdbcRepository.FeedbackRow;
+import com.example.e_learning.repository.FeedbackJdbcRepository.UpsertResult;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous feedback submission. Requests are validated, journaled and queued on the
+ * request thread; a single drainer thread resolves users and courses for a whole batch,
+ * upserts it with one set-based statement and applies rating aggregate deltas once per batch.
+ *
+ * <p>Journal appends are group-committed: submitters write their record under the journal
+ * lock, then wait outside it for an fsync, and whichever of them finds no fsync in progress
+ * issues one that covers every record written so far.
+ */
+@Service
+@DependsOn("feedbackConstraintMigration")
+public class FeedbackIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackIngestionService.class);
+    private static final int MAX_COMMENT_LENGTH = 255;
+    private static final int TRACKED_SUBMISSIONS = 10_000;
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    public enum Status { QUEUED, COMMITTED, REJECTED }
+
+    public record PendingFeedback(String trackingId, String username, Long courseId, Integer rating, String comments) {
+    }
+
+    public record Tracking(String username, Status status, String message) {
+    }
+
+    private record ReviewKey(long userId, long courseId) {
+    }
+
+    private final FeedbackJdbcRepository feedbackJdbcRepository;
+    private final CourseRatingAggregates ratingAggregates;
+    private final FeedbackSearchIndex searchIndex;
+    private final CourseAudienceSketches audienceSketches;
+    private final TransactionTemplate transactionTemplate;
+    private final CurrentUser currentUser;
+
+    @Value("${feedback.ingestion.async:true}")
+    private boolean enabled;
+
+    @Value("${feedback.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${feedback.ingestion.batch-size:200}")
+    private int batchSize;
+
+    @Value("${feedback.ingestion.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${feedback.ingestion.journal-path:data/feedback-journal.log}")
+    private String journalPath;
+
+    @Value("${feedback.ingestion.journal-fsync:true}")
+    private boolean journalFsync;
+
+    private final Object journalLock = new Object();
+    private final Object syncMonitor = new Object();
+    private final Deque<PendingFeedback> backlog = new ArrayDeque<>();
+    private final Map<String, Tracking> tracking = Collections.synchronizedMap(
+            new LinkedHashMap<String, Tracking>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Tracking> eldest) {
+                    return size() > TRACKED_SUBMISSIONS;
+                }
+            });
+
+    private BlockingQueue<PendingFeedback> queue;
+    private FeedbackJournal journal;
+    private int outstanding;
+    // Journaled entries waiting for their fsync before they join the queue; guarded by journalLock
+    private int reserved;
+    private long appendedSeq;
+    // Guarded by syncMonitor
+    private long durableSeq;
+    private boolean syncing;
+    private volatile boolean running;
+    private Thread drainer;
+
+    public FeedbackIngestionService(FeedbackJdbcRepository feedbackJdbcRepository,
+                                    CourseRatingAggregates ratingAggregates,
+                                    FeedbackSearchIndex searchIndex,
+                                    CourseAudienceSketches audienceSketches,
+                                    TransactionTemplate transactionTemplate,
+                                    CurrentUser currentUser) {
+        this.feedbackJdbcRepository = feedbackJdbcRepository;
+        this.ratingAggregates = ratingAggregates;
+        this.searchIndex = searchIndex;
+        this.audienceSketches = audienceSketches;
+        this.transactionTemplate = transactionTemplate;
+        this.currentUser = currentUser;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        journal = new FeedbackJournal(Path.of(journalPath), journalFsync);
+        List<PendingFeedback> replayed = journal.open();
+        replayed.forEach(entry -> tracking.put(entry.trackingId(), new Tracking(entry.username(), Status.QUEUED, null)));
+        backlog.addAll(replayed);
+        outstanding = replayed.size();
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "feedback-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (drainer == null) {
+            return;
+        }
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(10));
+        synchronized (journalLock) {
+            journal.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Validates and queues a submission, returning its tracking ID.
+     *
+     * @throws RejectedExecutionException when the queue is full and the caller should retry later
+     */
+    public String enqueue(FeedbackDTO feedbackDTO) {
+        if (feedbackDTO.getCourseId() == null) {
+            throw new IllegalArgumentException("Course ID cannot be null");
+        }
+        if (feedbackDTO.getRating() == null) {
+            throw new IllegalArgumentException("Rating cannot be null");
+        }
+        if (feedbackDTO.getUsername() == null || feedbackDTO.getUsername().isBlank()) {
+            throw new IllegalArgumentException("Username cannot be empty");
+        }
+        if (feedbackDTO.getComments() != null && feedbackDTO.getComments().length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("Comments cannot exceed " + MAX_COMMENT_LENGTH + " characters");
+        }
+
+        PendingFeedback entry = new PendingFeedback(UUID.randomUUID().toString(), feedbackDTO.getUsername(),
+                feedbackDTO.getCourseId(), feedbackDTO.getRating(), feedbackDTO.getComments());
+        tracking.put(entry.trackingId(), new Tracking(entry.username(), Status.QUEUED, null));
+        long seq;
+        synchronized (journalLock) {
+            if (queue.remainingCapacity() <= reserved) {
+                tracking.remove(entry.trackingId());
+                throw new RejectedExecutionException("Feedback queue is full, please retry later");
+            }
+            try {
+                journal.append(entry);
+            } catch (IOException e) {
+                tracking.remove(entry.trackingId());
+                throw new IllegalStateException("Failed to journal feedback: " + e.getMessage(), e);
+            }
+            // Counted from the write on, so the journal is never truncated under an unsynced record
+            outstanding++;
+            reserved++;
+            seq = ++appendedSeq;
+        }
+        try {
+            awaitDurable(seq);
+        } catch (IOException e) {
+            tracking.remove(entry.trackingId());
+            synchronized (journalLock) {
+                reserved--;
+            }
+            // Not acknowledged, so it must not be replayed either
+            journalCommit(List.of(entry));
+            throw new IllegalStateException("Failed to journal feedback: " + e.getMessage(), e);
+        }
+        synchronized (journalLock) {
+            reserved--;
+            queue.add(entry);
+        }
+        return entry.trackingId();
+    }
+
+    /**
+     * Returns once the journal record with the given sequence number is on disk. The first
+     * caller to find no fsync running issues one for every record appended so far; the others
+     * wait for it, and only issue another if theirs was appended after it started.
+     */
+    private void awaitDurable(long seq) throws IOException {
+        synchronized (syncMonitor) {
+            while (durableSeq < seq && syncing) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the feedback journal", e);
+                }
+            }
+            if (durableSeq >= seq) {
+                return;
+            }
+            syncing = true;
+        }
+        long target;
+        synchronized (journalLock) {
+            target = appendedSeq;
+        }
+        boolean synced = false;
+        try {
+            journal.sync();
+            synced = true;
+        } finally {
+            synchronized (syncMonitor) {
+                syncing = false;
+                if (synced) {
+                    durableSeq = Math.max(durableSeq, target);
+                }
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the status of a submission made by the current user, or by anyone for admins.
+     * Other users get {@code null}, as for an unknown ID, so tracking IDs reveal nothing.
+     */
+    public Tracking getTracking(String trackingId) {
+        Tracking submission = tracking.get(trackingId);
+        if (submission == null || currentUser.isAdmin() || currentUser.getUsername().equals(submission.username())) {
+            return submission;
+        }
+        return null;
+    }
+
+    private void drainLoop() {
+        List<PendingFeedback> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                fillBatch(batch);
+                if (!batch.isEmpty()) {
+                    commitWithRetry(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error in feedback drainer: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingFeedback> batch) throws InterruptedException {
+        while (!backlog.isEmpty() && batch.size() < batchSize) {
+            batch.add(backlog.poll());
+        }
+        if (batch.isEmpty()) {
+            PendingFeedback first = queue.poll(500, TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        if (batch.size() < batchSize && lingerMs > 0) {
+            Thread.sleep(lingerMs);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /**
+     * Commits the batch, retrying transient failures until it succeeds or the service stops.
+     * Entries still unprocessed at shutdown stay in the journal and are replayed on restart.
+     */
+    private void commitWithRetry(List<PendingFeedback> batch) throws InterruptedException {
+        long backoff = 100;
+        while (running) {
+            try {
+                processBatch(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Feedback batch of {} rejected, retrying row by row: {}", batch.size(), e.getMessage());
+                commitRowByRow(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to commit feedback batch of {}, retrying in {} ms: {}",
+                        batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    // Rejects only the rows that violate a constraint; any other failure retries the same row
+    private void commitRowByRow(List<PendingFeedback> batch) throws InterruptedException {
+        for (PendingFeedback entry : batch) {
+            long backoff = 100;
+            while (true) {
+                try {
+                    processBatch(List.of(entry));
+                    break;
+                } catch (DataIntegrityViolationException rowError) {
+                    reject(entry, "Invalid feedback: " + rowError.getMostSpecificCause().getMessage());
+                    journalCommit(List.of(entry));
+                    break;
+                } catch (RuntimeException rowError) {
+                    if (!running) {
+                        return;
+                    }
+                    logger.error("Failed to commit feedback {}, retrying in {} ms: {}",
+                            entry.trackingId(), backoff, rowError.getMessage());
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+                }
+            }
+        }
+    }
+
+    private void processBatch(List<PendingFeedback> batch) {
+        Set<String> usernames = batch.stream().map(PendingFeedback::username).collect(Collectors.toSet());
+        Set<Long> courseIds = batch.stream().map(PendingFeedback::courseId).collect(Collectors.toSet());
+        Map<String, Long> userIds = feedbackJdbcRepository.findUserIdsByUsername(usernames);
+        Set<Long> existingCourses = feedbackJdbcRepository.findExistingCourseIds(courseIds);
+
+        List<PendingFeedback> accepted = new ArrayList<>(batch.size());
+        Map<ReviewKey, FeedbackRow> rows = new LinkedHashMap<>();
+        for (PendingFeedback entry : batch) {
+            Long userId = userIds.get(entry.username());
+            if (userId == null) {
+                reject(entry, "User not found with username: " + entry.username());
+            } else if (!existingCourses.contains(entry.courseId())) {
+                reject(entry, "Course not found with ID: " + entry.courseId());
+            } else {
+                accepted.add(entry);
+                // A later submission for the same course in this batch replaces the earlier one
+                rows.put(new ReviewKey(userId, entry.courseId()),
+                        new FeedbackRow(userId, entry.courseId(), entry.rating(), entry.comments()));
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            List<FeedbackRow> unique = new ArrayList<>(rows.values());
+            List<UpsertResult> results = transactionTemplate.execute(status -> feedbackJdbcRepository.upsertBatch(unique));
+            Map<Long, long[]> deltas = new HashMap<>();
+            Set<Long> reload = new HashSet<>();
+            for (UpsertResult result : results) {
+                FeedbackRow row = rows.get(new ReviewKey(result.userId(), result.courseId()));
+                searchIndex.index(result.id(), row.courseId(), row.rating(), row.comments());
+                audienceSketches.reviewerAdded(result.courseId(), result.userId());
+                if (result.previousUnknown()) {
+                    reload.add(row.courseId());
+                    continue;
+                }
+                long[] delta = deltas.computeIfAbsent(row.courseId(), id -> new long[2]);
+                delta[0] += result.replaced() ? 0 : 1;
+                delta[1] += row.rating() - (result.previousRating() == null ? 0 : result.previousRating());
+            }
+            deltas.forEach((courseId, delta) -> {
+                if (!reload.contains(courseId)) {
+                    ratingAggregates.apply(courseId, delta[0], delta[1]);
+                }
+            });
+            reload.forEach(ratingAggregates::invalidate);
+        }
+        accepted.forEach(entry -> tracking.put(entry.trackingId(), new Tracking(entry.username(), Status.COMMITTED, null)));
+        journalCommit(batch);
+        logger.debug("Committed feedback batch: {} accepted, {} rejected", accepted.size(), batch.size() - accepted.size());
+    }
+
+    private void reject(PendingFeedback entry, String message) {
+        logger.warn("Rejected feedback {}: {}", entry.trackingId(), message);
+        tracking.put(entry.trackingId(), new Tracking(entry.username(), Status.REJECTED, message));
+    }
+
+    private void journalCommit(List<PendingFeedback> entries) {
+        long seq;
+        synchronized (journalLock) {
+            outstanding -= entries.size();
+            try {
+                if (outstanding == 0) {
+                    journal.truncate();
+                    return;
+                }
+                journal.appendCommits(entries);
+                seq = ++appendedSeq;
+            } catch (IOException e) {
+                logger.error("Failed to record feedback journal commit: {}", e.getMessage());
+                return;
+            }
+        }
+        try {
+            awaitDurable(seq);
+        } catch (IOException e) {
+            logger.error("Failed to sync feedback journal commit: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.e_learning.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.example.e_learning.service.FeedbackIngestionService.PendingFeedback;
+
+/**
+ * Append-only local journal backing the feedback ingestion queue. Every accepted
+ * submission is written as an {@code E} line before it becomes visible to the drainer,
+ * and a {@code C} line is appended once its batch has been committed. Entries without
+ * a commit record are replayed on startup.
+ *
+ * <p>Appends only write; callers make them durable with {@link #sync}, so one fsync can
+ * cover every record appended by concurrent submitters since the previous one.
+ */
+public class FeedbackJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackJournal.class);
+    private static final String NULL_FIELD = "-";
+
+    private final Path path;
+    private final boolean fsync;
+    private FileChannel channel;
+
+    public FeedbackJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Opens the journal, returning uncommitted entries in submission order. The file is
+     * compacted to just those entries before new appends are accepted.
+     */
+    public List<PendingFeedback> open() throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Map<String, PendingFeedback> pending = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    if (fields.length == 6 && "E".equals(fields[0])) {
+                        pending.put(fields[1], new PendingFeedback(fields[1], decode(fields[2]),
+                                Long.valueOf(fields[3]), NULL_FIELD.equals(fields[4]) ? null : Integer.valueOf(fields[4]),
+                                decode(fields[5])));
+                    } else if (fields.length == 2 && "C".equals(fields[0])) {
+                        pending.remove(fields[1]);
+                    } else if (!line.isEmpty()) {
+                        logger.warn("Skipping malformed feedback journal line: {}", line);
+                    }
+                }
+            }
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        pending.values().forEach(entry -> content.append(enqueueRecord(entry)));
+        Files.writeString(compacted, content, StandardCharsets.UTF_8);
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (!pending.isEmpty()) {
+            logger.info("Replaying {} uncommitted feedback submissions from {}", pending.size(), path);
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    public void append(PendingFeedback entry) throws IOException {
+        write(enqueueRecord(entry));
+    }
+
+    public void appendCommits(Collection<PendingFeedback> entries) throws IOException {
+        StringBuilder records = new StringBuilder();
+        entries.forEach(entry -> records.append("C\t").append(entry.trackingId()).append('\n'));
+        write(records.toString());
+    }
+
+    /**
+     * Forces everything appended so far to disk, when fsync is enabled.
+     */
+    public void sync() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    public void truncate() throws IOException {
+        channel.truncate(0);
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void write(String records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String enqueueRecord(PendingFeedback entry) {
+        return "E\t" + entry.trackingId() + '\t' + encode(entry.username()) + '\t' + entry.courseId() + '\t'
+                + (entry.rating() != null ? entry.rating() : NULL_FIELD) + '\t' + encode(entry.comments()) + '\n';
+    }
+
+    private static String encode(String value) {
+        return value == null ? NULL_FIELD : Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String value) {
+        return NULL_FIELD.equals(value) ? null : new String(Base64.getDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
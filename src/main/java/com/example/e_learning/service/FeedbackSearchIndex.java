@@ -0,0 +1,386 @@
+package com.example.e_learning.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+import com.example.e_learning.dto.FeedbackSearchResultDTO;
+import com.example.e_learning.repository.FeedbackJdbcRepository;
+import com.example.e_learning.repository.FeedbackJdbcRepository.FeedbackDocumentRow;
+
+/**
+ * In-memory positional inverted index over {@code Feedback.comments}. It is kept up to
+ * date by the feedback write paths and can be rebuilt from a streaming table scan, with
+ * tokenization of scanned chunks running in parallel.
+ */
+@Component
+public class FeedbackSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackSearchIndex.class);
+    private static final int REBUILD_CHUNK_SIZE = 2_000;
+    private static final int REBUILD_FETCH_SIZE = 1_000;
+    private static final int MAX_QUERY_TERMS = 16;
+
+    private final FeedbackJdbcRepository feedbackJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private Map<Long, Doc> docs = new HashMap<>();
+    private Map<String, Map<Long, int[]>> postings = new HashMap<>();
+    private List<Runnable> replayLog;
+
+    public FeedbackSearchIndex(FeedbackJdbcRepository feedbackJdbcRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.feedbackJdbcRepository = feedbackJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * An indexed comment. {@code offsets} holds the start and end character offset of
+     * every token, so token position {@code p} spans {@code offsets[2p]..offsets[2p+1]}.
+     */
+    private record Doc(long id, long courseId, Integer rating, String comments, int[] offsets,
+                       Map<String, int[]> positions) {
+    }
+
+    private record Segment(Map<Long, Doc> docs, Map<String, Map<Long, int[]>> postings) {
+        static Segment of(List<FeedbackDocumentRow> rows) {
+            Segment segment = new Segment(new HashMap<>(), new HashMap<>());
+            rows.forEach(row -> {
+                Doc doc = analyze(row.id(), row.courseId(), row.rating(), row.comments());
+                if (doc != null) {
+                    segment.add(doc);
+                }
+            });
+            return segment;
+        }
+
+        void add(Doc doc) {
+            docs.put(doc.id(), doc);
+            doc.positions().forEach((term, positions) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc.id(), positions));
+        }
+
+        void merge(Segment other) {
+            docs.putAll(other.docs());
+            other.postings().forEach((term, docPositions) -> postings.merge(term, docPositions, (mine, theirs) -> {
+                mine.putAll(theirs);
+                return mine;
+            }));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread.ofPlatform().daemon().name("feedback-index-rebuild").start(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Failed to build feedback search index: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    public void index(Long feedbackId, Long courseId, Integer rating, String comments) {
+        if (feedbackId == null || courseId == null) {
+            return;
+        }
+        Doc doc = analyze(feedbackId, courseId, rating, comments);
+        write(() -> {
+            removeDoc(feedbackId);
+            if (doc != null) {
+                addDoc(doc);
+            }
+        });
+    }
+
+    public void remove(Long feedbackId) {
+        if (feedbackId != null) {
+            write(() -> removeDoc(feedbackId));
+        }
+    }
+
+    /**
+     * Rebuilds the index from a streaming scan of the feedback table. Writes that arrive
+     * while the scan runs are applied to the live index and replayed onto the new one.
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Feedback search index rebuild already in progress");
+        }
+        long started = System.currentTimeMillis();
+        try {
+            withWriteLock(() -> replayLog = new ArrayList<>());
+            List<CompletableFuture<Segment>> parts = new ArrayList<>();
+            List<FeedbackDocumentRow> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+            readOnlyTransaction.executeWithoutResult(status ->
+                    feedbackJdbcRepository.streamSearchDocuments(REBUILD_FETCH_SIZE, row -> {
+                        chunk.add(row);
+                        if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                            List<FeedbackDocumentRow> rows = new ArrayList<>(chunk);
+                            chunk.clear();
+                            parts.add(CompletableFuture.supplyAsync(() -> Segment.of(rows)));
+                        }
+                    }));
+            if (!chunk.isEmpty()) {
+                List<FeedbackDocumentRow> rows = new ArrayList<>(chunk);
+                parts.add(CompletableFuture.supplyAsync(() -> Segment.of(rows)));
+            }
+
+            Segment merged = new Segment(new HashMap<>(), new HashMap<>());
+            parts.forEach(part -> merged.merge(part.join()));
+
+            withWriteLock(() -> {
+                docs = merged.docs();
+                postings = merged.postings();
+                replayLog.forEach(Runnable::run);
+            });
+            logger.info("Feedback search index rebuilt: {} documents, {} terms in {} ms",
+                    merged.docs().size(), merged.postings().size(), System.currentTimeMillis() - started);
+            return merged.docs().size();
+        } finally {
+            withWriteLock(() -> replayLog = null);
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Finds comments matching every clause of {@code query}. Bare words are single-term
+     * clauses and double-quoted text is a phrase clause. When {@code courseScope} is
+     * non-null only feedback on those courses is returned.
+     */
+    public List<FeedbackSearchResultDTO> search(String query, Set<Long> courseScope, int limit) {
+        List<String[]> clauses = parseQuery(query);
+        if (clauses.isEmpty()) {
+            throw new IllegalArgumentException("Search query cannot be empty");
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, List<int[]>> matches = null;
+            for (String[] clause : clauses) {
+                Map<Long, List<int[]>> clauseMatches = matchClause(clause, courseScope, matches);
+                if (matches == null) {
+                    matches = clauseMatches;
+                } else {
+                    matches.keySet().retainAll(clauseMatches.keySet());
+                    matches.forEach((id, ranges) -> ranges.addAll(clauseMatches.get(id)));
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return matches.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, List<int[]>>>comparingInt(e -> -e.getValue().size())
+                            .thenComparing(Map.Entry::getKey, Comparator.reverseOrder()))
+                    .limit(limit)
+                    .map(e -> toResult(docs.get(e.getKey()), e.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns, for each matching document, the character ranges of every phrase occurrence.
+     * When {@code candidates} is non-null only those documents are considered.
+     */
+    private Map<Long, List<int[]>> matchClause(String[] terms, Set<Long> courseScope,
+                                              Map<Long, List<int[]>> candidates) {
+        Map<Long, List<int[]>> result = new HashMap<>();
+        List<Map<Long, int[]>> termPostings = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            Map<Long, int[]> docPositions = postings.get(term);
+            if (docPositions == null) {
+                return result;
+            }
+            termPostings.add(docPositions);
+        }
+        Map<Long, int[]> smallest = termPostings.stream().min(Comparator.comparingInt(Map::size)).get();
+
+        for (Long docId : smallest.keySet()) {
+            if (candidates != null && !candidates.containsKey(docId)) {
+                continue;
+            }
+            Doc doc = docs.get(docId);
+            if (courseScope != null && !courseScope.contains(doc.courseId())) {
+                continue;
+            }
+            int[] first = termPostings.get(0).get(docId);
+            if (first == null) {
+                continue;
+            }
+            List<int[]> ranges = new ArrayList<>();
+            for (int start : first) {
+                if (phraseAt(termPostings, docId, start)) {
+                    int end = start + terms.length - 1;
+                    ranges.add(new int[] {doc.offsets()[2 * start], doc.offsets()[2 * end + 1]});
+                }
+            }
+            if (!ranges.isEmpty()) {
+                result.put(docId, ranges);
+            }
+        }
+        return result;
+    }
+
+    private static boolean phraseAt(List<Map<Long, int[]>> termPostings, Long docId, int start) {
+        for (int i = 1; i < termPostings.size(); i++) {
+            int[] positions = termPostings.get(i).get(docId);
+            if (positions == null || Arrays.binarySearch(positions, start + i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FeedbackSearchResultDTO toResult(Doc doc, List<int[]> ranges) {
+        ranges.sort(Comparator.comparingInt(range -> range[0]));
+        StringBuilder highlighted = new StringBuilder(doc.comments().length() + ranges.size() * 9);
+        int cursor = 0;
+        for (int[] range : ranges) {
+            if (range[0] < cursor) {
+                continue;
+            }
+            highlighted.append(HtmlUtils.htmlEscape(doc.comments().substring(cursor, range[0])))
+                    .append("<em>")
+                    .append(HtmlUtils.htmlEscape(doc.comments().substring(range[0], range[1])))
+                    .append("</em>");
+            cursor = range[1];
+        }
+        highlighted.append(HtmlUtils.htmlEscape(doc.comments().substring(cursor)));
+
+        FeedbackSearchResultDTO dto = new FeedbackSearchResultDTO();
+        dto.setFeedbackId(doc.id());
+        dto.setCourseId(doc.courseId());
+        dto.setRating(doc.rating());
+        dto.setHighlightedComments(highlighted.toString());
+        dto.setScore(ranges.size());
+        return dto;
+    }
+
+    private static List<String[]> parseQuery(String query) {
+        List<String[]> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        String[] parts = query.split("\"", -1);
+        int termCount = 0;
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = tokenize(parts[i], null);
+            termCount += tokens.size();
+            if (i % 2 == 1 && !tokens.isEmpty()) {
+                clauses.add(tokens.toArray(String[]::new));
+            } else {
+                tokens.forEach(token -> clauses.add(new String[] {token}));
+            }
+        }
+        if (termCount > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Search query cannot contain more than " + MAX_QUERY_TERMS + " terms");
+        }
+        return clauses;
+    }
+
+    private static Doc analyze(long id, long courseId, Integer rating, String comments) {
+        if (comments == null || comments.isBlank()) {
+            return null;
+        }
+        List<Integer> offsets = new ArrayList<>();
+        List<String> tokens = tokenize(comments, offsets);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            positions.computeIfAbsent(tokens.get(i), t -> new ArrayList<>()).add(i);
+        }
+        Map<String, int[]> termPositions = new HashMap<>(positions.size() * 2);
+        positions.forEach((term, list) -> termPositions.put(term, list.stream().mapToInt(Integer::intValue).toArray()));
+        return new Doc(id, courseId, rating, comments, offsets.stream().mapToInt(Integer::intValue).toArray(),
+                termPositions);
+    }
+
+    /**
+     * Splits text into lower-cased runs of letters and digits, recording start and end
+     * offsets when {@code offsets} is non-null.
+     */
+    private static List<String> tokenize(String text, List<Integer> offsets) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                if (offsets != null) {
+                    offsets.add(start);
+                    offsets.add(i);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void write(Runnable op) {
+        withWriteLock(() -> {
+            op.run();
+            if (replayLog != null) {
+                replayLog.add(op);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDoc(Doc doc) {
+        docs.put(doc.id(), doc);
+        doc.positions().forEach((term, positions) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(doc.id(), positions));
+    }
+
+    private void removeDoc(long feedbackId) {
+        Doc existing = docs.remove(feedbackId);
+        if (existing == null) {
+            return;
+        }
+        existing.positions().keySet().forEach(term -> {
+            Map<Long, int[]> docPositions = postings.get(term);
+            if (docPositions != null) {
+                docPositions.remove(feedbackId);
+                if (docPositions.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+}
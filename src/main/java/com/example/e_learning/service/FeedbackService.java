@@ -3,18 +3,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.example.e_learning.dto.FeedbackDTO;
+import com.example.e_learning.dto.FeedbackSearchResultDTO;
 import com.example.e_learning.dto.HighestRatedCourseDTO;
 import com.example.e_learning.entity.Feedback;
-import com.example.e_learning.entity.User;
 import com.example.e_learning.entity.Course;
+import com.example.e_learning.repository.FeedbackJdbcRepository;
+import com.example.e_learning.repository.FeedbackJdbcRepository.FeedbackRow;
+import com.example.e_learning.repository.FeedbackJdbcRepository.UpsertResult;
 import com.example.e_learning.repository.FeedbackRepository;
-import com.example.e_learning.repository.UserRepository;
 import com.example.e_learning.repository.CourseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,10 +27,22 @@ public class FeedbackService {
     private FeedbackRepository feedbackRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private FeedbackJdbcRepository feedbackJdbcRepository;
+
+    @Autowired
+    private CurrentUser currentUser;
 
     @Autowired
     private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseRatingAggregates ratingAggregates;
+
+    @Autowired
+    private FeedbackSearchIndex searchIndex;
+
+    @Autowired
+    private CourseAudienceSketches audienceSketches;
     
     private static final Logger logger = LoggerFactory.getLogger(FeedbackService.class);
 
@@ -40,25 +55,26 @@ public class FeedbackService {
             throw new IllegalArgumentException("Rating cannot be null");
         }
 
-        User user = userRepository.findByUsername(feedbackDTO.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + feedbackDTO.getUsername()));
-
         Course course = courseRepository.findById(feedbackDTO.getCourseId())
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with ID: " + feedbackDTO.getCourseId()));
 
-        Feedback feedback = new Feedback();
-        feedback.setUser(user);
-        feedback.setCourse(course);
-        feedback.setRating(feedbackDTO.getRating());
-        feedback.setComments(feedbackDTO.getComments());
-
+        UpsertResult result;
         try {
-            feedbackRepository.save(feedback);
+            result = feedbackJdbcRepository.upsert(new FeedbackRow(currentUser.getId(), course.getId(),
+                    feedbackDTO.getRating(), feedbackDTO.getComments()));
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Invalid course or user ID: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException("Failed to save feedback: " + e.getMessage(), e);
         }
+        if (result.previousUnknown()) {
+            ratingAggregates.invalidate(course.getId());
+        } else {
+            ratingAggregates.removed(course.getId(), result.previousRating());
+            ratingAggregates.added(course.getId(), feedbackDTO.getRating());
+        }
+        searchIndex.index(result.id(), course.getId(), feedbackDTO.getRating(), feedbackDTO.getComments());
+        audienceSketches.reviewerAdded(course.getId(), currentUser.getId());
     }
 
     public void updateFeedback(Long id, FeedbackDTO feedbackDTO) {
@@ -72,9 +88,6 @@ public class FeedbackService {
         Feedback feedback = feedbackRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Feedback not found with ID: " + id));
 
-        User user = userRepository.findByUsername(feedbackDTO.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + feedbackDTO.getUsername()));
-
         if (!feedback.getUser().getUsername().equals(feedbackDTO.getUsername())) {
             throw new IllegalArgumentException("You can only update your own feedback");
         }
@@ -82,6 +95,8 @@ public class FeedbackService {
         Course course = courseRepository.findById(feedbackDTO.getCourseId())
                 .orElseThrow(() -> new IllegalArgumentException("Course not found with ID: " + feedbackDTO.getCourseId()));
 
+        Long previousCourseId = feedback.getCourse().getId();
+        Integer previousRating = feedback.getRating();
         feedback.setCourse(course);
         feedback.setRating(feedbackDTO.getRating());
         feedback.setComments(feedbackDTO.getComments());
@@ -93,16 +108,17 @@ public class FeedbackService {
         } catch (Exception e) {
             throw new RuntimeException("Failed to update feedback: " + e.getMessage(), e);
         }
+        ratingAggregates.removed(previousCourseId, previousRating);
+        ratingAggregates.added(course.getId(), feedback.getRating());
+        searchIndex.index(feedback.getId(), course.getId(), feedback.getRating(), feedback.getComments());
+        audienceSketches.reviewerAdded(course.getId(), currentUser.getId());
     }
 
     public void deleteFeedback(Long id, String username) {
         Feedback feedback = feedbackRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Feedback not found with ID: " + id));
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
-
-        if (!feedback.getUser().getUsername().equals(username) && !user.getRole().equalsIgnoreCase("ADMIN")) {
+        if (!feedback.getUser().getUsername().equals(username) && !currentUser.isAdmin()) {
             throw new IllegalArgumentException("You can only delete your own feedback or must be an admin");
         }
 
@@ -111,6 +127,42 @@ public class FeedbackService {
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete feedback: " + e.getMessage(), e);
         }
+        ratingAggregates.removed(feedback.getCourse().getId(), feedback.getRating());
+        searchIndex.remove(id);
+    }
+
+    public List<FeedbackSearchResultDTO> searchFeedback(String query, Long courseId, Long instructorId, int limit) {
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        if (currentUser.hasRole("INSTRUCTOR")) {
+            Long ownApplicationId = currentUser.getInstructorApplicationId()
+                    .orElseThrow(() -> new IllegalStateException("Instructor application not found for user: " + currentUser.getUsername()));
+            if (instructorId != null && !instructorId.equals(ownApplicationId)) {
+                throw new IllegalStateException("Instructors can only search feedback on their own courses");
+            }
+            instructorId = ownApplicationId;
+        } else if (!currentUser.isAdmin()) {
+            throw new IllegalStateException("Only admins and instructors can search feedback");
+        }
+
+        Set<Long> courseScope = null;
+        if (instructorId != null) {
+            courseScope = courseRepository.findByInstructorId(instructorId).stream()
+                    .map(Course::getId)
+                    .collect(Collectors.toSet());
+        }
+        if (courseId != null) {
+            if (courseScope != null && !courseScope.contains(courseId)) {
+                throw new IllegalStateException("Course " + courseId + " does not belong to instructor " + instructorId);
+            }
+            courseScope = Set.of(courseId);
+        }
+        return searchIndex.search(query, courseScope, limit);
+    }
+
+    public int rebuildSearchIndex() {
+        return searchIndex.rebuild();
     }
 
     public List<FeedbackDTO> getAllFeedbacks() {
@@ -148,7 +200,7 @@ public class FeedbackService {
 
     public Double getAverageRatingByCourseId(Long courseId) {
         try {
-            Double averageRating = feedbackRepository.findAverageRatingByCourseId(courseId);
+            Double averageRating = ratingAggregates.getAverage(courseId);
             return averageRating != null ? averageRating : 0.0;
         } catch (Exception e) {
             throw new RuntimeException("Failed to calculate average rating: " + e.getMessage(), e);
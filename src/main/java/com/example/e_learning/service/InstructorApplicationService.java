@@ -32,6 +32,9 @@ public class InstructorApplicationService {
     @Autowired
     private UserRepository userRepo;
 
+    @Autowired
+    private CurrentUser currentUser;
+
     @Autowired
     private CourseRepository courseRepo;
 
@@ -40,10 +43,9 @@ public class InstructorApplicationService {
 
     @Transactional
     public void submitApplication(InstructorApplicationRequestDTO dto, String username) {
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("User not found: " + username));
+        User user = currentUser.getUser();
 
-        if (user.getRole().equals("INSTRUCTOR")) {
+        if (currentUser.hasRole("INSTRUCTOR")) {
             throw new IllegalStateException("User is already an instructor");
         }
 
@@ -194,17 +196,12 @@ public class InstructorApplicationService {
 
     public void updateInstructorDetails(InstructorApplicationRequestDTO dto, Principal principal) {
         String username = principal.getName();
-        User currentUser = userRepo.findByUsername(username).orElseThrow(() -> {
-            logger.error("User not found: {}", username);
-            return new IllegalStateException("User not found: " + username);
-        });
-
-        if (!currentUser.getRole().equals("INSTRUCTOR")) {
+        if (!currentUser.hasRole("INSTRUCTOR")) {
             logger.error("User {} is not an instructor", username);
             throw new IllegalStateException("Only instructors can update their details");
         }
 
-        InstructorApplication instructorApplication = instructorRepo.findByUserId(currentUser.getId())
+        InstructorApplication instructorApplication = currentUser.getInstructorApplication()
                 .orElseThrow(() -> {
                     logger.error("Instructor application not found for user ID: {}", currentUser.getId());
                     return new IllegalArgumentException("Instructor application not found for user: " + username);
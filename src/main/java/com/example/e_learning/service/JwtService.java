@@ -1,128 +1,273 @@
 package com.example.e_learning.service;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.SecretKey;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+
+import com.example.e_learning.entity.User;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.example.e_learning.repository.UserRepository;
+
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
-import java.security.Key;
-import com.example.e_learning.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.web.filter.OncePerRequestFilter;
-import com.example.e_learning.service.JwtService;
-import java.io.IOException;
-import java.util.List;
-import java.util.function.Function;
-
+import jakarta.annotation.PostConstruct;
 
 @Component
 public class JwtService {
     @Value("${jwt.secret}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private long expiration;
 
+    @Value("${jwt.refresh-expiration:1209600000}")
+    private long refreshExpiration;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxCachedTokens;
+
+    @Autowired
+    private InstructorApplicationRepository instructorApplicationRepository;
+
     @Autowired
     private UserRepository userRepository;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8); 
-        return Keys.hmacShaKeyFor(keyBytes);
+    @Autowired
+    private RevokedTokenStore revokedTokens;
+
+    private static final String TYPE_ACCESS = "access";
+    private static final String TYPE_REFRESH = "refresh";
+
+    // Both are immutable and thread-safe, so they are built once instead of per call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Principals of tokens that already passed verification, keyed by a hash of the token
+    private final ConcurrentHashMap<String, JwtPrincipal> verified = new ConcurrentHashMap<>();
+    // Cached entries in insertion order, which with one token lifetime is also expiry order
+    private final ConcurrentLinkedQueue<CachedToken> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedKeys = new AtomicInteger();
+
+    private record CachedToken(String key, JwtPrincipal principal) {
+    }
+
+    /**
+     * The claims of a verified token. Only ever created from a token whose signature and
+     * expiry have been checked. {@code userId} and {@code tokenId} are null for tokens issued
+     * before they were claims; {@code instructorApplicationId} is null when the user had no
+     * application at login.
+     */
+    public record JwtPrincipal(String username, Long userId, String role, Long instructorApplicationId,
+                               String tokenId, Instant expiresAt) implements Principal {
+        @Override
+        public String getName() {
+            return username;
+        }
+
+        public boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    public record TokenPair(String accessToken, String refreshToken) {
+    }
+
+    private record RefreshClaims(String tokenId, Long userId, Instant expiresAt) {
     }
 
-    public String generateToken(String username) {
-        var user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    public String generateToken(User user) {
         String role = user.getRole();
         if (role == null || role.trim().isEmpty()) {
             role = "USER"; 
         }
+        Long instructorApplicationId = instructorApplicationRepository.findByUserId(user.getId())
+                .map(application -> application.getId())
+                .orElse(null);
 
         return Jwts.builder()
-                .claim("username", username) 
+                .claim("username", user.getUsername()) 
+                .claim("userId", user.getId())
                 .claim("role", "ROLE_" + role.toUpperCase())
+                .claim("instructorApplicationId", instructorApplicationId)
+                .claim("typ", TYPE_ACCESS)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
         }
 
-    public String extractUsername(String token) {
-        try {
-            return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .get("username", String.class); 
-        } catch (ExpiredJwtException e) {
-            throw new RuntimeException("JWT token is expired", e);
-        } catch (JwtException e) {
-            throw new RuntimeException("Invalid JWT token", e);
+    /**
+     * Issues a fresh access token together with a refresh token. The refresh token can be
+     * used once, through {@link #refresh}, to obtain the next pair.
+     */
+    public TokenPair generateTokens(User user) {
+        String refreshToken = Jwts.builder()
+                .claim("username", user.getUsername())
+                .claim("userId", user.getId())
+                .claim("typ", TYPE_REFRESH)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+        return new TokenPair(generateToken(user), refreshToken);
+    }
+
+    /**
+     * Rotates a refresh token: it is revoked and a new pair is issued from the user's current
+     * account, so role changes take effect at the next refresh.
+     *
+     * @throws JwtException when the token is invalid, expired, or has already been used
+     */
+    public TokenPair refresh(String refreshToken) {
+        RefreshClaims claims = verifyRefresh(refreshToken);
+        if (!revokedTokens.revoke(claims.tokenId(), claims.expiresAt())) {
+            throw new JwtException("Refresh token has already been used");
         }
+        User user = userRepository.findById(claims.userId())
+                .orElseThrow(() -> new JwtException("User of refresh token no longer exists"));
+        return generateTokens(user);
     }
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+
+    /**
+     * Revokes a refresh token and, when given, a still valid access token of the same session.
+     *
+     * @throws JwtException when the refresh token is invalid or expired
+     */
+    public void revoke(String refreshToken, String accessToken) {
+        RefreshClaims claims = verifyRefresh(refreshToken);
+        revokedTokens.revoke(claims.tokenId(), claims.expiresAt());
+        if (accessToken != null) {
+            try {
+                JwtPrincipal principal = verify(accessToken);
+                if (principal.tokenId() != null) {
+                    revokedTokens.revoke(principal.tokenId(), principal.expiresAt());
+                }
+            } catch (JwtException e) {
+                // Already expired or revoked; nothing left to revoke
+            }
+        }
     }
 
-    public boolean isTokenValid(String token) {
-        try {
-            extractAllClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+    /**
+     * Verifies an access token's signature and expiry once and returns its principal. A
+     * token seen before is answered from the cache until it expires, without parsing or HMAC
+     * work; revocation is checked on every call against {@link RevokedTokenStore}. A full
+     * cache makes room by evicting its oldest entries, the ones closest to expiry.
+     *
+     * @throws JwtException when the token is malformed, forged, expired, revoked, a refresh
+     *                      token, or has no username
+     */
+    public JwtPrincipal verify(String token) {
+        String key = hash(token);
+        JwtPrincipal principal = verified.get(key);
+        if (principal != null && principal.isExpired(Instant.now())) {
+            verified.remove(key, principal);
+            principal = null;
         }
+        if (principal == null) {
+            principal = parseAccessToken(token);
+            // Tokens without an expiry are still accepted but never cached
+            if (!principal.expiresAt().equals(Instant.MAX)) {
+                cache(key, principal);
+            }
+        }
+        if (principal.tokenId() != null && revokedTokens.isRevoked(principal.tokenId())) {
+            throw new JwtException("JWT token has been revoked");
+        }
+        return principal;
     }
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+
+    // Each entry is queued once and polled at most once, so eviction is O(1) amortized. An
+    // entry is only removed while the map still holds the very principal it was queued with,
+    // so entries the sweep already dropped, or that were cached again since, are left alone
+    private void cache(String key, JwtPrincipal principal) {
+        if (verified.putIfAbsent(key, principal) != null) {
+            return;
+        }
+        insertionOrder.add(new CachedToken(key, principal));
+        queuedKeys.incrementAndGet();
+        while (queuedKeys.get() > maxCachedTokens) {
+            CachedToken oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queuedKeys.decrementAndGet();
+            // By identity: a principal parsed again from the same token is equal but newer
+            verified.computeIfPresent(oldest.key(), (cachedKey, current) -> current == oldest.principal() ? null : current);
+        }
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
+    private JwtPrincipal parseAccessToken(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (TYPE_REFRESH.equals(claims.get("typ", String.class))) {
+            throw new MalformedJwtException("Refresh tokens cannot be used as access tokens");
+        }
+        String username = claims.get("username", String.class);
+        if (username == null) {
+            throw new MalformedJwtException("JWT token has no username");
         }
+        Date expiresAt = claims.getExpiration();
+        return new JwtPrincipal(username, claims.get("userId", Long.class),
+                claims.get("role", String.class), claims.get("instructorApplicationId", Long.class),
+                claims.getId(), expiresAt != null ? expiresAt.toInstant() : Instant.MAX);
     }
 
-    private boolean isTokenExpired(String token) {
-        try {
-            return extractExpiration(token).before(new Date());
-        } catch (Exception e) {
-            return true;
+    private RefreshClaims verifyRefresh(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Long userId = claims.get("userId", Long.class);
+        if (!TYPE_REFRESH.equals(claims.get("typ", String.class)) || claims.getId() == null
+                || userId == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("Not a refresh token");
+        }
+        if (revokedTokens.isRevoked(claims.getId())) {
+            throw new JwtException("Refresh token has already been used");
         }
+        return new RefreshClaims(claims.getId(), userId, claims.getExpiration().toInstant());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.cache.sweep-ms:60000}")
+    public int evictExpired() {
+        Instant now = Instant.now();
+        int before = verified.size();
+        verified.values().removeIf(principal -> principal.isExpired(now));
+        return before - verified.size();
     }
 
-    private Date extractExpiration(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody()
-            .getExpiration();
+    // Keeps raw bearer tokens out of the heap for as long as they are cached
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
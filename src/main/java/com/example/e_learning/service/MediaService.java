@@ -0,0 +1,299 @@
+package com.example.e_learning.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.example.e_learning.dto.MediaAssetDTO;
+import com.example.e_learning.dto.MediaUploadRequestDTO;
+import com.example.e_learning.entity.MediaAsset;
+import com.example.e_learning.repository.EnrollmentRepository;
+import com.example.e_learning.repository.MediaAssetRepository;
+
+/**
+ * Local store for lesson media. Instructors upload a file in sequential chunks, each
+ * described by a {@code Content-Range} header and forced to disk before it is recorded, so an
+ * interrupted upload continues from {@code receivedBytes}. Finished files are immutable and
+ * served by byte range straight from the file, to the course's instructor, its enrolled
+ * learners and admins.
+ *
+ * <p>The content type is whatever the uploader declared, so only audio, video, raster images
+ * and PDF are served inline; anything else, HTML and SVG included, is sent as an attachment
+ * so it cannot run script in the site's origin.
+ */
+@Service
+public class MediaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaService.class);
+
+    public static final String UPLOADING = "UPLOADING";
+    public static final String READY = "READY";
+    public static final String URL_PREFIX = "/media/";
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final Set<String> INLINE_TYPES = Set.of(
+            "video/mp4", "video/webm", "video/ogg",
+            "audio/mpeg", "audio/mp4", "audio/ogg", "audio/wav", "audio/webm", "audio/aac",
+            "image/png", "image/jpeg", "image/gif", "image/webp",
+            "application/pdf");
+
+    private final MediaAssetRepository mediaAssetRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CurrentUser currentUser;
+    private final CourseOwnershipResolver ownershipResolver;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final ConcurrentHashMap<Long, ReentrantLock> uploadLocks = new ConcurrentHashMap<>();
+
+    public MediaService(MediaAssetRepository mediaAssetRepository,
+                        EnrollmentRepository enrollmentRepository,
+                        CurrentUser currentUser,
+                        CourseOwnershipResolver ownershipResolver,
+                        @Value("${media.dir:data/media}") String directory,
+                        @Value("${media.max-size-bytes:5368709120}") long maxSizeBytes) {
+        this.mediaAssetRepository = mediaAssetRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.currentUser = currentUser;
+        this.ownershipResolver = ownershipResolver;
+        this.directory = Path.of(directory);
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * A finished file ready to be served. The ETag is strong because the content of a
+     * ready asset never changes. When {@code inline} is false the file must be sent as an
+     * attachment.
+     */
+    public record StoredMedia(Path path, long size, String contentType, String filename, boolean inline,
+                              String etag, Instant lastModified) {
+    }
+
+    /**
+     * A satisfiable byte range of a file; {@code start} and {@code end} are inclusive.
+     */
+    public record ByteRange(long start, long end) {
+        public long length() {
+            return end - start + 1;
+        }
+    }
+
+    public MediaAssetDTO createUpload(MediaUploadRequestDTO request) {
+        if (request.getCourseId() == null) {
+            throw new IllegalArgumentException("Course ID is required");
+        }
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new IllegalArgumentException("Filename is required");
+        }
+        if (request.getSizeBytes() == null || request.getSizeBytes() <= 0 || request.getSizeBytes() > maxSizeBytes) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxSizeBytes + " bytes");
+        }
+        requireEditor(request.getCourseId());
+
+        MediaAsset asset = new MediaAsset();
+        asset.setCourseId(request.getCourseId());
+        asset.setUploadedBy(currentUser.getUsername());
+        asset.setFilename(Path.of(request.getFilename()).getFileName().toString());
+        asset.setContentType(request.getContentType() != null && !request.getContentType().isBlank()
+                ? request.getContentType() : "application/octet-stream");
+        asset.setSizeBytes(request.getSizeBytes());
+        asset.setStatus(UPLOADING);
+        asset.setCreatedAt(Instant.now());
+        mediaAssetRepository.save(asset);
+        return toDTO(asset);
+    }
+
+    public MediaAssetDTO getAsset(Long mediaId) {
+        MediaAsset asset = findAsset(mediaId);
+        requireViewer(asset.getCourseId());
+        return toDTO(asset);
+    }
+
+    /**
+     * Appends one chunk. The chunk must start exactly at the asset's received offset; bytes
+     * that did arrive before the client disconnected are kept.
+     *
+     * @throws IllegalStateException when the chunk does not continue the upload or another
+     *                               chunk for the asset is being written
+     */
+    public MediaAssetDTO appendChunk(Long mediaId, String contentRange, InputStream body) throws IOException {
+        MediaAsset asset = findAsset(mediaId);
+        requireEditor(asset.getCourseId());
+        if (!UPLOADING.equals(asset.getStatus())) {
+            throw new IllegalStateException("Upload of media " + mediaId + " is already complete");
+        }
+        if (contentRange == null) {
+            throw new IllegalArgumentException("Content-Range header is required");
+        }
+        Matcher range = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!range.matches()) {
+            throw new IllegalArgumentException("Invalid Content-Range: " + contentRange);
+        }
+        long start = Long.parseLong(range.group(1));
+        long end = Long.parseLong(range.group(2));
+        if (end < start || end >= asset.getSizeBytes()
+                || (!range.group(3).equals("*") && Long.parseLong(range.group(3)) != asset.getSizeBytes())) {
+            throw new IllegalArgumentException("Content-Range " + contentRange + " does not fit a file of "
+                    + asset.getSizeBytes() + " bytes");
+        }
+
+        ReentrantLock lock = uploadLocks.computeIfAbsent(mediaId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("Another chunk of media " + mediaId + " is being uploaded");
+        }
+        try {
+            Long received = mediaAssetRepository.findReceivedBytes(mediaId);
+            if (received == null || start != received) {
+                throw new IllegalStateException("Chunk must start at byte " + received);
+            }
+            long length = end - start + 1;
+            long written = 0;
+            Files.createDirectories(directory);
+            try (FileChannel file = FileChannel.open(path(mediaId), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(body);
+                try {
+                    while (written < length) {
+                        long transferred = file.transferFrom(source, start + written, length - written);
+                        if (transferred <= 0) {
+                            break;
+                        }
+                        written += transferred;
+                    }
+                } finally {
+                    file.force(false);
+                }
+            } finally {
+                if (written > 0 && mediaAssetRepository.advance(mediaId, start, start + written) == 0) {
+                    logger.warn("Media {} chunk at byte {} was not recorded; the upload moved on concurrently", mediaId, start);
+                }
+            }
+            if (written < length) {
+                throw new IllegalArgumentException("Body ended after " + written + " of " + length + " bytes; resume from byte "
+                        + (start + written));
+            }
+            if (start + written == asset.getSizeBytes() && mediaAssetRepository.complete(mediaId, Instant.now()) > 0) {
+                uploadLocks.remove(mediaId);
+                logger.info("Media {} upload complete ({} bytes)", mediaId, asset.getSizeBytes());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return toDTO(findAsset(mediaId));
+    }
+
+    public void deleteAsset(Long mediaId) throws IOException {
+        MediaAsset asset = findAsset(mediaId);
+        requireEditor(asset.getCourseId());
+        mediaAssetRepository.delete(asset);
+        uploadLocks.remove(mediaId);
+        Files.deleteIfExists(path(mediaId));
+    }
+
+    public StoredMedia open(Long mediaId) {
+        MediaAsset asset = findAsset(mediaId);
+        if (!READY.equals(asset.getStatus())) {
+            throw new IllegalArgumentException("Media not found: " + mediaId);
+        }
+        requireViewer(asset.getCourseId());
+        String etag = "\"" + mediaId + "-" + asset.getSizeBytes() + "-" + asset.getCompletedAt().toEpochMilli() + "\"";
+        return new StoredMedia(path(mediaId), asset.getSizeBytes(), asset.getContentType(), asset.getFilename(),
+                isInlineType(asset.getContentType()), etag, asset.getCompletedAt());
+    }
+
+    static boolean isInlineType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String type = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        return INLINE_TYPES.contains(type);
+    }
+
+    /**
+     * Resolves a single-range {@code Range} header against the file. Returns null when the
+     * whole file should be sent: no Range, a multi-range request, or an {@code If-Range}
+     * that no longer matches.
+     *
+     * @throws IllegalArgumentException when the range cannot be satisfied
+     */
+    public ByteRange resolveRange(StoredMedia media, String rangeHeader, String ifRange) {
+        if (rangeHeader == null || (ifRange != null && !ifRange.equals(media.etag()))) {
+            return null;
+        }
+        Matcher range = RANGE.matcher(rangeHeader.trim());
+        if (!range.matches() || (range.group(1).isEmpty() && range.group(2).isEmpty())) {
+            return null;
+        }
+        long size = media.size();
+        long start;
+        long end;
+        if (range.group(1).isEmpty()) {
+            long suffix = Long.parseLong(range.group(2));
+            start = Math.max(0, size - suffix);
+            end = size - 1;
+        } else {
+            start = Long.parseLong(range.group(1));
+            end = range.group(2).isEmpty() ? size - 1 : Math.min(Long.parseLong(range.group(2)), size - 1);
+        }
+        if (start >= size || end < start) {
+            throw new IllegalArgumentException("Requested range not satisfiable");
+        }
+        return new ByteRange(start, end);
+    }
+
+    private MediaAsset findAsset(Long mediaId) {
+        return mediaAssetRepository.findById(mediaId)
+                .orElseThrow(() -> new IllegalArgumentException("Media not found: " + mediaId));
+    }
+
+    private void requireViewer(Long courseId) {
+        Long userId = currentUser.getId();
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(userId, courseId)
+                && enrollmentRepository.findByUserIdAndCourseId(userId, courseId).isEmpty()) {
+            throw new AccessDeniedException("Only enrolled learners can view this course's media");
+        }
+    }
+
+    private void requireEditor(Long courseId) {
+        if (!currentUser.isAdmin() && !ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            throw new AccessDeniedException("Only the course's instructor can manage its media");
+        }
+    }
+
+    private Path path(Long mediaId) {
+        return directory.resolve(mediaId + ".media");
+    }
+
+    private MediaAssetDTO toDTO(MediaAsset asset) {
+        MediaAssetDTO dto = new MediaAssetDTO();
+        dto.setId(asset.getId());
+        dto.setCourseId(asset.getCourseId());
+        dto.setFilename(asset.getFilename());
+        dto.setContentType(asset.getContentType());
+        dto.setSizeBytes(asset.getSizeBytes());
+        dto.setReceivedBytes(asset.getReceivedBytes());
+        dto.setStatus(asset.getStatus());
+        dto.setCreatedAt(asset.getCreatedAt());
+        dto.setUrl(URL_PREFIX + asset.getId());
+        dto.setCompletedAt(asset.getCompletedAt());
+        return dto;
+    }
+}
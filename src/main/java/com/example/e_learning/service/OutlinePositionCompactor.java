@@ -0,0 +1,100 @@
+package com.example.e_learning.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+
+/**
+ * Respaces topic and subtopic positions in the background once adjacent items get close
+ * enough that further moves between them would soon need an inline respace. Only courses
+ * whose outline was reordered on this instance are examined, plus, until none are left,
+ * courses with rows created before the position column existed. Order is preserved, so
+ * cached outlines stay valid.
+ */
+@Component
+public class OutlinePositionCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutlinePositionCompactor.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final CourseOutlineJdbcRepository outlineJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> dirtyCourses = ConcurrentHashMap.newKeySet();
+    private volatile boolean unpositionedRowsLeft = true;
+
+    @Value("${outline.positions.min-gap:16}")
+    private long minGap;
+
+    public OutlinePositionCompactor(CourseOutlineJdbcRepository outlineJdbcRepository,
+                                    TransactionTemplate transactionTemplate) {
+        this.outlineJdbcRepository = outlineJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Records that an item of the course was placed at {@code position} between its
+     * neighbours (either may be null); the course is compacted when the gap got narrow.
+     */
+    public void placed(Long courseId, Long lower, long position, Long upper) {
+        if ((lower != null && position - lower < minGap) || (upper != null && upper - position < minGap)) {
+            dirtyCourses.add(courseId);
+        }
+    }
+
+    /**
+     * Records that positions of the course were assigned in bulk and may be crowded anywhere.
+     */
+    public void reordered(Long courseId) {
+        dirtyCourses.add(courseId);
+    }
+
+    @Scheduled(fixedDelayString = "${outline.positions.compact-interval-ms:60000}")
+    public void compact() {
+        try {
+            if (unpositionedRowsLeft) {
+                List<Long> legacy = outlineJdbcRepository.findCoursesWithUnpositionedItems(BATCH_SIZE);
+                unpositionedRowsLeft = !legacy.isEmpty();
+                dirtyCourses.addAll(legacy);
+            }
+            if (dirtyCourses.isEmpty()) {
+                return;
+            }
+            List<Long> courseIds = new ArrayList<>(dirtyCourses);
+            dirtyCourses.removeAll(courseIds);
+            int topics = 0;
+            int subtopicLists = 0;
+            for (Long courseId : courseIds) {
+                int[] respaced = transactionTemplate.execute(status -> {
+                    outlineJdbcRepository.lockCourse(courseId);
+                    int[] counts = new int[2];
+                    if (outlineJdbcRepository.hasCrowdedTopics(courseId, minGap)) {
+                        outlineJdbcRepository.respaceTopics(courseId, OutlinePositions.GAP);
+                        counts[0] = 1;
+                    }
+                    for (Long topicId : outlineJdbcRepository.findCrowdedTopicIds(courseId, minGap)) {
+                        outlineJdbcRepository.respaceSubtopics(topicId, OutlinePositions.GAP);
+                        counts[1]++;
+                    }
+                    return counts;
+                });
+                topics += respaced[0];
+                subtopicLists += respaced[1];
+            }
+            if (topics > 0 || subtopicLists > 0) {
+                logger.info("Respaced positions for {} courses and {} topics", topics, subtopicLists);
+            }
+        } catch (Exception e) {
+            logger.error("Outline position compaction failed: {}", e.getMessage());
+        }
+    }
+}
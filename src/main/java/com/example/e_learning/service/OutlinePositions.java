@@ -0,0 +1,141 @@
+package com.example.e_learning.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sparse ordering keys for topics and subtopics. Items are spaced {@link #GAP} apart so an
+ * item can be moved by rewriting only its own position.
+ */
+final class OutlinePositions {
+
+    static final long GAP = 1024;
+
+    private OutlinePositions() {
+    }
+
+    /**
+     * Returns a position strictly between {@code lower} and {@code upper} (either may be
+     * null for an open end), or null when they are adjacent and the siblings need respacing.
+     */
+    static Long between(Long lower, Long upper) {
+        if (lower == null && upper == null) {
+            return GAP;
+        }
+        if (lower == null) {
+            return upper - GAP;
+        }
+        if (upper == null) {
+            return lower + GAP;
+        }
+        return upper - lower >= 2 ? lower + (upper - lower) / 2 : null;
+    }
+
+    /**
+     * Assigns positions for items listed in their desired order, given each item's current
+     * position (null for new items). The longest run of items that are already in order
+     * keeps its positions, so reordering touches as few rows as possible; everything is
+     * respaced only when an insertion point has no room left.
+     */
+    static long[] assign(List<Long> current) {
+        int n = current.size();
+        long[] assigned = new long[n];
+        boolean[] kept = longestIncreasingRun(current);
+
+        int runStart = 0;
+        for (int i = 0; i <= n; i++) {
+            if (i < n && !kept[i]) {
+                continue;
+            }
+            Long lower = runStart > 0 ? current.get(runStart - 1) : null;
+            Long upper = i < n ? current.get(i) : null;
+            if (!fill(assigned, runStart, i, lower, upper)) {
+                for (int j = 0; j < n; j++) {
+                    assigned[j] = (j + 1) * GAP;
+                }
+                return assigned;
+            }
+            if (i < n) {
+                assigned[i] = current.get(i);
+            }
+            runStart = i + 1;
+        }
+        return assigned;
+    }
+
+    // Spreads the items in [from, to) evenly between two kept neighbours
+    private static boolean fill(long[] assigned, int from, int to, Long lower, Long upper) {
+        int count = to - from;
+        if (count == 0) {
+            return true;
+        }
+        if (lower == null && upper == null) {
+            for (int j = 0; j < count; j++) {
+                assigned[from + j] = (j + 1) * GAP;
+            }
+        } else if (upper == null) {
+            for (int j = 0; j < count; j++) {
+                assigned[from + j] = lower + (j + 1) * GAP;
+            }
+        } else if (lower == null) {
+            for (int j = 0; j < count; j++) {
+                assigned[from + j] = upper - (count - j) * GAP;
+            }
+        } else {
+            long step = (upper - lower) / (count + 1);
+            if (step < 1) {
+                return false;
+            }
+            for (int j = 0; j < count; j++) {
+                assigned[from + j] = lower + (j + 1) * step;
+            }
+        }
+        return true;
+    }
+
+    // Patience-sorting LIS over the non-null positions, O(n log n)
+    private static boolean[] longestIncreasingRun(List<Long> current) {
+        int n = current.size();
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -1);
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            Long value = current.get(i);
+            if (value == null) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (current.get(tails[mid]) < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            if (lo > 0) {
+                previous[i] = tails[lo - 1];
+            }
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] kept = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            kept[i] = true;
+        }
+        return kept;
+    }
+
+    static List<Long> gapped(int count, long start) {
+        List<Long> positions = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            positions.add(start + i * GAP);
+        }
+        return positions;
+    }
+}
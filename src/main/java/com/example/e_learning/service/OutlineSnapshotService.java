@@ -0,0 +1,221 @@
+package com.example.e_learning.service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.e_learning.dto.OutlineSnapshotDTO;
+import com.example.e_learning.entity.OutlineSnapshot;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+import com.example.e_learning.repository.OutlineSnapshotRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Publishes course outlines as immutable snapshots. The topic and subtopic tables act as
+ * the draft that instructors edit; publishing freezes the draft into a content-addressed
+ * blob and atomically points the course at it. Learner reads resolve the pointer from
+ * memory and serve the blob, so they never reach JPA; only a course that has never been
+ * published shows learners its draft.
+ */
+@Service
+public class OutlineSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutlineSnapshotService.class);
+    private static final String BLOB_PATH = "/courses/outline-snapshots/";
+
+    private final OutlineSnapshotRepository snapshotRepository;
+    private final OutlineSnapshotStore store;
+    private final CourseContentService courseContentService;
+    private final CourseOwnershipResolver ownershipResolver;
+    private final CurrentUser currentUser;
+    private final CourseOutlineJdbcRepository outlineJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, OutlineSnapshotDTO> published = new ConcurrentHashMap<>();
+    // Uncompressed JSON of published snapshots, keyed by hash; dropped when no longer published
+    private final ConcurrentHashMap<String, CourseOutlineCache.CachedOutline> publishedOutlines = new ConcurrentHashMap<>();
+
+    public OutlineSnapshotService(OutlineSnapshotRepository snapshotRepository,
+                                  OutlineSnapshotStore store,
+                                  CourseContentService courseContentService,
+                                  CourseOwnershipResolver ownershipResolver,
+                                  CurrentUser currentUser,
+                                  CourseOutlineJdbcRepository outlineJdbcRepository,
+                                  ObjectMapper objectMapper) {
+        this.snapshotRepository = snapshotRepository;
+        this.store = store;
+        this.courseContentService = courseContentService;
+        this.ownershipResolver = ownershipResolver;
+        this.currentUser = currentUser;
+        this.outlineJdbcRepository = outlineJdbcRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void loadPublished() {
+        snapshotRepository.findByCurrentTrue().forEach(snapshot -> published.put(snapshot.getCourseId(), toDTO(snapshot)));
+        logger.info("Loaded {} published course outlines", published.size());
+    }
+
+    /**
+     * Freezes the course's current draft outline into a new snapshot and makes it the
+     * published version. Publishing an unchanged outline returns the current snapshot.
+     */
+    @Transactional
+    public OutlineSnapshotDTO publish(Long courseId) {
+        String username = requireEditor(courseId);
+        outlineJdbcRepository.lockCourse(courseId);
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(courseContentService.getTopicByCourseId(courseId));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize course outline: " + e.getMessage(), e);
+        }
+        OutlineSnapshotStore.StoredBlob blob = store.write(json);
+
+        Optional<OutlineSnapshot> current = snapshotRepository.findByCourseIdAndCurrentTrue(courseId);
+        if (current.isPresent() && current.get().getHash().equals(blob.hash())) {
+            return toDTO(current.get());
+        }
+
+        OutlineSnapshot snapshot = new OutlineSnapshot();
+        snapshot.setCourseId(courseId);
+        snapshot.setVersion(snapshotRepository.findLatestVersion(courseId) + 1);
+        snapshot.setHash(blob.hash());
+        snapshot.setSizeBytes(blob.sizeBytes());
+        snapshot.setPublishedAt(Instant.now());
+        snapshot.setPublishedBy(username);
+        snapshot.setCurrent(true);
+        snapshotRepository.clearCurrent(courseId);
+        snapshotRepository.save(snapshot);
+
+        OutlineSnapshotDTO dto = toDTO(snapshot);
+        pointAfterCommit(courseId, dto);
+        logger.info("Published outline version {} of course {} ({})", snapshot.getVersion(), courseId, blob.hash());
+        return dto;
+    }
+
+    /**
+     * Points the course back at an earlier snapshot. Nothing is re-rendered.
+     */
+    @Transactional
+    public OutlineSnapshotDTO rollback(Long courseId, int version) {
+        requireEditor(courseId);
+        outlineJdbcRepository.lockCourse(courseId);
+
+        OutlineSnapshot snapshot = snapshotRepository.findByCourseIdAndVersion(courseId, version)
+                .orElseThrow(() -> new IllegalArgumentException("Outline version " + version + " not found for course: " + courseId));
+        if (!store.exists(snapshot.getHash())) {
+            throw new IllegalStateException("Content of outline version " + version + " is missing from the snapshot store");
+        }
+        snapshotRepository.clearCurrent(courseId);
+        snapshotRepository.markCurrent(snapshot.getId());
+        snapshot.setCurrent(true);
+
+        OutlineSnapshotDTO dto = toDTO(snapshot);
+        pointAfterCommit(courseId, dto);
+        logger.info("Rolled course {} outline back to version {}", courseId, version);
+        return dto;
+    }
+
+    public List<OutlineSnapshotDTO> getVersions(Long courseId) {
+        requireEditor(courseId);
+        return snapshotRepository.findByCourseIdOrderByVersionDesc(courseId).stream().map(this::toDTO).toList();
+    }
+
+    public OutlineSnapshotDTO getPublished(Long courseId) {
+        OutlineSnapshotDTO dto = published.get(courseId);
+        if (dto == null) {
+            throw new IllegalArgumentException("No published outline found for course: " + courseId);
+        }
+        return dto;
+    }
+
+    /**
+     * The outline the calling user reads: the draft for the course's instructor and admins,
+     * the published snapshot for everyone else.
+     */
+    public CourseOutlineCache.CachedOutline getOutlineForCurrentUser(Long courseId) {
+        if (currentUser.isAdmin() || ownershipResolver.isOwner(currentUser.getId(), courseId)) {
+            return courseContentService.getOutline(courseId);
+        }
+        return getLearnerOutline(courseId);
+    }
+
+    /**
+     * The outline learners see: the published snapshot, or the draft while the course has
+     * never been published. The ETag of a snapshot is its hash.
+     */
+    public CourseOutlineCache.CachedOutline getLearnerOutline(Long courseId) {
+        OutlineSnapshotDTO dto = published.get(courseId);
+        if (dto == null) {
+            return courseContentService.getOutline(courseId);
+        }
+        return publishedOutlines.computeIfAbsent(dto.getHash(),
+                hash -> new CourseOutlineCache.CachedOutline(dto.getVersion(), "\"" + hash + "\"", store.read(hash)));
+    }
+
+    public Path getBlob(String hash) {
+        if (!store.exists(hash)) {
+            throw new IllegalArgumentException("Outline snapshot not found: " + hash);
+        }
+        return store.path(hash);
+    }
+
+    public void forgetCourse(Long courseId) {
+        OutlineSnapshotDTO previous = published.remove(courseId);
+        if (previous != null) {
+            publishedOutlines.remove(previous.getHash());
+        }
+    }
+
+    private void pointAfterCommit(Long courseId, OutlineSnapshotDTO dto) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                OutlineSnapshotDTO previous = published.put(courseId, dto);
+                if (previous != null && !previous.getHash().equals(dto.getHash())) {
+                    // Another course publishing the same outline simply reloads it
+                    publishedOutlines.remove(previous.getHash());
+                }
+            }
+        });
+    }
+
+    private String requireEditor(Long courseId) {
+        if (!currentUser.isAdmin() && !currentUser.hasRole("INSTRUCTOR")) {
+            throw new AccessDeniedException("Only admins and instructors can publish course outlines");
+        }
+        Long owner = ownershipResolver.getOwner(courseId);
+        if (!currentUser.isAdmin() && !currentUser.getId().equals(owner)) {
+            throw new AccessDeniedException("Instructors can only publish the outline of their own courses");
+        }
+        return currentUser.getUsername();
+    }
+
+    private OutlineSnapshotDTO toDTO(OutlineSnapshot snapshot) {
+        OutlineSnapshotDTO dto = new OutlineSnapshotDTO();
+        dto.setCourseId(snapshot.getCourseId());
+        dto.setVersion(snapshot.getVersion());
+        dto.setHash(snapshot.getHash());
+        dto.setSizeBytes(snapshot.getSizeBytes());
+        dto.setPublishedAt(snapshot.getPublishedAt());
+        dto.setPublishedBy(snapshot.getPublishedBy());
+        dto.setCurrent(snapshot.isCurrent());
+        dto.setUrl(BLOB_PATH + snapshot.getHash());
+        return dto;
+    }
+}
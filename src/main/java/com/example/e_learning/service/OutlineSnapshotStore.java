@@ -0,0 +1,93 @@
+package com.example.e_learning.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed store of gzip-compressed outline snapshots on local disk. A blob's name
+ * is the SHA-256 of its uncompressed JSON, so writing the same outline twice is a no-op
+ * and a blob never changes once written.
+ */
+@Component
+public class OutlineSnapshotStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path directory;
+
+    public OutlineSnapshotStore(@Value("${outline.snapshots.dir:data/outline-snapshots}") String directory) {
+        this.directory = Path.of(directory);
+    }
+
+    public record StoredBlob(String hash, long sizeBytes) {
+    }
+
+    public StoredBlob write(byte[] json) {
+        String hash = sha256(json);
+        Path target = path(hash);
+        try {
+            if (Files.exists(target)) {
+                return new StoredBlob(hash, Files.size(target));
+            }
+            Files.createDirectories(directory);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            Path temp = Files.createTempFile(directory, hash, ".tmp");
+            Files.write(temp, compressed.toByteArray());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new StoredBlob(hash, compressed.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store outline snapshot " + hash, e);
+        }
+    }
+
+    /**
+     * Returns the uncompressed JSON of a blob. Callers must validate {@code hash} first.
+     */
+    public byte[] read(String hash) {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path(hash)))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read outline snapshot " + hash, e);
+        }
+    }
+
+    public boolean exists(String hash) {
+        return isValidHash(hash) && Files.isRegularFile(path(hash));
+    }
+
+    /**
+     * Path of the compressed blob. Callers must validate {@code hash} first.
+     */
+    public Path path(String hash) {
+        return directory.resolve(hash + ".json.gz");
+    }
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.e_learning.service;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.entity.RevokedToken;
+import com.example.e_learning.repository.RevokedTokenRepository;
+import com.example.e_learning.util.BloomFilter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Revoked token IDs, kept in memory until the tokens expire so the check on every request
+ * costs no query. A Bloom filter answers the common case, a token that was never revoked,
+ * without touching the exact set; the set is loaded from {@code revoked_token} at startup.
+ *
+ * <p>Revocations made on another instance reach this one only through the database, so they
+ * are seen here after a restart; refresh token rotation claims tokens through the database
+ * and is exact across instances.
+ */
+@Component
+public class RevokedTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedTokenStore.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final ConcurrentHashMap<String, Instant> revoked = new ConcurrentHashMap<>();
+    // Replaced wholesale by purge; writers hold the store's lock so no revocation misses the swap
+    private volatile BloomFilter filter;
+
+    public RevokedTokenStore(RevokedTokenRepository revokedTokenRepository,
+                             @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                             @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(Instant.now())) {
+            revoked.put(token.getId(), token.getExpiresAt());
+        }
+        rebuildFilter();
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes a token until it expires. Returns false when it had already been revoked, here
+     * or on another instance.
+     */
+    public boolean revoke(String tokenId, Instant expiresAt) {
+        boolean claimed = revokedTokenRepository.insertIfAbsent(tokenId, expiresAt, Instant.now()) > 0;
+        synchronized (this) {
+            boolean added = revoked.putIfAbsent(tokenId, expiresAt) == null;
+            filter.put(tokenId);
+            return claimed && added;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-ms:3600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        synchronized (this) {
+            if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now))) {
+                // Bloom filters cannot forget keys; a fresh one keeps the false positive rate down
+                rebuildFilter();
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2L * revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.e_learning.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.dto.SubtopicLinkStatusDTO;
+import com.example.e_learning.entity.SubtopicLinkStatus;
+import com.example.e_learning.repository.SubtopicLinkStatusJdbcRepository;
+import com.example.e_learning.repository.SubtopicLinkStatusJdbcRepository.LinkResult;
+import com.example.e_learning.repository.SubtopicLinkStatusJdbcRepository.LinkTarget;
+import com.example.e_learning.repository.SubtopicLinkStatusRepository;
+import com.example.e_learning.repository.SubtopicRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Periodically probes every subtopic URL and records status and latency per subtopic.
+ * Each probe runs on its own virtual thread. A probe first takes a permit for its host,
+ * so one origin is never hammered, and then one of a fixed number of connection permits;
+ * a host's permits are dropped once no probe uses them. The pager stops reading once too
+ * many probes are queued. Each scan uses its own HttpClient, closed at the end so pooled
+ * keep-alive sockets are released. A probe tries HEAD first and falls back to a one-byte
+ * ranged GET for servers that reject or mishandle HEAD.
+ *
+ * <p>URLs are written by instructors, so the checker must not become a way to reach the
+ * server's own network: before the first request and every redirect it follows, the host
+ * is resolved and refused if any of its addresses is loopback, link-local (including cloud
+ * metadata endpoints), private or otherwise not publicly routable. Only tests and local
+ * development should set {@code links.check.allow-private} to lift this.
+ */
+@Component
+public class SubtopicLinkChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubtopicLinkChecker.class);
+
+    public static final String OK = "OK";
+    public static final String BROKEN = "BROKEN";
+    public static final String TIMEOUT = "TIMEOUT";
+    public static final String ERROR = "ERROR";
+    public static final String INVALID = "INVALID";
+
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final int MAX_REDIRECTS = 5;
+
+    // Permits for one host and the number of probes holding or waiting for them
+    private static final class HostPermit {
+        private final Semaphore permits;
+        private int users;
+
+        private HostPermit(int maxPerHost) {
+            this.permits = new Semaphore(maxPerHost);
+        }
+    }
+
+    private static final class BlockedAddressException extends IOException {
+        private BlockedAddressException(String host) {
+            super("Host " + host + " resolves to a private or local address");
+        }
+    }
+
+    private final SubtopicRepository subtopicRepository;
+    private final SubtopicLinkStatusJdbcRepository linkStatusJdbcRepository;
+    private final SubtopicLinkStatusRepository linkStatusRepository;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ConcurrentHashMap<String, HostPermit> hostPermits = new ConcurrentHashMap<>();
+
+    private final int pageSize;
+    private final int maxConcurrency;
+    private final int maxPerHost;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final boolean allowPrivate;
+    private final Semaphore connections;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile RunSummary lastRun;
+
+    public record RunSummary(Instant startedAt, Instant finishedAt, long checked, long unhealthy) {
+    }
+
+    public SubtopicLinkChecker(SubtopicRepository subtopicRepository,
+                               SubtopicLinkStatusJdbcRepository linkStatusJdbcRepository,
+                               SubtopicLinkStatusRepository linkStatusRepository,
+                               @Value("${links.check.page-size:500}") int pageSize,
+                               @Value("${links.check.max-concurrency:256}") int maxConcurrency,
+                               @Value("${links.check.max-per-host:4}") int maxPerHost,
+                               @Value("${links.check.connect-timeout-ms:5000}") long connectTimeoutMs,
+                               @Value("${links.check.request-timeout-ms:10000}") long requestTimeoutMs,
+                               @Value("${links.check.allow-private:false}") boolean allowPrivate) {
+        this.subtopicRepository = subtopicRepository;
+        this.linkStatusJdbcRepository = linkStatusJdbcRepository;
+        this.linkStatusRepository = linkStatusRepository;
+        this.pageSize = pageSize;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPerHost = maxPerHost;
+        this.connectTimeout = Duration.ofMillis(connectTimeoutMs);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.allowPrivate = allowPrivate;
+        if (allowPrivate) {
+            logger.warn("Link checks may reach private and loopback addresses");
+        }
+        this.connections = new Semaphore(maxConcurrency);
+    }
+
+    public HttpClient newClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                // Redirects are followed by send, which checks the address of every hop
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public RunSummary getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Recorded results, unhealthy links first by default. {@code outcome} narrows to one
+     * outcome; null lists every link that is not {@link #OK}.
+     */
+    public Page<SubtopicLinkStatusDTO> getStatuses(String outcome, int page, int size) {
+        PageRequest request = PageRequest.of(page, size,
+                Sort.by(Sort.Order.desc("consecutiveFailures"), Sort.Order.asc("subtopicId")));
+        Page<SubtopicLinkStatus> statuses = outcome == null
+                ? linkStatusRepository.findByOutcomeNot(OK, request)
+                : linkStatusRepository.findByOutcome(outcome.toUpperCase(Locale.ROOT), request);
+        return statuses.map(this::toDTO);
+    }
+
+    public Map<String, Long> getOutcomeCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : linkStatusRepository.countByOutcome()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    @Scheduled(cron = "${links.check.cron:0 0 3 * * *}")
+    public void scheduledCheck() {
+        if (!checkAll()) {
+            logger.info("Skipping scheduled link check, a check is already running");
+        }
+    }
+
+    /**
+     * Starts a full scan on a background thread. Returns false if one is already running.
+     */
+    public boolean startCheck() {
+        if (running.get()) {
+            return false;
+        }
+        Thread.ofVirtual().name("link-check").start(this::checkAll);
+        return true;
+    }
+
+    /**
+     * Scans all subtopic URLs, blocking until every probe has finished and been recorded.
+     * Returns false without scanning if another scan holds the lock.
+     */
+    public boolean checkAll() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Instant startedAt = Instant.now();
+        int maxQueued = maxConcurrency * 8;
+        Semaphore queued = new Semaphore(maxQueued);
+        ConcurrentLinkedQueue<LinkResult> results = new ConcurrentLinkedQueue<>();
+        AtomicLong unhealthy = new AtomicLong();
+        long checked = 0;
+        try (HttpClient client = newClient()) {
+            long afterId = 0;
+            while (true) {
+                List<Object[]> page = subtopicRepository.findUrlsAfter(afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : page) {
+                    LinkTarget target = new LinkTarget((Long) row[0], (Long) row[1], (String) row[2]);
+                    // Blocks the pager once enough probes are waiting for a host or connection
+                    queued.acquire();
+                    executor.execute(() -> {
+                        try {
+                            LinkResult result = probe(client, target);
+                            if (!result.healthy()) {
+                                unhealthy.incrementAndGet();
+                            }
+                            results.add(result);
+                        } finally {
+                            queued.release();
+                        }
+                    });
+                    afterId = target.subtopicId();
+                }
+                checked += page.size();
+                flush(results, pageSize);
+            }
+            queued.acquire(maxQueued);
+            queued.release(maxQueued);
+            flush(results, 0);
+            int removed = linkStatusJdbcRepository.deleteOrphans();
+            lastRun = new RunSummary(startedAt, Instant.now(), checked, unhealthy.get());
+            logger.info("Link check finished: {} links, {} unhealthy, {} stale results removed in {} s",
+                    checked, unhealthy.get(), removed, Duration.between(startedAt, Instant.now()).toSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Link check failed after {} links: {}", checked, e.getMessage(), e);
+        } finally {
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * Probes a single URL, holding a permit for its host and a connection permit for the
+     * duration.
+     */
+    public LinkResult probe(HttpClient client, LinkTarget target) {
+        URI uri;
+        try {
+            uri = new URI(target.url().trim());
+        } catch (URISyntaxException e) {
+            return result(target, INVALID, null, null, "Malformed URL");
+        }
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!(scheme.equals("http") || scheme.equals("https")) || uri.getHost() == null) {
+            return result(target, INVALID, null, null, "Not an absolute http(s) URL");
+        }
+
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        HostPermit hostPermit = hostPermits.compute(host, (key, permit) -> {
+            HostPermit used = permit != null ? permit : new HostPermit(maxPerHost);
+            used.users++;
+            return used;
+        });
+        long started = System.nanoTime();
+        try {
+            hostPermit.permits.acquire();
+            try {
+                connections.acquire();
+                try {
+                    started = System.nanoTime();
+                    int status = send(client, uri, false);
+                    if (status == 405 || status == 501 || status == 403 || status >= 500) {
+                        // Many servers reject or mishandle HEAD; confirm with the smallest possible GET
+                        started = System.nanoTime();
+                        status = send(client, uri, true);
+                    }
+                    long latency = (System.nanoTime() - started) / 1_000_000;
+                    return result(target, status < 400 ? OK : BROKEN, status, latency, null);
+                } finally {
+                    connections.release();
+                }
+            } finally {
+                hostPermit.permits.release();
+            }
+        } catch (BlockedAddressException e) {
+            return result(target, INVALID, null, null, e.getMessage());
+        } catch (HttpTimeoutException e) {
+            return result(target, TIMEOUT, null, (System.nanoTime() - started) / 1_000_000, "Timed out");
+        } catch (IOException | IllegalArgumentException e) {
+            return result(target, ERROR, null, (System.nanoTime() - started) / 1_000_000,
+                    e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result(target, ERROR, null, null, "Interrupted");
+        } finally {
+            hostPermits.compute(host, (key, permit) -> --permit.users == 0 ? null : permit);
+        }
+    }
+
+    /**
+     * Sends a HEAD, or a one-byte ranged GET, and follows up to {@link #MAX_REDIRECTS}
+     * redirects, checking the address of each hop first. Returns the final status; a redirect
+     * without a usable Location is returned as is.
+     */
+    private int send(HttpClient client, URI uri, boolean rangedGet) throws IOException, InterruptedException {
+        URI current = uri;
+        for (int hop = 0; ; hop++) {
+            requirePublicHost(current.getHost());
+            HttpRequest.Builder request = HttpRequest.newBuilder(current)
+                    .timeout(requestTimeout)
+                    .header("User-Agent", "e-learning-link-checker");
+            if (rangedGet) {
+                request.GET().header("Range", "bytes=0-0");
+            } else {
+                request.method("HEAD", HttpRequest.BodyPublishers.noBody());
+            }
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            String location = response.headers().firstValue("Location").orElse(null);
+            if (!isRedirect(status) || location == null) {
+                return status;
+            }
+            if (hop == MAX_REDIRECTS) {
+                throw new IOException("More than " + MAX_REDIRECTS + " redirects");
+            }
+            current = current.resolve(location.trim());
+            String scheme = current.getScheme() == null ? "" : current.getScheme().toLowerCase(Locale.ROOT);
+            if (!(scheme.equals("http") || scheme.equals("https")) || current.getHost() == null) {
+                throw new IOException("Redirect to a non-http(s) URL");
+            }
+        }
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303 || status == 307 || status == 308;
+    }
+
+    private void requirePublicHost(String host) throws IOException {
+        if (allowPrivate) {
+            return;
+        }
+        for (InetAddress address : InetAddress.getAllByName(host)) {
+            if (!isPublicAddress(address)) {
+                throw new BlockedAddressException(host);
+            }
+        }
+    }
+
+    static boolean isPublicAddress(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            int first = bytes[0] & 0xff;
+            int second = bytes[1] & 0xff;
+            // 0.0.0.0/8, 100.64.0.0/10 (carrier-grade NAT), 198.18.0.0/15 (benchmarking), 240.0.0.0/4 (reserved)
+            return first != 0 && !(first == 100 && (second & 0xc0) == 64)
+                    && !(first == 198 && (second & 0xfe) == 18) && first < 240;
+        }
+        // fc00::/7, unique local addresses
+        return (bytes[0] & 0xfe) != 0xfc;
+    }
+
+    private void flush(ConcurrentLinkedQueue<LinkResult> results, int threshold) {
+        while (results.size() > threshold || (threshold == 0 && !results.isEmpty())) {
+            List<LinkResult> batch = new ArrayList<>(pageSize);
+            LinkResult result;
+            while (batch.size() < pageSize && (result = results.poll()) != null) {
+                batch.add(result);
+            }
+            linkStatusJdbcRepository.upsertBatch(batch);
+        }
+    }
+
+    private static LinkResult result(LinkTarget target, String outcome, Integer status, Long latencyMs, String error) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        return new LinkResult(target, outcome, status, latencyMs, message, OK.equals(outcome), Instant.now());
+    }
+
+    private SubtopicLinkStatusDTO toDTO(SubtopicLinkStatus status) {
+        SubtopicLinkStatusDTO dto = new SubtopicLinkStatusDTO();
+        dto.setSubtopicId(status.getSubtopicId());
+        dto.setCourseId(status.getCourseId());
+        dto.setUrl(status.getUrl());
+        dto.setOutcome(status.getOutcome());
+        dto.setStatusCode(status.getStatusCode());
+        dto.setLatencyMs(status.getLatencyMs());
+        dto.setError(status.getError());
+        dto.setConsecutiveFailures(status.getConsecutiveFailures());
+        dto.setCheckedAt(status.getCheckedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.e_learning.service;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.e_learning.repository.UserRepository;
+import com.example.e_learning.util.BloomFilter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory index of registered usernames and emails for availability checks. Keys are
+ * normalized (trimmed, lower case) and kept in a Bloom filter, so a name nobody has taken
+ * is answered without a query; a positive answer only means the name might be taken and is
+ * confirmed against the database.
+ *
+ * <p>Every {@code users.index.sync-ms} the index reads only the users created since the
+ * highest ID it has seen, which picks up signups made on other instances. A full rebuild
+ * runs every {@code users.index.rebuild-ms}, or at the next sync once the filter holds more
+ * keys than it was sized for. Rebuilds drop names released by deletes and renames, which a
+ * Bloom filter cannot forget; until then they only cost a confirming query. A name whose
+ * row commits after a higher ID was already seen is missed until the next rebuild and may be
+ * reported as available here; signup does not trust this index and fails on the unique
+ * constraint instead.
+ */
+@Component
+public class UserExistenceIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExistenceIndex.class);
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+    // Receives names added while a rebuild is loading, guarded by the index's lock
+    private BloomFilter rebuilding;
+    // Sweep state, guarded by sweepLock so a sync never writes into a filter being replaced
+    private final Object sweepLock = new Object();
+    private long lastSeenId;
+    private long indexedUsers;
+    private long capacity;
+
+    public UserExistenceIndex(UserRepository userRepository,
+                              @Value("${users.index.expected-users:100000}") long expectedUsers,
+                              @Value("${users.index.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    public boolean mightHaveUsername(String username) {
+        return username != null && filter.mightContain(usernameKey(username));
+    }
+
+    public boolean mightHaveEmail(String email) {
+        return email != null && filter.mightContain(emailKey(email));
+    }
+
+    public synchronized void add(String username, String email) {
+        if (username != null) {
+            put(usernameKey(username));
+        }
+        if (email != null) {
+            put(emailKey(email));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${users.index.sync-ms:60000}", fixedDelayString = "${users.index.sync-ms:60000}")
+    public void sync() {
+        synchronized (sweepLock) {
+            if (indexedUsers > capacity) {
+                rebuild();
+                return;
+            }
+            List<Object[]> entries = userRepository.findIndexEntriesAfter(lastSeenId);
+            BloomFilter current = filter;
+            for (Object[] entry : entries) {
+                lastSeenId = Math.max(lastSeenId, index(current, entry));
+            }
+            indexedUsers += entries.size();
+            if (!entries.isEmpty()) {
+                logger.debug("Indexed {} users created since the last sync", entries.size());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${users.index.rebuild-ms:21600000}", fixedDelayString = "${users.index.rebuild-ms:21600000}")
+    public void rebuild() {
+        synchronized (sweepLock) {
+            List<Object[]> entries = userRepository.findIndexEntriesAfter(0);
+            // Half full after a rebuild, so syncs can add as many users again before the next one
+            long sized = Math.max(expectedUsers, 2L * entries.size());
+            BloomFilter rebuilt = new BloomFilter(2 * sized, falsePositiveRate);
+            synchronized (this) {
+                rebuilding = rebuilt;
+            }
+            boolean loaded = false;
+            long highestId = 0;
+            try {
+                for (Object[] entry : entries) {
+                    highestId = Math.max(highestId, index(rebuilt, entry));
+                }
+                loaded = true;
+            } finally {
+                synchronized (this) {
+                    if (loaded) {
+                        filter = rebuilt;
+                    }
+                    rebuilding = null;
+                }
+                if (loaded) {
+                    lastSeenId = highestId;
+                    indexedUsers = entries.size();
+                    capacity = sized;
+                }
+            }
+            logger.debug("Indexed usernames and emails of {} users", entries.size());
+        }
+    }
+
+    // Returns the user's ID
+    private static long index(BloomFilter target, Object[] entry) {
+        String username = (String) entry[1];
+        String email = (String) entry[2];
+        if (username != null) {
+            target.put(usernameKey(username));
+        }
+        if (email != null) {
+            target.put(emailKey(email));
+        }
+        return ((Number) entry[0]).longValue();
+    }
+
+    private void put(String key) {
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (rebuilding != null) {
+            rebuilding.put(key);
+        }
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+}
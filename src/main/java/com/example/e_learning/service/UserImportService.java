@@ -0,0 +1,253 @@
+package com.example.e_learning.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.e_learning.config.AdaptiveBCryptPasswordEncoder;
+import com.example.e_learning.dto.UserImportResultDTO;
+import com.example.e_learning.dto.UserImportRowDTO;
+import com.example.e_learning.repository.UserJdbcRepository;
+import com.example.e_learning.repository.UserJdbcRepository.NewUser;
+import com.example.e_learning.repository.UserRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Provisions learners from a CSV with the columns {@code name,email,username,password}, in
+ * any order after a header row. The file is read a batch at a time: each batch is checked
+ * against existing users with one IN-query per column, its passwords are hashed in parallel
+ * on a fork-join pool, and it is inserted in a single JDBC batch whose unique constraints
+ * settle any race with concurrent signups.
+ *
+ * <p>Passwords are hashed at {@code users.import.bcrypt-strength}, by default the minimum
+ * cost, since hashing dominates the import; the login rehash upgrades each one to the
+ * calibrated cost the first time its user signs in.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String INVALID = "INVALID";
+
+    private static final List<String> COLUMNS = List.of("name", "email", "username", "password");
+
+    private record PendingUser(int row, String name, String email, String username, String password) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final UserExistenceIndex userExistenceIndex;
+    private final AdaptiveBCryptPasswordEncoder encoder;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public UserImportService(UserRepository userRepository,
+                             UserJdbcRepository userJdbcRepository,
+                             UserExistenceIndex userExistenceIndex,
+                             @Value("${users.import.bcrypt-strength:${password.bcrypt.min-strength:10}}") int strength,
+                             @Value("${users.import.threads:0}") int threads,
+                             @Value("${users.import.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.userExistenceIndex = userExistenceIndex;
+        this.encoder = new AdaptiveBCryptPasswordEncoder(strength);
+        // Hashing is CPU-bound, so the pool matches the cores unless configured otherwise
+        this.hashingPool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports every row of the CSV and reports the outcome of each.
+     *
+     * @throws IllegalStateException when another import is running
+     */
+    public UserImportResultDTO importUsers(InputStream body) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another user import is in progress");
+        }
+        long started = System.nanoTime();
+        List<UserImportRowDTO> results = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = readHeader(reader.readLine());
+            Set<String> seenUsernames = new HashSet<>();
+            Set<String> seenEmails = new HashSet<>();
+            List<PendingUser> batch = new ArrayList<>(batchSize);
+            int row = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                row++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseLine(line);
+                PendingUser user = new PendingUser(row, field(fields, columns, "name"), field(fields, columns, "email"),
+                        field(fields, columns, "username"), field(fields, columns, "password"));
+                String problem = validate(user);
+                if (problem != null) {
+                    results.add(result(user, INVALID, problem));
+                } else if (seenUsernames.contains(user.username())) {
+                    results.add(result(user, DUPLICATE, "Username appears earlier in the file"));
+                } else if (seenEmails.contains(user.email())) {
+                    results.add(result(user, DUPLICATE, "Email appears earlier in the file"));
+                } else {
+                    seenUsernames.add(user.username());
+                    seenEmails.add(user.email());
+                    batch.add(user);
+                    if (batch.size() == batchSize) {
+                        importBatch(batch, results);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, results);
+            }
+        } finally {
+            running.set(false);
+        }
+
+        results.sort(Comparator.comparingInt(UserImportRowDTO::getRow));
+        UserImportResultDTO dto = new UserImportResultDTO();
+        dto.setRows(results);
+        dto.setCreated((int) results.stream().filter(r -> CREATED.equals(r.getStatus())).count());
+        dto.setDuplicates((int) results.stream().filter(r -> DUPLICATE.equals(r.getStatus())).count());
+        dto.setInvalid((int) results.stream().filter(r -> INVALID.equals(r.getStatus())).count());
+        dto.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        logger.info("Imported {} users ({} duplicates, {} invalid) in {} ms",
+                dto.getCreated(), dto.getDuplicates(), dto.getInvalid(), dto.getDurationMs());
+        return dto;
+    }
+
+    private void importBatch(List<PendingUser> batch, List<UserImportRowDTO> results) {
+        Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                batch.stream().map(PendingUser::username).toList()));
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(
+                batch.stream().map(PendingUser::email).toList()));
+        List<PendingUser> fresh = new ArrayList<>(batch.size());
+        for (PendingUser user : batch) {
+            if (existingUsernames.contains(user.username())) {
+                results.add(result(user, DUPLICATE, "Username already registered"));
+            } else if (existingEmails.contains(user.email())) {
+                results.add(result(user, DUPLICATE, "Email already registered"));
+            } else {
+                fresh.add(user);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        List<NewUser> rows = hashingPool.submit(() -> fresh.parallelStream()
+                .map(user -> new NewUser(user.name(), user.email(), user.username(),
+                        "{bcrypt}" + encoder.encode(user.password()), "USER"))
+                .toList()).join();
+        boolean[] inserted = userJdbcRepository.insertIgnoringConflicts(rows);
+        for (int i = 0; i < fresh.size(); i++) {
+            PendingUser user = fresh.get(i);
+            if (inserted[i]) {
+                userExistenceIndex.add(user.username(), user.email());
+                results.add(result(user, CREATED, null));
+            } else {
+                results.add(result(user, DUPLICATE, "Username or email already registered"));
+            }
+        }
+    }
+
+    private static Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        List<String> names = parseLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain the columns " + String.join(", ", COLUMNS));
+        }
+        return columns;
+    }
+
+    private static String validate(PendingUser user) {
+        if (user.username() == null) {
+            return "Username cannot be empty";
+        }
+        if (user.email() == null || user.email().indexOf('@') < 1) {
+            return "Email is missing or invalid";
+        }
+        if (user.password() == null) {
+            return "Password cannot be empty";
+        }
+        return null;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        int index = columns.get(column);
+        if (index >= fields.size()) {
+            return null;
+        }
+        // Passwords are taken as written; other values are trimmed
+        String value = column.equals("password") ? fields.get(index) : fields.get(index).trim();
+        return value.isBlank() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: commas separate, double quotes enclose, "" escapes a quote
+    private static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static UserImportRowDTO result(PendingUser user, String status, String message) {
+        return new UserImportRowDTO(user.row(), user.username(), user.email(), status, message);
+    }
+}
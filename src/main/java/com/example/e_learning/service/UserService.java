@@ -3,6 +3,7 @@ package com.example.e_learning.service;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,28 +14,30 @@ import com.example.e_learning.entity.User;
 import com.example.e_learning.repository.UserRepository;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserExistenceIndex userExistenceIndex;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       UserExistenceIndex userExistenceIndex) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userExistenceIndex = userExistenceIndex;
     }
 
+    /**
+     * Registers a user. Names the index has never seen go straight to the insert, and the
+     * unique constraints decide any race; known names are rejected before hashing the password.
+     */
     @Transactional
     public void registerUser(SignupRequest signupRequest) {
-        if (userRepository.findByUsername(signupRequest.getUsername()).isPresent()) {
-            throw new IllegalArgumentException("Username already registered");
-        }
-        if (userRepository.findByEmail(signupRequest.getEmail()).isPresent()) {
-            throw new IllegalArgumentException("Email already registered");
-        }
         if (signupRequest.getUsername() == null || signupRequest.getUsername().trim().isEmpty()) {
             throw new IllegalArgumentException("Username cannot be empty");
         }
@@ -44,6 +47,12 @@ public class UserService implements UserDetailsService {
         if (signupRequest.getEmail() == null || signupRequest.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("Email cannot be empty");
         }
+        if (isUsernameTaken(signupRequest.getUsername())) {
+            throw new IllegalArgumentException("Username already registered");
+        }
+        if (isEmailTaken(signupRequest.getEmail())) {
+            throw new IllegalArgumentException("Email already registered");
+        }
 
         User user = new User();
         user.setName(signupRequest.getName());
@@ -54,17 +63,32 @@ public class UserService implements UserDetailsService {
 
         try {
             userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(conflictMessage(e));
         } catch (Exception e) {
-            if (e.getCause() instanceof DataIntegrityViolationException) {
-                if (userRepository.findByUsername(signupRequest.getUsername()).isPresent()) {
-                    throw new IllegalArgumentException("Username already registered");
-                }
-                if (userRepository.findByEmail(signupRequest.getEmail()).isPresent()) {
-                    throw new IllegalArgumentException("Email already registered");
-                }
-            }
             throw new IllegalArgumentException("Registration failed: " + e.getMessage());
         }
+        userExistenceIndex.add(user.getUsername(), user.getEmail());
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return userExistenceIndex.mightHaveUsername(username) && userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return userExistenceIndex.mightHaveEmail(email) && userRepository.existsByEmail(email);
+    }
+
+    // Postgres names the violated column in the detail, e.g. "Key (email)=(...) already exists"
+    private static String conflictMessage(DataIntegrityViolationException e) {
+        String detail = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (detail.contains("(email)")) {
+            return "Email already registered";
+        }
+        if (detail.contains("(username)")) {
+            return "Username already registered";
+        }
+        return "Username or email already registered";
     }
 
     public List<UserDTO> getAllUsers() {
@@ -101,12 +125,27 @@ public class UserService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase())));
     }
 
+    /**
+     * Stores a rehashed password after a successful login, when the stored hash used a
+     * different BCrypt cost or lacked the encoder prefix.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     @Transactional
     public void updateUserDetails(String email, UserDTO updatedUser) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         user.setName(updatedUser.getName());
+        if (!Objects.equals(user.getUsername(), updatedUser.getUsername())) {
+            userExistenceIndex.add(updatedUser.getUsername(), null);
+        }
         user.setUsername(updatedUser.getUsername());
         if (!updatedUser.getEmail().equals(user.getEmail())) {
             throw new IllegalArgumentException("Email updates are not allowed.");
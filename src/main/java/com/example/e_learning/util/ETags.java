@@ -0,0 +1,41 @@
+package com.example.e_learning.util;
+
+/**
+ * Evaluates {@code If-None-Match} headers. The header may list several tags separated by
+ * commas, or be {@code *}; tags are compared weakly, as RFC 9110 requires for this header,
+ * so a {@code W/} prefix is ignored.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Returns true when {@code ifNoneMatch} names {@code etag}, in which case a GET should be
+     * answered with 304 Not Modified.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String current = opaque(etag, 0, etag.length());
+        int start = 0;
+        while (start <= ifNoneMatch.length()) {
+            int end = ifNoneMatch.indexOf(',', start);
+            if (end < 0) {
+                end = ifNoneMatch.length();
+            }
+            String candidate = opaque(ifNoneMatch, start, end);
+            if (candidate.equals("*") || candidate.equals(current)) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static String opaque(String header, int start, int end) {
+        String tag = header.substring(start, end).trim();
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.e_learning.util;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends a byte range of a file as the response body without copying it through the heap.
+ * On Tomcat's NIO connector the transfer is handed to the connector's sendfile support, so
+ * the kernel moves the bytes from the page cache straight to the socket; elsewhere it
+ * falls back to {@link FileChannel#transferTo}.
+ */
+public final class FileTransfer {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileTransfer() {
+    }
+
+    /**
+     * Writes {@code length} bytes of {@code file} starting at {@code start}. Status and
+     * headers other than Content-Length must already be set on the response.
+     */
+    public static void send(HttpServletRequest request, HttpServletResponse response,
+                            Path file, long start, long length) throws IOException {
+        response.setContentLengthLong(length);
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    throw new IOException("Unexpected end of file " + file);
+                }
+                position += sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.e_learning.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size table of rate limit buckets keyed by 64-bit hashes, using the generic cell
+ * rate algorithm: each slot stores only its key and the theoretical arrival time of the next
+ * request, both in primitive arrays updated with compare-and-set.
+ *
+ * <p>Memory is bounded by the capacity. A bucket whose arrival time has passed is full again,
+ * so its slot can be taken over by another key without losing anything; when every slot in
+ * a key's probe window is busy, the one closest to refilling is evicted. Under contention on
+ * a single slot the accounting is approximate, never blocking.
+ */
+public final class RateLimitTable {
+
+    private static final long EMPTY = 0L;
+    private static final int PROBES = 8;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray arrivals;
+    private final int mask;
+    private final long origin = System.nanoTime();
+
+    public RateLimitTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(64, capacity - 1) << 1);
+        this.keys = new AtomicLongArray(size);
+        this.arrivals = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return keys.length();
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns 0 when the request is admitted, or the
+     * nanoseconds until one would be.
+     *
+     * @param intervalNanos  time to refill one token
+     * @param toleranceNanos interval times the bucket size; how far ahead the bucket may be spent
+     */
+    public long acquire(long key, long intervalNanos, long toleranceNanos) {
+        if (key == EMPTY) {
+            key = 1;
+        }
+        long now = System.nanoTime() - origin;
+        while (true) {
+            int slot = slotFor(key, now);
+            long arrival = arrivals.get(slot);
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivals.compareAndSet(slot, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private int slotFor(long key, long now) {
+        int home = (int) (key ^ (key >>> 32)) & mask;
+        while (true) {
+            // The whole window is searched for the key first: a key pushed past a slot that
+            // later refills must keep its own bucket, not take a full one
+            int free = -1;
+            long freeKey = EMPTY;
+            int victim = -1;
+            long victimKey = EMPTY;
+            long victimArrival = Long.MAX_VALUE;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (home + i) & mask;
+                long current = keys.get(slot);
+                if (current == key) {
+                    return slot;
+                }
+                long arrival = arrivals.get(slot);
+                if (current == EMPTY || arrival <= now) {
+                    if (free < 0) {
+                        free = slot;
+                        freeKey = current;
+                    }
+                } else if (arrival < victimArrival) {
+                    victim = slot;
+                    victimKey = current;
+                    victimArrival = arrival;
+                }
+            }
+            // Refilled buckets are as good as empty ones and cost no reset
+            if (free >= 0) {
+                if (keys.compareAndSet(free, freeKey, key)) {
+                    return free;
+                }
+            } else if (keys.compareAndSet(victim, victimKey, key)) {
+                return victim;
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.e_learning.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    private final AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+    @Test
+    void weakerHashesAreUpgraded() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    void hashesAtOrAboveTheCostAreKept() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        // Written by an instance calibrated on faster hardware
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void unrecognisedHashesAreLeftAlone() {
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        int cost = AdaptiveBCryptPasswordEncoder.calibrate(1, 4, 6);
+        assertTrue(cost >= 4 && cost <= 6, "cost " + cost);
+        assertEquals(5, AdaptiveBCryptPasswordEncoder.calibrate(60_000, 4, 5));
+    }
+}
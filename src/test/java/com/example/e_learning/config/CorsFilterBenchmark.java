@@ -0,0 +1,180 @@
+package com.example.e_learning.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-request cost of the edge and security filters in front of a handler, before and after
+ * CORS handling moved into {@link CorsFilter} alone. The {@code legacy} chain is the earlier
+ * configuration: a CORS filter that wrote every header and printed each request, Spring's
+ * CORS filter from the security chain, and the same headers written again ahead of JWT
+ * authentication. Both chains then run {@link RateLimitFilter} and {@link JwtAuthFilter} with
+ * the application's route table, and end in an empty servlet. Requests are anonymous, so no
+ * token is verified.
+ *
+ * <p>The legacy println goes to a discarding stream and new-filter logging is not sampled, so
+ * neither includes console I/O; in production the legacy chain also paid a synchronized
+ * write to stdout per request. Run the {@link #main} method from the test classpath after
+ * {@code mvn test-compile}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorsFilterBenchmark {
+
+    private static final String ORIGIN = "https://e-learning-management.netlify.app";
+
+    private final HttpServlet handler = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse res) {
+        }
+    };
+
+    private Filter[] legacyFilters;
+    private Filter[] filters;
+
+    @Setup
+    public void setUp() {
+        RouteTable routeTable = SecurityConfig.routeTable();
+        RateLimitFilter rateLimitFilter = new RateLimitFilter(new RateLimiter(1024, new SimpleMeterRegistry()), routeTable);
+        JwtAuthFilter jwtAuthFilter = new JwtAuthFilter();
+        ReflectionTestUtils.setField(jwtAuthFilter, "routeTable", routeTable);
+
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(List.of(ORIGIN));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(List.of("*"));
+        configuration.setAllowCredentials(true);
+        configuration.setMaxAge(3600L);
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+
+        legacyFilters = new Filter[] {
+                new LegacyCorsFilter(new PrintStream(OutputStream.nullOutputStream())),
+                new org.springframework.web.filter.CorsFilter(source),
+                rateLimitFilter,
+                new LegacyJwtCorsHeaders(),
+                jwtAuthFilter
+        };
+        filters = new Filter[] {
+                new CorsFilter(ORIGIN, "GET, POST, PUT, DELETE, OPTIONS", "*", 3600, 0),
+                rateLimitFilter,
+                jwtAuthFilter
+        };
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyRequest() throws ServletException, IOException {
+        return run(request("GET"), legacyFilters);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse request() throws ServletException, IOException {
+        return run(request("GET"), filters);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse legacyPreflight() throws ServletException, IOException {
+        return run(request("OPTIONS"), legacyFilters);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse preflight() throws ServletException, IOException {
+        return run(request("OPTIONS"), filters);
+    }
+
+    // A chain, request and response are single-use, so each call builds its own
+    private MockHttpServletResponse run(MockHttpServletRequest request, Filter[] chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(handler, chain).doFilter(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/courses/7/enrollment-count");
+        request.addHeader("Origin", ORIGIN);
+        if (method.equals("OPTIONS")) {
+            request.addHeader("Access-Control-Request-Method", "GET");
+        }
+        return request;
+    }
+
+    // CorsFilter as it was before the change
+    private static final class LegacyCorsFilter extends OncePerRequestFilter {
+
+        private final PrintStream out;
+
+        private LegacyCorsFilter(PrintStream out) {
+            this.out = out;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                throws ServletException, IOException {
+            response.setHeader("Access-Control-Allow-Origin", ORIGIN);
+            response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+            response.setHeader("Access-Control-Allow-Headers", "*");
+            response.setHeader("Access-Control-Allow-Credentials", "true");
+            response.setHeader("Access-Control-Max-Age", "3600");
+            out.println("CorsFilter applied for request: " + request.getRequestURI());
+            if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                return;
+            }
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    // The headers JwtAuthFilter wrote before the change, ahead of its authentication work
+    private static final class LegacyJwtCorsHeaders extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+                throws ServletException, IOException {
+            res.setHeader("Access-Control-Allow-Origin", ORIGIN);
+            res.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
+            res.setHeader("Access-Control-Allow-Headers", "*");
+            res.setHeader("Access-Control-Allow-Credentials", "true");
+            chain.doFilter(req, res);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CorsFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.e_learning.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.example.e_learning.config.RouteTable.Access;
+import com.example.e_learning.config.RouteTable.Route;
+
+import jakarta.servlet.DispatcherType;
+
+class RouteTableTest {
+
+    private final RouteTable table = RouteTable.builder()
+            .match("/auth/login", "/swagger-ui/**").permitAll()
+            .match(HttpMethod.GET, "/courses", "/instructor/{instructorId}", "/instructor/{instructorId}/courses").permitAll()
+            .match("/instructor/apply", "/instructor/applications").authenticated()
+            .match("/courses/enrolled-courses").hasAnyRole("USER", "ADMIN")
+            .match("/actuator/**").hasRole("ADMIN")
+            .build();
+
+    @Test
+    void literalRoutesMatchExactly() {
+        Route route = table.classify("POST", "/auth/login");
+        assertEquals("/auth/login", route.pattern());
+        assertEquals(Access.PUBLIC, route.access());
+    }
+
+    @Test
+    void unlistedPathsRequireAuthentication() {
+        Route route = table.classify("GET", "/auth/login/extra");
+        assertEquals(Access.AUTHENTICATED, route.access());
+        assertEquals("/**", route.pattern());
+        assertEquals(Access.AUTHENTICATED, table.classify("GET", "").access());
+    }
+
+    @Test
+    void methodRoutesOnlyMatchTheirMethod() {
+        assertEquals(Access.PUBLIC, table.classify("GET", "/courses").access());
+        Route post = table.classify("POST", "/courses");
+        assertEquals(Access.AUTHENTICATED, post.access());
+        assertEquals("/**", post.pattern());
+        assertEquals(Access.AUTHENTICATED, table.classify("DELETE", "/instructor/7").access());
+    }
+
+    @Test
+    void literalsWinOverVariables() {
+        assertEquals("/instructor/applications", table.classify("GET", "/instructor/applications").pattern());
+        assertEquals(Access.AUTHENTICATED, table.classify("GET", "/instructor/applications").access());
+        assertEquals("/instructor/{instructorId}", table.classify("GET", "/instructor/7").pattern());
+        assertEquals("/instructor/{instructorId}/courses", table.classify("GET", "/instructor/7/courses").pattern());
+    }
+
+    @Test
+    void variablesNeverMatchEmptySegments() {
+        assertEquals("/**", table.classify("GET", "/instructor//courses").pattern());
+    }
+
+    @Test
+    void remainderMatchesAnyDepthIncludingNone() {
+        assertEquals("/swagger-ui/**", table.classify("GET", "/swagger-ui").pattern());
+        assertEquals("/swagger-ui/**", table.classify("GET", "/swagger-ui/index.html").pattern());
+        assertEquals("/swagger-ui/**", table.classify("GET", "/swagger-ui/a/b/c").pattern());
+    }
+
+    @Test
+    void roleRoutesCarryTheirAuthorities() {
+        Route route = table.classify("GET", "/courses/enrolled-courses");
+        assertEquals(Access.ROLE, route.access());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), route.authorities());
+        assertEquals(List.of("ROLE_ADMIN"), table.classify("GET", "/actuator/health").authorities());
+    }
+
+    @Test
+    void methodRouteWinsOverAnyMethodRouteForTheSamePattern() {
+        RouteTable mixed = RouteTable.builder()
+                .match(HttpMethod.GET, "/items").permitAll()
+                .match("/items").hasRole("ADMIN")
+                .build();
+        assertEquals(Access.PUBLIC, mixed.classify("GET", "/items").access());
+        assertEquals(Access.ROLE, mixed.classify("POST", "/items").access());
+    }
+
+    @Test
+    void overlappingRoutesAreRejected() {
+        assertThrows(IllegalStateException.class, () -> RouteTable.builder()
+                .match("/courses/{courseId}").permitAll()
+                .match("/courses/{id}").authenticated());
+        assertThrows(IllegalStateException.class, () -> RouteTable.builder()
+                .match(HttpMethod.GET, "/courses").permitAll()
+                .match(HttpMethod.GET, "/courses").authenticated());
+    }
+
+    @Test
+    void malformedPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RouteTable.builder().match("courses").permitAll());
+        assertThrows(IllegalArgumentException.class, () -> RouteTable.builder().match("/a/**/b").permitAll());
+    }
+
+    @Test
+    void preflightsArePublic() {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/actuator/health");
+        assertEquals(Access.PREFLIGHT, table.classify(request).access());
+    }
+
+    @Test
+    void requestClassificationIsCachedOnTheRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/courses");
+        request.setContextPath("/app");
+        Route route = table.classify(request);
+        assertEquals("/courses", route.pattern());
+        assertSame(route, request.getAttribute(RouteTable.ATTRIBUTE));
+        assertSame(route, table.classify(request));
+    }
+
+    @Test
+    void encodedSegmentsAreClassifiedDecoded() {
+        MockHttpServletRequest actuator = new MockHttpServletRequest("GET", "/%61ctuator/metrics");
+        assertEquals("/actuator/**", table.classify(actuator).pattern());
+        assertEquals(Access.ROLE, table.classify(actuator).access());
+
+        MockHttpServletRequest applications = new MockHttpServletRequest("GET", "/instructor/%61pplications");
+        assertEquals("/instructor/applications", table.classify(applications).pattern());
+        assertEquals(Access.AUTHENTICATED, table.classify(applications).access());
+    }
+
+    @Test
+    void encodedPathsAreMatchedWithinTheApplication() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/%61ctuator/health");
+        request.setContextPath("/app");
+        assertEquals("/actuator/**", table.classify(request).pattern());
+    }
+
+    @Test
+    void matrixVariablesAreIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator;a=1/metrics");
+        assertEquals("/actuator/**", table.classify(request).pattern());
+        MockHttpServletRequest variable = new MockHttpServletRequest("GET", "/instructor/7;x=%61/courses");
+        assertEquals("/instructor/{instructorId}/courses", table.classify(variable).pattern());
+    }
+
+    @Test
+    void errorDispatchesAreNotCached() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courses");
+        request.setDispatcherType(DispatcherType.ERROR);
+        table.classify(request);
+        assertNull(request.getAttribute(RouteTable.ATTRIBUTE));
+    }
+}
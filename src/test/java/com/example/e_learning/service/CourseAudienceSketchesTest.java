@@ -0,0 +1,142 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.e_learning.entity.CourseAudienceSketch;
+import com.example.e_learning.repository.CourseAudienceSketchRepository;
+import com.example.e_learning.repository.EnrollmentRepository;
+import com.example.e_learning.repository.FeedbackRepository;
+
+class CourseAudienceSketchesTest {
+
+    private static final int COURSES = 12;
+    private static final int USERS = 200_000;
+
+    private final CourseAudienceSketchRepository sketchRepository = mock(CourseAudienceSketchRepository.class);
+    private final EnrollmentRepository enrollmentRepository = mock(EnrollmentRepository.class);
+    private final FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+
+    @Test
+    void mergedEstimatesStayWithinThreeStandardErrorsOfExactCounts() {
+        for (long seed : new long[] {1, 2, 3}) {
+            Audience audience = new Audience(new Random(seed));
+            CourseAudienceSketches sketches = newSketches(audience);
+
+            for (List<Long> courseIds : List.of(audience.courseIds(), audience.courseIds().subList(0, COURSES / 2),
+                    audience.courseIds().subList(COURSES / 3, COURSES), List.of(audience.courseIds().get(0)))) {
+                CourseAudienceSketches.Estimate estimate = sketches.estimate(courseIds);
+                assertWithinThreeSigma(audience.distinct(audience.learners, courseIds), estimate.learners(),
+                        estimate.relativeError(), "learners, seed " + seed + ", courses " + courseIds);
+                assertWithinThreeSigma(audience.distinct(audience.reviewers, courseIds), estimate.reviewers(),
+                        estimate.relativeError(), "reviewers, seed " + seed + ", courses " + courseIds);
+            }
+        }
+    }
+
+    @Test
+    void flushedSketchesReloadToTheSameEstimate() {
+        Audience audience = new Audience(new Random(4));
+        CourseAudienceSketches sketches = newSketches(audience);
+        CourseAudienceSketches.Estimate before = sketches.estimate(audience.courseIds());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CourseAudienceSketch>> saved = ArgumentCaptor.forClass(List.class);
+        sketches.flush();
+        verify(sketchRepository).saveAll(saved.capture());
+        assertEquals(COURSES, saved.getValue().size());
+        for (CourseAudienceSketch row : saved.getValue()) {
+            when(sketchRepository.findById(row.getCourseId())).thenReturn(Optional.of(row));
+        }
+
+        // Reloaded from the stored rows, not rebuilt from enrollments and feedback
+        when(enrollmentRepository.findUserIdsByCourseId(any())).thenReturn(List.of());
+        when(feedbackRepository.findUserIdsByCourseId(any())).thenReturn(List.of());
+        CourseAudienceSketches reloaded = new CourseAudienceSketches(sketchRepository, enrollmentRepository,
+                feedbackRepository);
+        assertEquals(before, reloaded.estimate(audience.courseIds()));
+    }
+
+    // Half the courses are rebuilt from the repositories, the rest grow through the write paths
+    private CourseAudienceSketches newSketches(Audience audience) {
+        when(sketchRepository.findById(any())).thenReturn(Optional.empty());
+        CourseAudienceSketches sketches = new CourseAudienceSketches(sketchRepository, enrollmentRepository,
+                feedbackRepository);
+        for (Long courseId : audience.courseIds()) {
+            boolean rebuilt = courseId % 2 == 0;
+            when(enrollmentRepository.findUserIdsByCourseId(courseId))
+                    .thenReturn(rebuilt ? audience.learners.get(courseId) : List.of());
+            when(feedbackRepository.findUserIdsByCourseId(courseId))
+                    .thenReturn(rebuilt ? audience.reviewers.get(courseId) : List.of());
+            if (!rebuilt) {
+                audience.learners.get(courseId).forEach(userId -> sketches.learnerAdded(courseId, userId));
+                audience.reviewers.get(courseId).forEach(userId -> sketches.reviewerAdded(courseId, userId));
+            }
+        }
+        return sketches;
+    }
+
+    private static void assertWithinThreeSigma(long exact, long estimate, double relativeError, String what) {
+        double error = Math.abs(estimate - exact) / (double) exact;
+        assertTrue(error <= 3 * relativeError, what + ": estimated " + estimate + " for " + exact + " distinct");
+    }
+
+    /**
+     * Random enrollments and reviews over a shared pool of users, so courses overlap. Some
+     * users are drawn more than once per course, as repeated rows would be, and a few reviews
+     * come from users who are not enrolled.
+     */
+    private static final class Audience {
+
+        final Map<Long, List<Long>> learners = new HashMap<>();
+        final Map<Long, List<Long>> reviewers = new HashMap<>();
+
+        Audience(Random random) {
+            for (long courseId = 1; courseId <= COURSES; courseId++) {
+                int size = 2_000 + random.nextInt(40_000);
+                List<Long> enrolled = new ArrayList<>(size);
+                List<Long> reviewed = new ArrayList<>();
+                // Each course draws from its own window of the pool, overlapping its neighbours
+                int offset = random.nextInt(USERS / 2);
+                for (int i = 0; i < size; i++) {
+                    long userId = 1 + offset + random.nextInt(USERS / 2);
+                    enrolled.add(userId);
+                    if (random.nextInt(5) == 0) {
+                        reviewed.add(userId);
+                    }
+                }
+                for (int i = 0; i < size / 100; i++) {
+                    reviewed.add(1L + random.nextInt(USERS));
+                }
+                learners.put(courseId, enrolled);
+                reviewers.put(courseId, reviewed);
+            }
+        }
+
+        List<Long> courseIds() {
+            return learners.keySet().stream().sorted().toList();
+        }
+
+        long distinct(Map<Long, List<Long>> users, List<Long> courseIds) {
+            Set<Long> exact = new HashSet<>();
+            courseIds.forEach(courseId -> exact.addAll(users.get(courseId)));
+            return exact.size();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static com.example.e_learning.service.OutlineFixtures.createCourse;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.e_learning.dto.CourseContentDTO;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(CourseContentService.class)
+class CourseContentServiceQueryCountTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockBean private CourseOutlineCache outlineCache;
+    @MockBean private CourseOutlineJdbcRepository outlineJdbcRepository;
+    @MockBean private CourseOwnershipResolver ownershipResolver;
+    @MockBean private CurrentUser currentUser;
+    @MockBean private OutlinePositionCompactor positionCompactor;
+
+    @Autowired private CourseContentService courseContentService;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void outlineLoadsInOneStatementWhateverItsSize() {
+        long small = createCourse(entityManager, "Small", 1, 1);
+        long large = createCourse(entityManager, "Large", 50, 20);
+
+        assertEquals(1, courseContentService.getTopicByCourseId(small).size());
+        long smallStatements = statementsFor(() -> courseContentService.getTopicByCourseId(small));
+
+        List<CourseContentDTO> outline = courseContentService.getTopicByCourseId(large);
+        assertEquals(50, outline.size());
+        assertTrue(outline.stream().allMatch(topic -> topic.getSubtopics().size() == 20));
+        long largeStatements = statementsFor(() -> courseContentService.getTopicByCourseId(large));
+
+        assertEquals(1, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void emptyOutlineTakesAtMostTwoStatements() {
+        long empty = createCourse(entityManager, "Empty", 0, 0);
+        assertTrue(courseContentService.getTopicByCourseId(empty).isEmpty());
+        assertTrue(statementsFor(() -> courseContentService.getTopicByCourseId(empty)) <= 2);
+    }
+
+    @Test
+    void missingCourseIsReported() {
+        assertThrows(IllegalArgumentException.class, () -> courseContentService.getTopicByCourseId(Long.MAX_VALUE));
+    }
+
+    private long statementsFor(Runnable load) {
+        entityManager.clear();
+        statistics.clear();
+        load.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
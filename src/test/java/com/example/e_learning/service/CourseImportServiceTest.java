@@ -0,0 +1,293 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.e_learning.dto.CourseImportDTO;
+import com.example.e_learning.entity.Course;
+import com.example.e_learning.entity.CourseImportCheckpoint;
+import com.example.e_learning.repository.CourseImportCheckpointRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.SubtopicRow;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository.TopicRow;
+import com.example.e_learning.repository.CourseRepository;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class CourseImportServiceTest {
+
+    private static final int CHUNK_TOPICS = 200;
+    private static final int CHUNK_SUBTOPICS = 2000;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CourseImportCheckpointRepository checkpointRepository = mock(CourseImportCheckpointRepository.class);
+    private final CourseRepository courseRepository = mock(CourseRepository.class);
+    private final CurrentUser currentUser = mock(CurrentUser.class);
+    // Stub-only, so Mockito does not keep every inserted chunk as a recorded argument
+    private final CourseOutlineJdbcRepository outlineJdbcRepository = mock(CourseOutlineJdbcRepository.class,
+            withSettings().stubOnly());
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    // The stored checkpoint row, updated the way the repository's queries would
+    private CourseImportCheckpoint stored;
+    private final AtomicLong nextTopicId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(currentUser.getUsername()).thenReturn("admin");
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(courseRepository.save(any(Course.class))).thenAnswer(invocation -> {
+            Course course = invocation.getArgument(0);
+            course.setId(42L);
+            return course;
+        });
+        when(checkpointRepository.save(any(CourseImportCheckpoint.class))).thenAnswer(invocation -> {
+            stored = invocation.getArgument(0);
+            return stored;
+        });
+        when(checkpointRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(stored));
+        when(checkpointRepository.setCourseId(anyString(), anyLong(), any())).thenAnswer(invocation -> {
+            stored.setCourseId(invocation.getArgument(1));
+            return 1;
+        });
+        when(checkpointRepository.advance(anyString(), anyLong(), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            stored.setTopicsImported(stored.getTopicsImported() + invocation.<Long>getArgument(1));
+            stored.setSubtopicsImported(stored.getSubtopicsImported() + invocation.<Long>getArgument(2));
+            stored.setBytesProcessed(invocation.getArgument(3));
+            return 1;
+        });
+        when(checkpointRepository.setStatus(anyString(), anyString(), any(), any())).thenAnswer(invocation -> {
+            stored.setStatus(invocation.getArgument(1));
+            stored.setError(invocation.getArgument(2));
+            return 1;
+        });
+        when(outlineJdbcRepository.reserveTopicIds(anyInt())).thenAnswer(invocation -> {
+            long first = nextTopicId.getAndAdd(invocation.<Integer>getArgument(0));
+            return LongStream.range(first, first + invocation.<Integer>getArgument(0)).boxed().toList();
+        });
+    }
+
+    @Test
+    void largePackageIsImportedInBoundedChunksWithoutRetainingIt() throws Exception {
+        int topics = 20_000;
+        int subtopicsPerTopic = 20;
+        Path pkg = generatePackage(topics, subtopicsPerTopic);
+        long packageBytes = Files.size(pkg);
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicInteger largestChunk = new AtomicInteger();
+        AtomicInteger largestSubtopicChunk = new AtomicInteger();
+        AtomicLong subtopicsInserted = new AtomicLong();
+        List<Long> heapAfterChunk = new ArrayList<>();
+        when(outlineJdbcRepository.insertTopics(eq(42L), isNull(), anyList())).thenAnswer(invocation -> {
+            List<TopicRow> rows = invocation.getArgument(2);
+            largestChunk.accumulateAndGet(rows.size(), Math::max);
+            int chunk = chunks.incrementAndGet();
+            if (chunk == 5 || chunk % 50 == 0) {
+                System.gc();
+                heapAfterChunk.add(memory.getHeapMemoryUsage().getUsed());
+            }
+            return rows.size();
+        });
+        when(outlineJdbcRepository.insertSubtopics(anyList())).thenAnswer(invocation -> {
+            List<SubtopicRow> rows = invocation.getArgument(0);
+            largestSubtopicChunk.accumulateAndGet(rows.size(), Math::max);
+            subtopicsInserted.addAndGet(rows.size());
+            return rows.size();
+        });
+
+        CourseImportDTO started = startImport(newService(), pkg);
+        CourseImportCheckpoint checkpoint = awaitFinished();
+
+        assertEquals(CourseImportService.COMPLETED, checkpoint.getStatus(), checkpoint.getError());
+        assertEquals(topics, checkpoint.getTopicsImported());
+        assertEquals((long) topics * subtopicsPerTopic, checkpoint.getSubtopicsImported());
+        assertEquals(checkpoint.getSubtopicsImported(), subtopicsInserted.get());
+        assertEquals(packageBytes, started.getBytesTotal());
+        // The subtopic limit closes a chunk before the topic limit does
+        assertEquals(topics * subtopicsPerTopic / CHUNK_SUBTOPICS, chunks.get());
+        assertTrue(largestChunk.get() < CHUNK_TOPICS);
+        assertEquals(CHUNK_SUBTOPICS, largestSubtopicChunk.get());
+        awaitDeleted(directory.resolve(started.getId() + ".json"));
+
+        long growth = heapAfterChunk.get(heapAfterChunk.size() - 1) - heapAfterChunk.get(0);
+        assertTrue(growth < packageBytes / 4,
+                "heap grew by " + growth + " bytes while importing a " + packageBytes + " byte package");
+    }
+
+    @Test
+    void failedImportResumesAfterItsLastCommittedChunk() throws Exception {
+        int topics = 3_000;
+        Path pkg = generatePackage(topics, 3);
+        BitSet positions = new BitSet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger chunks = new AtomicInteger();
+        when(outlineJdbcRepository.insertTopics(eq(42L), isNull(), anyList())).thenAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 7) {
+                throw new IllegalStateException("connection reset");
+            }
+            List<TopicRow> rows = invocation.getArgument(2);
+            for (TopicRow row : rows) {
+                int index = (int) (row.position() / OutlinePositions.GAP) - 1;
+                if (positions.get(index)) {
+                    duplicates.incrementAndGet();
+                }
+                positions.set(index);
+            }
+            return rows.size();
+        });
+
+        CourseImportService service = newService();
+        CourseImportDTO started = startImport(service, pkg);
+        CourseImportCheckpoint failed = awaitFinished();
+        assertEquals(CourseImportService.FAILED, failed.getStatus());
+        assertEquals("connection reset", failed.getError());
+        assertEquals(6 * CHUNK_TOPICS, failed.getTopicsImported());
+        assertEquals(6 * CHUNK_TOPICS, positions.cardinality());
+
+        resumeOnceIdle(service, started.getId());
+        CourseImportCheckpoint completed = awaitFinished();
+        assertEquals(CourseImportService.COMPLETED, completed.getStatus(), completed.getError());
+        assertEquals(topics, completed.getTopicsImported());
+        assertEquals(topics, positions.cardinality());
+        assertEquals(topics, positions.nextClearBit(0));
+        assertEquals(0, duplicates.get());
+        // The course is created once, not again on resume
+        verify(courseRepository).save(any(Course.class));
+    }
+
+    @Test
+    void onlyImportsWhoseLeaseExpiredAreFailed() {
+        CourseImportService service = newService();
+        Instant before = Instant.now();
+        service.failAbandonedImports();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(checkpointRepository).replaceStatusUpdatedBefore(eq(CourseImportService.RUNNING),
+                eq(CourseImportService.FAILED), anyString(), cutoff.capture(), any());
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofMinutes(2))));
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofMinutes(2))));
+    }
+
+    @Test
+    void leasesAreRenewedOnlyWhileImportsRun() {
+        newService().renewLeases();
+        verify(checkpointRepository, never()).touch(any(), any(), any());
+    }
+
+    private CourseImportService newService() {
+        return new CourseImportService(checkpointRepository, courseRepository, mock(InstructorApplicationRepository.class),
+                currentUser, outlineJdbcRepository, mock(CourseOutlineCache.class), objectMapper,
+                new TransactionTemplate(transactionManager), directory.toString(), CHUNK_TOPICS, CHUNK_SUBTOPICS,
+                1000, Long.MAX_VALUE, 72, 120_000);
+    }
+
+    private static CourseImportDTO startImport(CourseImportService service, Path pkg) throws IOException {
+        try (InputStream body = Files.newInputStream(pkg)) {
+            return service.startImport(body);
+        }
+    }
+
+    private CourseImportCheckpoint awaitFinished() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (CourseImportService.RUNNING.equals(stored.getStatus())) {
+            assertTrue(System.nanoTime() < deadline, "import did not finish");
+            Thread.sleep(20);
+        }
+        return stored;
+    }
+
+    // The import thread releases its claim just after recording the failure
+    private static void resumeOnceIdle(CourseImportService service, String importId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (true) {
+            try {
+                service.resume(importId);
+                return;
+            } catch (IllegalStateException e) {
+                assertTrue(System.nanoTime() < deadline, e.getMessage());
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static void awaitDeleted(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (Files.exists(file)) {
+            assertTrue(System.nanoTime() < deadline, file + " was not deleted");
+            Thread.sleep(20);
+        }
+    }
+
+    // Written straight to disk, so the test never holds the package in memory either
+    private Path generatePackage(int topics, int subtopicsPerTopic) throws IOException {
+        Path pkg = Files.createTempFile(directory, "package", ".json");
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(Files.newOutputStream(pkg))) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("course");
+            json.writeStringField("title", "Generated course");
+            json.writeNumberField("price", 10);
+            json.writeEndObject();
+            json.writeArrayFieldStart("topics");
+            for (int t = 0; t < topics; t++) {
+                json.writeStartObject();
+                json.writeStringField("topic", "Topic " + t);
+                json.writeArrayFieldStart("subtopics");
+                for (int s = 0; s < subtopicsPerTopic; s++) {
+                    json.writeStartObject();
+                    json.writeStringField("name", "Subtopic " + t + "." + s);
+                    json.writeStringField("url", "https://videos.example.com/courses/generated/" + t + "/" + s);
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return pkg;
+    }
+}
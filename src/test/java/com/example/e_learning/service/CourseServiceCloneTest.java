@@ -0,0 +1,243 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static com.example.e_learning.service.OutlineFixtures.createCourse;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.e_learning.entity.Course;
+import com.example.e_learning.entity.CourseContent;
+import com.example.e_learning.entity.Subtopic;
+import com.example.e_learning.repository.CourseContentRepository;
+import com.example.e_learning.repository.CourseOutlineJdbcRepository;
+import com.example.e_learning.repository.CourseRepository;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({CourseService.class, CourseOutlineJdbcRepository.class, CourseServiceCloneTest.StatementCounting.class})
+class CourseServiceCloneTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseServiceCloneTest.class);
+
+    // cloneCourse goes through JdbcTemplate, which Hibernate statistics do not see, so
+    // statements are counted on the connections handed out by the DataSource instead
+    private static final AtomicLong statements = new AtomicLong();
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockBean private CourseAudienceSketches audienceSketches;
+    @MockBean private CourseOutlineCache outlineCache;
+    @MockBean private OutlineSnapshotService outlineSnapshotService;
+    @MockBean private CourseOwnershipResolver ownershipResolver;
+    @MockBean private CurrentUser currentUser;
+
+    @Autowired private CourseService courseService;
+    @Autowired private CourseRepository courseRepository;
+    @Autowired private CourseContentRepository courseContentRepository;
+    @Autowired private TestEntityManager entityManager;
+
+    @BeforeEach
+    void actAsAdmin() {
+        when(currentUser.isAdmin()).thenReturn(true);
+    }
+
+    @Test
+    void cloneCopiesEveryRowInTwoStatements() {
+        long source = createCourse(entityManager, "Algorithms", 40, 25);
+
+        statements.set(0);
+        CourseService.CloneResult result = courseService.cloneCourse(source, null);
+        assertEquals(2, statements.get());
+
+        assertEquals(40, result.topics());
+        assertEquals(1000, result.subtopics());
+        assertNotEquals(source, result.courseId());
+
+        entityManager.clear();
+        assertEquals("Algorithms (copy)", courseRepository.findById(result.courseId()).orElseThrow().getTitle());
+        List<Object[]> copied = courseContentRepository.findOutlineRowsByCourseId(result.courseId());
+        List<Object[]> original = courseContentRepository.findOutlineRowsByCourseId(source);
+        assertEquals(1000, copied.size());
+        assertEquals(original.size(), copied.size());
+        for (int i = 0; i < copied.size(); i++) {
+            // Same topic, subtopic, url and positions, under new topic and subtopic IDs
+            assertNotEquals(original.get(i)[0], copied.get(i)[0]);
+            assertNotEquals(original.get(i)[2], copied.get(i)[2]);
+            for (int column : new int[] {1, 3, 4, 5, 6}) {
+                assertEquals(original.get(i)[column], copied.get(i)[column], "row " + i + " column " + column);
+            }
+        }
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTheOutline() {
+        long small = createCourse(entityManager, "Small", 1, 1);
+        long large = createCourse(entityManager, "Large", 100, 50);
+
+        statements.set(0);
+        courseService.cloneCourse(small, "Small copy");
+        long smallStatements = statements.getAndSet(0);
+        CourseService.CloneResult result = courseService.cloneCourse(large, "Large copy");
+        long largeStatements = statements.get();
+
+        assertEquals(smallStatements, largeStatements);
+        assertEquals(100, result.topics());
+        assertEquals(5000, result.subtopics());
+    }
+
+    @Test
+    void cloneTakesFewerStatementsThanAnEntityGraphCopy() {
+        for (int[] size : new int[][] {{10, 10}, {100, 50}}) {
+            int topics = size[0];
+            int subtopics = topics * size[1];
+            long source = createCourse(entityManager, "Outline " + topics + "x" + size[1], topics, size[1]);
+
+            statements.set(0);
+            long started = System.nanoTime();
+            long entityCopy = entityGraphClone(source);
+            long entityNanos = System.nanoTime() - started;
+            long entityStatements = statements.getAndSet(0);
+
+            started = System.nanoTime();
+            CourseService.CloneResult result = courseService.cloneCourse(source, null);
+            long cloneNanos = System.nanoTime() - started;
+            long cloneStatements = statements.get();
+
+            logger.info("{} topics, {} subtopics: entity graph copy {} statements in {} ms, cloneCourse {} statements in {} ms",
+                    topics, subtopics, entityStatements, entityNanos / 1_000_000, cloneStatements, cloneNanos / 1_000_000);
+            assertEquals(courseContentRepository.findOutlineRowsByCourseId(entityCopy).size(),
+                    courseContentRepository.findOutlineRowsByCourseId(result.courseId()).size());
+            // With IDENTITY keys Hibernate cannot batch, so the copy inserts row by row
+            assertTrue(entityStatements >= 1 + topics + subtopics, "entity graph copy took " + entityStatements);
+            assertEquals(2, cloneStatements);
+        }
+    }
+
+    @Test
+    void emptyCourseClonesWithoutTopics() {
+        long empty = createCourse(entityManager, "Empty", 0, 0);
+        CourseService.CloneResult result = courseService.cloneCourse(empty, "  ");
+        assertEquals(0, result.topics());
+        assertEquals(0, result.subtopics());
+        entityManager.clear();
+        assertEquals("Empty (copy)", courseRepository.findById(result.courseId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void missingCourseIsReported() {
+        assertThrows(IllegalArgumentException.class, () -> courseService.cloneCourse(Long.MAX_VALUE, null));
+    }
+
+    // The copy the clone replaced: load the outline as entities, then persist a copy by cascade
+    private long entityGraphClone(long courseId) {
+        Course source = entityManager.find(Course.class, courseId);
+        List<CourseContent> topics = entityManager.getEntityManager().createQuery(
+                "SELECT DISTINCT c FROM CourseContent c LEFT JOIN FETCH c.subtopics WHERE c.course.id = :courseId",
+                CourseContent.class).setParameter("courseId", courseId).getResultList();
+        Course copy = new Course();
+        copy.setTitle(source.getTitle() + " (copy)");
+        copy.setBody(source.getBody());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setPrice(source.getPrice());
+        copy.setInstructor(source.getInstructor());
+        entityManager.persist(copy);
+        for (CourseContent topic : topics) {
+            CourseContent topicCopy = new CourseContent();
+            topicCopy.setTopic(topic.getTopic());
+            topicCopy.setPosition(topic.getPosition());
+            topicCopy.setCourse(copy);
+            topicCopy.setInstructor(topic.getInstructor());
+            for (Subtopic subtopic : topic.getSubtopics()) {
+                Subtopic subtopicCopy = new Subtopic();
+                subtopicCopy.setName(subtopic.getName());
+                subtopicCopy.setUrl(subtopic.getUrl());
+                subtopicCopy.setPosition(subtopic.getPosition());
+                subtopicCopy.setCourseContent(topicCopy);
+                topicCopy.getSubtopics().add(subtopicCopy);
+            }
+            entityManager.persist(topicCopy);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return copy.getId();
+    }
+
+    @TestConfiguration
+    static class StatementCounting {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall")) {
+                            statements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
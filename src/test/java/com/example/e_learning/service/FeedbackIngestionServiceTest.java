@@ -0,0 +1,86 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.e_learning.dto.FeedbackDTO;
+import com.example.e_learning.repository.FeedbackJdbcRepository;
+
+class FeedbackIngestionServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private final CurrentUser currentUser = mock(CurrentUser.class);
+    private FeedbackIngestionService ingestion;
+
+    @BeforeEach
+    void start() throws IOException {
+        ingestion = new FeedbackIngestionService(mock(FeedbackJdbcRepository.class), mock(CourseRatingAggregates.class),
+                mock(FeedbackSearchIndex.class), mock(CourseAudienceSketches.class), mock(TransactionTemplate.class),
+                currentUser);
+        ReflectionTestUtils.setField(ingestion, "enabled", true);
+        ReflectionTestUtils.setField(ingestion, "queueCapacity", 16);
+        ReflectionTestUtils.setField(ingestion, "batchSize", 16);
+        ReflectionTestUtils.setField(ingestion, "lingerMs", 20L);
+        ReflectionTestUtils.setField(ingestion, "journalPath", directory.resolve("journal.log").toString());
+        ReflectionTestUtils.setField(ingestion, "journalFsync", false);
+        ingestion.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException, InterruptedException {
+        ingestion.stop();
+    }
+
+    @Test
+    void submitterSeesTheirSubmission() {
+        String trackingId = ingestion.enqueue(feedback("alice"));
+        actAs("alice", false);
+        FeedbackIngestionService.Tracking tracking = ingestion.getTracking(trackingId);
+        assertNotNull(tracking);
+        assertEquals("alice", tracking.username());
+    }
+
+    @Test
+    void otherUsersCannotTellTheSubmissionExists() {
+        String trackingId = ingestion.enqueue(feedback("alice"));
+        actAs("bob", false);
+        assertNull(ingestion.getTracking(trackingId));
+        assertNull(ingestion.getTracking("unknown"));
+    }
+
+    @Test
+    void adminsSeeAnySubmission() {
+        String trackingId = ingestion.enqueue(feedback("alice"));
+        actAs("admin", true);
+        assertNotNull(ingestion.getTracking(trackingId));
+    }
+
+    private void actAs(String username, boolean admin) {
+        when(currentUser.getUsername()).thenReturn(username);
+        when(currentUser.isAdmin()).thenReturn(admin);
+    }
+
+    private static FeedbackDTO feedback(String username) {
+        FeedbackDTO dto = new FeedbackDTO();
+        dto.setUsername(username);
+        dto.setCourseId(1L);
+        dto.setRating(5);
+        dto.setComments("Great course");
+        return dto;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.e_learning.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.e_learning.entity.User;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.example.e_learning.repository.RevokedTokenRepository;
+import com.example.e_learning.repository.UserRepository;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Per-request cost of checking a bearer token. {@code legacy} is what the filter did before
+ * verified principals were cached: three full parses of the token, each building the signing
+ * key and parser again. {@code verifyMiss} is {@link JwtService#verify} for a token not in the
+ * cache, {@code verifyHit} for a cached one. Run the {@link #main} method from the test
+ * classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = newService(10_000);
+        // With no room in the cache, every call parses and verifies the token
+        uncached = newService(0);
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setRole("USER");
+        token = cached.generateToken(user);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        blackhole.consume(legacyParse(token).get("username", String.class));
+        blackhole.consume(legacyParse(token).get("role", String.class));
+        blackhole.consume(legacyParse(token).getExpiration().after(new Date()));
+    }
+
+    @Benchmark
+    public JwtService.JwtPrincipal verifyMiss() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtService.JwtPrincipal verifyHit() {
+        return cached.verify(token);
+    }
+
+    private static Claims legacyParse(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtService newService(int maxCachedTokens) {
+        RevokedTokenStore revokedTokens = new RevokedTokenStore(mock(RevokedTokenRepository.class), 1000, 0.01);
+        revokedTokens.load();
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", 900_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 1_209_600_000L);
+        ReflectionTestUtils.setField(service, "maxCachedTokens", maxCachedTokens);
+        ReflectionTestUtils.setField(service, "instructorApplicationRepository", mock(InstructorApplicationRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(service, "revokedTokens", revokedTokens);
+        service.init();
+        return service;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.e_learning.entity.User;
+import com.example.e_learning.repository.InstructorApplicationRepository;
+import com.example.e_learning.repository.UserRepository;
+import com.example.e_learning.service.JwtService.JwtPrincipal;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    private final RevokedTokenStore revokedTokens = mock(RevokedTokenStore.class);
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(10_000, 900_000);
+    }
+
+    @Test
+    void validTokenYieldsItsClaims() {
+        JwtPrincipal principal = jwtService.verify(jwtService.generateToken(user("alice", 7L, "instructor")));
+        assertEquals("alice", principal.getName());
+        assertEquals(Long.valueOf(7), principal.userId());
+        assertEquals("ROLE_INSTRUCTOR", principal.role());
+    }
+
+    @Test
+    void repeatedTokenIsAnsweredFromTheCache() {
+        String token = jwtService.generateToken(user("alice", 7L, "USER"));
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void forgedTokenIsRejected() {
+        String forged = Jwts.builder()
+                .claim("username", "alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-another-secret-0123456789".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+        assertThrows(JwtException.class, () -> jwtService.verify(forged));
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenAfterTheOriginalWasCached() {
+        String token = jwtService.generateToken(user("alice", 7L, "USER"));
+        jwtService.verify(token);
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ROLE_USER", "ROLE_ADMIN");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = newService(10_000, -1000).generateToken(user("alice", 7L, "USER"));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void refreshTokenIsNotAnAccessToken() {
+        String refreshToken = jwtService.generateTokens(user("alice", 7L, "USER")).refreshToken();
+        assertThrows(MalformedJwtException.class, () -> jwtService.verify(refreshToken));
+    }
+
+    @Test
+    void revocationIsCheckedOnCachedTokens() {
+        String token = jwtService.generateToken(user("alice", 7L, "USER"));
+        JwtPrincipal principal = jwtService.verify(token);
+        when(revokedTokens.isRevoked(principal.tokenId())).thenReturn(true);
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void fullCacheEvictsTheOldestTokens() {
+        JwtService small = newService(2, 900_000);
+        String first = small.generateToken(user("a", 1L, "USER"));
+        String second = small.generateToken(user("b", 2L, "USER"));
+        String third = small.generateToken(user("c", 3L, "USER"));
+        JwtPrincipal firstPrincipal = small.verify(first);
+        JwtPrincipal secondPrincipal = small.verify(second);
+        JwtPrincipal thirdPrincipal = small.verify(third);
+
+        assertSame(secondPrincipal, small.verify(second));
+        assertSame(thirdPrincipal, small.verify(third));
+        assertNotSame(firstPrincipal, small.verify(first));
+    }
+
+    @Test
+    void sweepDropsExpiredTokens() throws InterruptedException {
+        JwtService shortLived = newService(10_000, 1000);
+        String token = shortLived.generateToken(user("alice", 7L, "USER"));
+        shortLived.verify(token);
+        Thread.sleep(1100);
+        assertEquals(1, shortLived.evictExpired());
+        assertThrows(ExpiredJwtException.class, () -> shortLived.verify(token));
+    }
+
+    private JwtService newService(int maxCachedTokens, long expirationMs) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", expirationMs);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 1_209_600_000L);
+        ReflectionTestUtils.setField(service, "maxCachedTokens", maxCachedTokens);
+        ReflectionTestUtils.setField(service, "instructorApplicationRepository", mock(InstructorApplicationRepository.class));
+        ReflectionTestUtils.setField(service, "userRepository", mock(UserRepository.class));
+        ReflectionTestUtils.setField(service, "revokedTokens", revokedTokens);
+        service.init();
+        return service;
+    }
+
+    private static User user(String username, Long id, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setId(id);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.e_learning.service.MediaService.ByteRange;
+import com.example.e_learning.service.MediaService.StoredMedia;
+
+class MediaServiceTest {
+
+    private static final String ETAG = "\"7-1000-1700000000000\"";
+
+    // resolveRange only reads the StoredMedia it is given, so no collaborators are needed
+    private final MediaService mediaService = new MediaService(null, null, null, null, "build/media-test", 1000);
+    private final StoredMedia media = new StoredMedia(Path.of("7.media"), 1000, "video/mp4", "lesson.mp4", true,
+            ETAG, Instant.ofEpochMilli(1_700_000_000_000L));
+
+    @Test
+    void noRangeSendsTheWholeFile() {
+        assertNull(mediaService.resolveRange(media, null, null));
+    }
+
+    @Test
+    void closedRange() {
+        assertEquals(new ByteRange(0, 99), mediaService.resolveRange(media, "bytes=0-99", null));
+        assertEquals(100, mediaService.resolveRange(media, "bytes=0-99", null).length());
+    }
+
+    @Test
+    void openEndedRangeRunsToTheEnd() {
+        assertEquals(new ByteRange(500, 999), mediaService.resolveRange(media, "bytes=500-", null));
+    }
+
+    @Test
+    void endPastTheFileIsClamped() {
+        assertEquals(new ByteRange(900, 999), mediaService.resolveRange(media, "bytes=900-5000", null));
+    }
+
+    @Test
+    void suffixRangeServesTheLastBytes() {
+        assertEquals(new ByteRange(900, 999), mediaService.resolveRange(media, "bytes=-100", null));
+        assertEquals(new ByteRange(0, 999), mediaService.resolveRange(media, "bytes=-5000", null));
+    }
+
+    @Test
+    void unsatisfiableRangesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> mediaService.resolveRange(media, "bytes=1000-", null));
+        assertThrows(IllegalArgumentException.class, () -> mediaService.resolveRange(media, "bytes=10-5", null));
+        assertThrows(IllegalArgumentException.class, () -> mediaService.resolveRange(media, "bytes=-0", null));
+    }
+
+    @Test
+    void unsupportedRangesSendTheWholeFile() {
+        assertNull(mediaService.resolveRange(media, "bytes=0-1,5-6", null));
+        assertNull(mediaService.resolveRange(media, "bytes=-", null));
+        assertNull(mediaService.resolveRange(media, "items=0-1", null));
+    }
+
+    @Test
+    void ifRangeMustMatchTheCurrentEtag() {
+        assertEquals(new ByteRange(0, 9), mediaService.resolveRange(media, "bytes=0-9", ETAG));
+        assertNull(mediaService.resolveRange(media, "bytes=0-9", "\"7-1000-1600000000000\""));
+    }
+
+    @Test
+    void onlyPassiveMediaTypesAreServedInline() {
+        assertTrue(MediaService.isInlineType("video/mp4"));
+        assertTrue(MediaService.isInlineType("Audio/MPEG"));
+        assertTrue(MediaService.isInlineType("image/png; charset=binary"));
+        assertTrue(MediaService.isInlineType("application/pdf"));
+        assertFalse(MediaService.isInlineType("text/html"));
+        assertFalse(MediaService.isInlineType("image/svg+xml"));
+        assertFalse(MediaService.isInlineType("application/xhtml+xml"));
+        assertFalse(MediaService.isInlineType(null));
+    }
+}
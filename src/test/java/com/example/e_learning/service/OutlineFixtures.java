@@ -0,0 +1,47 @@
+package com.example.e_learning.service;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.example.e_learning.entity.Course;
+import com.example.e_learning.entity.CourseContent;
+import com.example.e_learning.entity.Subtopic;
+
+/**
+ * Courses with generated outlines for tests that run against a database.
+ */
+final class OutlineFixtures {
+
+    private OutlineFixtures() {
+    }
+
+    /**
+     * Persists a course with {@code topics} topics of {@code subtopicsPerTopic} subtopics each,
+     * gap-positioned in order, then flushes and clears the persistence context so later reads
+     * and set-based statements see the rows in the database.
+     */
+    static long createCourse(TestEntityManager entityManager, String title, int topics, int subtopicsPerTopic) {
+        Course course = new Course();
+        course.setTitle(title);
+        course.setBody(title + " body");
+        course.setPrice(10);
+        entityManager.persist(course);
+        for (int t = 0; t < topics; t++) {
+            CourseContent topic = new CourseContent();
+            topic.setTopic("Topic " + t);
+            topic.setPosition((t + 1) * OutlinePositions.GAP);
+            topic.setCourse(course);
+            for (int s = 0; s < subtopicsPerTopic; s++) {
+                Subtopic subtopic = new Subtopic();
+                subtopic.setName("Subtopic " + t + "." + s);
+                subtopic.setUrl("https://example.com/" + t + "/" + s);
+                subtopic.setPosition((s + 1) * OutlinePositions.GAP);
+                subtopic.setCourseContent(topic);
+                topic.getSubtopics().add(subtopic);
+            }
+            entityManager.persist(topic);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return course.getId();
+    }
+}
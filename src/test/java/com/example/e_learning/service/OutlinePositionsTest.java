@@ -0,0 +1,92 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class OutlinePositionsTest {
+
+    private static final long GAP = OutlinePositions.GAP;
+
+    @Test
+    void betweenOpenEnds() {
+        assertEquals(Long.valueOf(GAP), OutlinePositions.between(null, null));
+        assertEquals(Long.valueOf(5000 - GAP), OutlinePositions.between(null, 5000L));
+        assertEquals(Long.valueOf(5000 + GAP), OutlinePositions.between(5000L, null));
+    }
+
+    @Test
+    void betweenNeighboursIsTheMidpoint() {
+        assertEquals(Long.valueOf(1536), OutlinePositions.between(1024L, 2048L));
+        assertEquals(Long.valueOf(11), OutlinePositions.between(10L, 12L));
+    }
+
+    @Test
+    void betweenAdjacentNeighboursHasNoRoom() {
+        assertNull(OutlinePositions.between(10L, 11L));
+        assertNull(OutlinePositions.between(10L, 10L));
+    }
+
+    @Test
+    void unchangedOrderKeepsEveryPosition() {
+        List<Long> current = List.of(1024L, 2048L, 3072L);
+        assertArrayEquals(new long[] {1024, 2048, 3072}, OutlinePositions.assign(current));
+    }
+
+    @Test
+    void newItemsAreAllGapped() {
+        assertArrayEquals(new long[] {GAP, 2 * GAP, 3 * GAP}, OutlinePositions.assign(Arrays.asList(null, null, null)));
+    }
+
+    @Test
+    void appendedItemGoesAfterTheLastKeptItem() {
+        long[] assigned = OutlinePositions.assign(Arrays.asList(1024L, 2048L, null));
+        assertArrayEquals(new long[] {1024, 2048, 2048 + GAP}, assigned);
+    }
+
+    @Test
+    void movingOneItemRewritesOnlyThatItem() {
+        // The last item moves to the front; the other three stay in order and keep their positions
+        long[] assigned = OutlinePositions.assign(List.of(4096L, 1024L, 2048L, 3072L));
+        assertEquals(1024L, assigned[1]);
+        assertEquals(2048L, assigned[2]);
+        assertEquals(3072L, assigned[3]);
+        assertTrue(assigned[0] < 1024L);
+        assertStrictlyIncreasing(assigned);
+    }
+
+    @Test
+    void insertionBetweenKeptItemsSplitsTheGap() {
+        long[] assigned = OutlinePositions.assign(Arrays.asList(1000L, null, null, 1003L));
+        assertArrayEquals(new long[] {1000, 1001, 1002, 1003}, assigned);
+    }
+
+    @Test
+    void respacesEverythingWhenAnInsertionPointIsFull() {
+        long[] assigned = OutlinePositions.assign(Arrays.asList(1000L, null, 1001L));
+        assertArrayEquals(new long[] {GAP, 2 * GAP, 3 * GAP}, assigned);
+    }
+
+    @Test
+    void reversedOrderStaysStrictlyIncreasing() {
+        long[] assigned = OutlinePositions.assign(List.of(5L * GAP, 4L * GAP, 3L * GAP, 2L * GAP, GAP));
+        assertStrictlyIncreasing(assigned);
+    }
+
+    @Test
+    void gappedStartsOneGapAfterTheStart() {
+        assertEquals(List.of(100 + GAP, 100 + 2 * GAP), OutlinePositions.gapped(2, 100));
+    }
+
+    private static void assertStrictlyIncreasing(long[] positions) {
+        for (int i = 1; i < positions.length; i++) {
+            assertTrue(positions[i - 1] < positions[i], "positions not increasing: " + Arrays.toString(positions));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.e_learning.repository.SubtopicLinkStatusJdbcRepository.LinkResult;
+import com.example.e_learning.repository.SubtopicLinkStatusJdbcRepository.LinkTarget;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class SubtopicLinkCheckerTest {
+
+    private static final int MAX_PER_HOST = 2;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final ConcurrentLinkedQueue<String> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    // probe only needs the HTTP settings; the repositories are used by full scans
+    private final SubtopicLinkChecker checker = new SubtopicLinkChecker(null, null, null, 500, 64, MAX_PER_HOST,
+            1000, 1000, true);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/ok", exchange -> respond(exchange, 200));
+        server.createContext("/missing", exchange -> respond(exchange, 404));
+        server.createContext("/no-head", exchange -> {
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                respond(exchange, 405);
+            } else {
+                respond(exchange, 206);
+            }
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/ok");
+            respond(exchange, 302);
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(3000);
+            respond(exchange, 200);
+        });
+        server.createContext("/busy", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(100);
+            inFlight.decrementAndGet();
+            respond(exchange, 200);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        checker.shutdown();
+    }
+
+    @Test
+    void reachableLinkIsOk() {
+        LinkResult result = probe(checker, "/ok");
+        assertEquals(SubtopicLinkChecker.OK, result.outcome());
+        assertEquals(200, result.statusCode());
+        assertEquals(List.of("HEAD /ok"), List.copyOf(requests));
+    }
+
+    @Test
+    void rejectedHeadFallsBackToARangedGet() {
+        LinkResult result = probe(checker, "/no-head");
+        assertEquals(SubtopicLinkChecker.OK, result.outcome());
+        assertEquals(206, result.statusCode());
+        assertEquals(List.of("HEAD /no-head", "GET /no-head bytes=0-0"), List.copyOf(requests));
+    }
+
+    @Test
+    void missingPageIsBroken() {
+        LinkResult result = probe(checker, "/missing");
+        assertEquals(SubtopicLinkChecker.BROKEN, result.outcome());
+        assertEquals(404, result.statusCode());
+        assertFalse(result.healthy());
+    }
+
+    @Test
+    void redirectsAreFollowed() {
+        LinkResult result = probe(checker, "/moved");
+        assertEquals(SubtopicLinkChecker.OK, result.outcome());
+        assertEquals(List.of("HEAD /moved", "HEAD /ok"), List.copyOf(requests));
+    }
+
+    @Test
+    void slowServerTimesOut() {
+        LinkResult result = probe(checker, "/slow");
+        assertEquals(SubtopicLinkChecker.TIMEOUT, result.outcome());
+        assertTrue(result.latencyMs() >= 1000, "latency " + result.latencyMs());
+    }
+
+    @Test
+    void probesOfOneHostAreLimited() throws Exception {
+        List<Future<LinkResult>> results = new ArrayList<>();
+        try (HttpClient client = checker.newClient();
+             ExecutorService probes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                LinkTarget target = new LinkTarget(i, 1L, url("/busy"));
+                results.add(probes.submit(() -> checker.probe(client, target)));
+            }
+            for (Future<LinkResult> result : results) {
+                assertEquals(SubtopicLinkChecker.OK, result.get().outcome());
+            }
+        }
+        assertEquals(8, requests.size());
+        assertTrue(maxInFlight.get() <= MAX_PER_HOST, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void privateAddressesAreRefusedByDefault() {
+        SubtopicLinkChecker strict = new SubtopicLinkChecker(null, null, null, 500, 64, MAX_PER_HOST, 1000, 1000, false);
+        try {
+            LinkResult result = probe(strict, "/ok");
+            assertEquals(SubtopicLinkChecker.INVALID, result.outcome());
+            assertTrue(requests.isEmpty());
+        } finally {
+            strict.shutdown();
+        }
+    }
+
+    @Test
+    void onlyPubliclyRoutableAddressesArePublic() throws IOException {
+        for (String address : List.of("127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "100.64.0.1", "0.0.0.0", "198.18.0.1", "240.0.0.1", "224.0.0.1", "::1", "fe80::1", "fd00::1")) {
+            assertFalse(SubtopicLinkChecker.isPublicAddress(InetAddress.getByName(address)), address);
+        }
+        for (String address : List.of("8.8.8.8", "100.128.0.1", "2001:4860:4860::8888")) {
+            assertTrue(SubtopicLinkChecker.isPublicAddress(InetAddress.getByName(address)), address);
+        }
+    }
+
+    private LinkResult probe(SubtopicLinkChecker linkChecker, String path) {
+        try (HttpClient client = linkChecker.newClient()) {
+            return linkChecker.probe(client, new LinkTarget(1, 1L, url(path)));
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private void respond(HttpExchange exchange, int status) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + (range != null ? " " + range : ""));
+        boolean body = status == 206 && !exchange.getRequestMethod().equals("HEAD");
+        exchange.sendResponseHeaders(status, body ? 1 : -1);
+        if (body) {
+            exchange.getResponseBody().write('x');
+        }
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.e_learning.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.e_learning.repository.UserRepository;
+
+class UserExistenceIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void loadIndexesExistingUsers() {
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(users(entry(1, "Alice", "alice@example.com")));
+        UserExistenceIndex index = newIndex(1000);
+
+        assertTrue(index.mightHaveUsername(" alice "));
+        assertTrue(index.mightHaveEmail("ALICE@example.com"));
+        assertFalse(index.mightHaveUsername("bob"));
+    }
+
+    @Test
+    void syncReadsOnlyUsersCreatedSinceTheHighestSeenId() {
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(users(entry(1, "alice", null), entry(5, "carol", null)));
+        UserExistenceIndex index = newIndex(1000);
+
+        // Registered on another instance
+        when(userRepository.findIndexEntriesAfter(5)).thenReturn(users(entry(9, "bob", "bob@example.com")));
+        index.sync();
+        assertTrue(index.mightHaveUsername("bob"));
+        assertTrue(index.mightHaveEmail("bob@example.com"));
+
+        index.sync();
+        verify(userRepository).findIndexEntriesAfter(5);
+        verify(userRepository).findIndexEntriesAfter(9);
+        verify(userRepository, times(1)).findIndexEntriesAfter(0);
+    }
+
+    @Test
+    void syncRebuildsOnceTheFilterOutgrowsItsSize() {
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(List.of());
+        UserExistenceIndex index = newIndex(4);
+
+        List<Object[]> signups = new ArrayList<>();
+        for (int id = 1; id <= 5; id++) {
+            signups.add(entry(id, "user" + id, null));
+        }
+        when(userRepository.findIndexEntriesAfter(anyLong())).thenReturn(List.of());
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(signups);
+        index.sync();
+        assertTrue(index.mightHaveUsername("user5"));
+
+        // Five users in a filter sized for four: the next sync rebuilds instead of reading new rows
+        index.sync();
+        verify(userRepository, times(3)).findIndexEntriesAfter(0);
+        verify(userRepository, never()).findIndexEntriesAfter(5);
+
+        index.sync();
+        verify(userRepository).findIndexEntriesAfter(5);
+        verify(userRepository, times(3)).findIndexEntriesAfter(0);
+    }
+
+    @Test
+    void rebuildForgetsReleasedNames() {
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(users(entry(1, "alice", null)));
+        UserExistenceIndex index = newIndex(1000);
+        index.add("bob", "bob@example.com");
+        assertTrue(index.mightHaveUsername("bob"));
+
+        // bob's signup rolled back, alice was renamed to carol
+        when(userRepository.findIndexEntriesAfter(0)).thenReturn(users(entry(1, "carol", null)));
+        index.rebuild();
+        assertFalse(index.mightHaveUsername("bob"));
+        assertFalse(index.mightHaveUsername("alice"));
+        assertTrue(index.mightHaveUsername("carol"));
+    }
+
+    private UserExistenceIndex newIndex(long expectedUsers) {
+        UserExistenceIndex index = new UserExistenceIndex(userRepository, expectedUsers, 0.001);
+        index.load();
+        return index;
+    }
+
+    private static List<Object[]> users(Object[]... entries) {
+        return List.of(entries);
+    }
+
+    private static Object[] entry(long id, String username, String email) {
+        return new Object[] {id, username, email};
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.e_learning.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void emptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 100; id++) {
+            sketch.add(id);
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void largeCardinalitiesStayWithinThreeStandardErrors() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 1_000_000;
+        for (long id = 1; id <= distinct; id++) {
+            sketch.add(id);
+        }
+        double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+        assertTrue(error < 3 * sketch.relativeError(), "relative error " + error);
+    }
+
+    @Test
+    void estimatesAroundTheSmallRangeCutoverStayWithinThreeStandardErrors() {
+        // 2.5 * m is about 41,000 registers' worth at the default precision
+        for (int distinct = 20_000; distinct <= 100_000; distinct += 4_000) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long id = 1; id <= distinct; id++) {
+                sketch.add(id * 7_919 + distinct);
+            }
+            double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(error < 3 * sketch.relativeError(), distinct + " distinct, relative error " + error);
+        }
+    }
+
+    @Test
+    void repeatedValuesDoNotChangeTheSketch() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 1000; id++) {
+            sketch.add(id);
+        }
+        long estimate = sketch.estimate();
+        for (long id = 1; id <= 1000; id++) {
+            assertFalse(sketch.add(id));
+        }
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long id = 1; id <= 60_000; id++) {
+            first.add(id);
+        }
+        for (long id = 40_001; id <= 100_000; id++) {
+            second.add(id);
+        }
+        first.merge(second);
+        assertEquals(100_000, first.estimate(), 100_000 * 3 * first.relativeError());
+    }
+
+    @Test
+    void mergeRejectsDifferentPrecisions() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(10).merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void precisionOutsideRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    }
+
+    @Test
+    void sparseSketchRoundTrips() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 20; id++) {
+            sketch.add(id);
+        }
+        byte[] bytes = sketch.toBytes();
+        assertTrue(bytes.length < 100, "sparse encoding used " + bytes.length + " bytes");
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(bytes, restored.toBytes());
+    }
+
+    @Test
+    void denseSketchRoundTrips() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (long id = 1; id <= 50_000; id++) {
+            sketch.add(id);
+        }
+        byte[] bytes = sketch.toBytes();
+        assertEquals(2 + (1 << 10), bytes.length);
+        HyperLogLog restored = HyperLogLog.fromBytes(bytes);
+        assertEquals(10, restored.getPrecision());
+        assertEquals(sketch.estimate(), restored.estimate());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(1);
+        HyperLogLog copy = sketch.copy();
+        for (long id = 2; id <= 1000; id++) {
+            copy.add(id);
+        }
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void corruptBytesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {9, 14}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[] {1, 14, 0, 0}));
+    }
+}
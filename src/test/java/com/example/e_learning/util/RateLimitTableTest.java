@@ -0,0 +1,96 @@
+package com.example.e_learning.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class RateLimitTableTest {
+
+    // Long enough that no bucket refills noticeably while a test runs
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void admitsABurstThenReportsTheWait() {
+        RateLimitTable table = new RateLimitTable(1024);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, table.acquire(42, INTERVAL, 5 * INTERVAL), "request " + i);
+        }
+        long wait = table.acquire(42, INTERVAL, 5 * INTERVAL);
+        assertTrue(wait > 0 && wait <= INTERVAL, "wait " + wait);
+    }
+
+    @Test
+    void refusedRequestsDoNotSpendTokens() {
+        RateLimitTable table = new RateLimitTable(1024);
+        assertEquals(0, table.acquire(7, INTERVAL, INTERVAL));
+        long first = table.acquire(7, INTERVAL, INTERVAL);
+        long second = table.acquire(7, INTERVAL, INTERVAL);
+        assertTrue(first > 0 && second > 0);
+        assertTrue(second <= first, "the wait grew after a refusal");
+    }
+
+    @Test
+    void bucketsRefillOverTime() throws InterruptedException {
+        RateLimitTable table = new RateLimitTable(1024);
+        long interval = TimeUnit.MILLISECONDS.toNanos(20);
+        assertEquals(0, table.acquire(9, interval, interval));
+        assertTrue(table.acquire(9, interval, interval) > 0);
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(0, table.acquire(9, interval, interval));
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        RateLimitTable table = new RateLimitTable(1024);
+        assertEquals(0, table.acquire(1, INTERVAL, INTERVAL));
+        assertTrue(table.acquire(1, INTERVAL, INTERVAL) > 0);
+        assertEquals(0, table.acquire(2, INTERVAL, INTERVAL));
+    }
+
+    @Test
+    void capacityIsAPowerOfTwoAtLeastTheRequestedSize() {
+        assertEquals(1024, new RateLimitTable(1000).capacity());
+        assertEquals(1024, new RateLimitTable(1024).capacity());
+        assertEquals(128, new RateLimitTable(1).capacity());
+    }
+
+    @Test
+    void keysWithFreeSlotsStartWithAFullBucket() {
+        RateLimitTable table = new RateLimitTable(64);
+        // Keys 1..64 have distinct home slots in a table of 128
+        for (long key = 1; key <= 64; key++) {
+            assertEquals(0, table.acquire(key, INTERVAL, INTERVAL), "key " + key);
+        }
+    }
+
+    @Test
+    void collidingKeyKeepsItsBucketWhenAnEarlierSlotRefills() throws InterruptedException {
+        RateLimitTable table = new RateLimitTable(64);
+        // Both keys have home slot 5 in a table of 128, so the second is pushed to slot 6
+        long first = 5;
+        long second = 5 + 128;
+        long shortInterval = TimeUnit.MILLISECONDS.toNanos(20);
+        assertEquals(0, table.acquire(first, shortInterval, shortInterval));
+        assertEquals(0, table.acquire(second, INTERVAL, INTERVAL));
+        assertTrue(table.acquire(second, INTERVAL, INTERVAL) > 0);
+
+        TimeUnit.MILLISECONDS.sleep(50);
+        // The first key's bucket has refilled, freeing slot 5; the second key must not take it
+        long wait = table.acquire(second, INTERVAL, INTERVAL);
+        assertTrue(wait > INTERVAL / 2, "wait " + wait);
+    }
+
+    @Test
+    void moreKeysThanSlotsEvictInsteadOfGrowing() {
+        RateLimitTable table = new RateLimitTable(64);
+        for (long key = 1; key <= 10_000; key++) {
+            // A key that takes over a busy slot inherits at most one interval of waiting
+            long wait = table.acquire(key * 0x9e3779b97f4a7c15L, INTERVAL, INTERVAL);
+            assertTrue(wait >= 0 && wait <= INTERVAL, "key " + key + " waits " + wait);
+        }
+        assertEquals(128, table.capacity());
+    }
+}